@@ -1,15 +1,18 @@
 package com.benz.mercedes.fxrate;
 
+import com.benz.mercedes.fxrate.config.FxRateProperties;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Info;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 
 @SpringBootApplication
 @OpenAPIDefinition(info = @Info(title = "Exchange Rate", version = "1.0-SNAPSHOT",
 		description = "Simple exchange rates Service"))
 @EnableFeignClients
+@EnableConfigurationProperties(FxRateProperties.class)
 public class ExchangeRateApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,104 @@
+package com.benz.mercedes.fxrate.cache;
+
+import com.benz.mercedes.fxrate.config.FxRateProperties;
+import com.benz.mercedes.fxrate.domain.CrossRateMatrix;
+import com.benz.mercedes.fxrate.domain.ExchangeRate;
+import com.benz.mercedes.fxrate.domain.RateSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.MathContext;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * In-process cache of the latest Euro base currency rates fetched by the Currency Exchange Rate
+ * Scheduler. Any X/Y pair of the cached currencies is triangulated against EUR once per update
+ * into an immutable {@link CrossRateMatrix} which is replaced as a whole, so readers never lock and
+ * a lookup neither divides nor allocates.
+ */
+@Slf4j
+@Component
+public class ExchangeRateCache {
+
+  private final FxRateProperties.Cache cacheProperties;
+
+  private final Clock clock;
+
+  private final MathContext crossRateMathContext;
+
+  private volatile CrossRateMatrix crossRateMatrix;
+
+  @Autowired
+  public ExchangeRateCache(FxRateProperties fxRateProperties) {
+    this(fxRateProperties, Clock.systemUTC());
+  }
+
+  ExchangeRateCache(FxRateProperties fxRateProperties, Clock clock) {
+    this.cacheProperties = fxRateProperties.getCache();
+    this.crossRateMathContext = fxRateProperties.getCrossRate().getMathContext();
+    this.clock = clock;
+  }
+
+  /**
+   * Replaces the cached rates with the given Euro base currency rates
+   *
+   * @param exchangeRate latest rates from the exchangerate-api /latest/EUR call
+   */
+  public void update(ExchangeRate exchangeRate) {
+    Optional.ofNullable(exchangeRate).map(ExchangeRate::getConversionRates)
+        .ifPresent(conversionRates -> {
+          crossRateMatrix = CrossRateMatrix.of(RateSnapshot.of(conversionRates, clock.millis()),
+              crossRateMathContext);
+          log.debug("Exchange rate cache updated with {}", conversionRates);
+        });
+  }
+
+  /**
+   * Cached rates which are not older than the configured ttl
+   *
+   * @return null on a cache miss
+   */
+  public CrossRateMatrix getFreshCrossRates() {
+    return getCrossRates(cacheProperties.getTtl());
+  }
+
+  /**
+   * Cached rates which are not older than the configured max staleness. Used only when the
+   * exchangerate-api is not reachable.
+   *
+   * @return null on a cache miss
+   */
+  public CrossRateMatrix getStaleCrossRates() {
+    return getCrossRates(cacheProperties.getMaxStaleness());
+  }
+
+  /**
+   * Whether the cross rates are older than the configured ttl, so they are only served because the
+   * exchangerate-api is not reachable
+   */
+  public boolean isStale(CrossRateMatrix crossRates) {
+    return crossRates.getTimestamp() + cacheProperties.getTtl().toMillis() < clock.millis();
+  }
+
+  /**
+   * Reads the X/Y rate from rates which are not older than the configured ttl without allocating
+   *
+   * @return NaN on a cache miss
+   */
+  public double getRate(String baseCurrency, String targetCurrency) {
+    CrossRateMatrix matrix = getFreshCrossRates();
+    return matrix == null ? Double.NaN : matrix.getCrossRate(baseCurrency, targetCurrency);
+  }
+
+  private CrossRateMatrix getCrossRates(Duration maxAge) {
+    CrossRateMatrix matrix = crossRateMatrix;
+    if (matrix == null || matrix.getTimestamp() + maxAge.toMillis() < clock.millis()) {
+      return null;
+    }
+    return matrix;
+  }
+
+}
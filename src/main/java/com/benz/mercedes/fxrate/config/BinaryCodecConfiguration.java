@@ -0,0 +1,142 @@
+package com.benz.mercedes.fxrate.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+import org.springframework.web.reactive.accept.HeaderContentTypeResolver;
+import org.springframework.web.reactive.accept.RequestedContentTypeResolverBuilder;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CBOR and Smile encodings of the REST responses for internal consumers, selected by the Accept
+ * header next to JSON. Both reuse the Jackson mapping of the JSON responses, with the dates
+ * written as epoch millis instead of ISO strings. Smile also streams the change feed and the
+ * conversions as application/stream+x-jackson-smile.
+ */
+@Configuration
+public class BinaryCodecConfiguration implements WebFluxConfigurer {
+
+  public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+  public static final MediaType APPLICATION_SMILE = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+
+  public static final String APPLICATION_STREAM_SMILE_VALUE =
+      "application/stream+x-jackson-smile";
+
+  // the codec constructors taking an ObjectMapper default to the JSON mime types
+  private static final MimeType[] SMILE_MIME_TYPES = {APPLICATION_SMILE,
+      new MimeType("application", "*+x-jackson-smile")};
+
+  private final ObjectMapper cborObjectMapper;
+
+  private final ObjectMapper smileObjectMapper;
+
+  public BinaryCodecConfiguration(
+      ObjectProvider<Jackson2ObjectMapperBuilder> jackson2ObjectMapperBuilder) {
+    // the builder is a prototype carrying the spring.jackson settings, one per mapper
+    this.cborObjectMapper = newObjectMapper(jackson2ObjectMapperBuilder.getObject(),
+        new CBORFactory());
+    this.smileObjectMapper = newObjectMapper(jackson2ObjectMapperBuilder.getObject(),
+        new SmileFactory());
+  }
+
+  @Override
+  public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+    configurer.defaultCodecs().jackson2SmileEncoder(
+        new Jackson2SmileEncoder(smileObjectMapper, SMILE_MIME_TYPES));
+    configurer.defaultCodecs().jackson2SmileDecoder(
+        new Jackson2SmileDecoder(smileObjectMapper, SMILE_MIME_TYPES));
+    configurer.customCodecs().register(new CborEncoder(cborObjectMapper));
+    configurer.customCodecs().register(
+        new Jackson2CborDecoder(cborObjectMapper, MediaType.APPLICATION_CBOR));
+  }
+
+  /**
+   * Custom codecs are listed before the JSON codec, so a missing or wildcard Accept header would
+   * select CBOR. JSON is added in front of every wildcard with its quality, CBOR and Smile are
+   * only written when the Accept header names them.
+   */
+  @Override
+  public void configureContentTypeResolver(RequestedContentTypeResolverBuilder builder) {
+    HeaderContentTypeResolver headerContentTypeResolver = new HeaderContentTypeResolver();
+    builder.resolver(exchange -> preferJson(
+        headerContentTypeResolver.resolveMediaTypes(exchange)));
+  }
+
+  private static List<MediaType> preferJson(List<MediaType> acceptableTypes) {
+    List<MediaType> mediaTypes = new ArrayList<>(acceptableTypes.size() + 1);
+    for (MediaType acceptableType : acceptableTypes) {
+      if (!acceptableType.isConcrete() && acceptableType.includes(MediaType.APPLICATION_JSON)) {
+        mediaTypes.add(new MediaType(MediaType.APPLICATION_JSON, acceptableType.getParameters()));
+      }
+      mediaTypes.add(acceptableType);
+    }
+    return mediaTypes;
+  }
+
+  private static ObjectMapper newObjectMapper(Jackson2ObjectMapperBuilder builder,
+      JsonFactory jsonFactory) {
+    return builder.factory(jsonFactory)
+        .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .featuresToDisable(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS)
+        .build();
+  }
+
+  /**
+   * Jackson2CborEncoder rejects a Flux body. A Flux is written as one CBOR array, like the JSON
+   * array of a non-streaming JSON response.
+   */
+  private static final class CborEncoder extends Jackson2CborEncoder {
+
+    private CborEncoder(ObjectMapper objectMapper) {
+      super(objectMapper, MediaType.APPLICATION_CBOR);
+    }
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, @Nullable MimeType mimeType) {
+      // a null mime type asks for the producible types, a wildcard never selects CBOR
+      return (mimeType == null || mimeType.isConcrete())
+          && super.canEncode(elementType, mimeType);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+        ResolvableType elementType, @Nullable MimeType mimeType,
+        @Nullable Map<String, Object> hints) {
+      if (inputStream instanceof Mono) {
+        return Mono.from(inputStream)
+            .map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints))
+            .flux();
+      }
+      ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, elementType);
+      return Flux.from(inputStream)
+          .collectList()
+          .map(values -> encodeValue(values, bufferFactory, listType, mimeType, hints))
+          .flux();
+    }
+  }
+
+}
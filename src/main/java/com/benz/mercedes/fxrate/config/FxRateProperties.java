@@ -0,0 +1,324 @@
+package com.benz.mercedes.fxrate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.Duration;
+
+/**
+ * Externalised settings of the exchange rate service, bound from the {@code fxrate.*} keys of
+ * application.yml
+ */
+@Data
+@ConfigurationProperties(prefix = "fxrate")
+public class FxRateProperties {
+
+  private final Cache cache = new Cache();
+
+  private final Upstream upstream = new Upstream();
+
+  private final History history = new History();
+
+  private final Scheduler scheduler = new Scheduler();
+
+  private final Io io = new Io();
+
+  private final Feed feed = new Feed();
+
+  private final HttpCache httpCache = new HttpCache();
+
+  private final ResponseCache responseCache = new ResponseCache();
+
+  private final CrossRate crossRate = new CrossRate();
+
+  private final Retention retention = new Retention();
+
+  @Data
+  public static class Cache {
+
+    /**
+     * Age up to which the rates fetched by the Currency Exchange Rate Scheduler answer the pair
+     * lookups without calling the exchangerate-api.
+     */
+    private Duration ttl = Duration.ofMinutes(130);
+
+    /**
+     * Age up to which the cached rates are still served when the exchangerate-api call fails. Older
+     * rates are never served.
+     */
+    private Duration maxStaleness = Duration.ofHours(24);
+
+  }
+
+  @Data
+  public static class Upstream {
+
+    public static final String DEFAULT_BASE_URL =
+        "https://v6.exchangerate-api.com/v6/dfc4b4b26dafbfc23a1dfee4";
+
+    /**
+     * Upstream client implementation - webclient (non-blocking, default) or feign (blocking calls
+     * offloaded to a worker scheduler).
+     */
+    private String client = "webclient";
+
+    /**
+     * exchangerate-api base url including the API key.
+     */
+    private String baseUrl = DEFAULT_BASE_URL;
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Maximum wait for the upstream response once the request is written.
+     */
+    private Duration responseTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Overall limit of a single upstream call, including the wait for a pooled connection.
+     */
+    private Duration requestTimeout = Duration.ofSeconds(8);
+
+    private int maxConnections = 50;
+
+    /**
+     * Requests allowed to wait for a pooled connection. Further requests fail fast instead of
+     * queueing without bound.
+     */
+    private int pendingAcquireMaxCount = 500;
+
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(2);
+
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+
+    private final Retry retry = new Retry();
+
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    private final Bulkhead bulkhead = new Bulkhead();
+
+    @Data
+    public static class Retry {
+
+      /**
+       * Retries of an upstream call failing with a 5xx status, a timeout or an I/O error. Client
+       * errors are never retried.
+       */
+      private int maxRetries = 2;
+
+      private Duration minBackoff = Duration.ofMillis(200);
+
+      private Duration maxBackoff = Duration.ofSeconds(2);
+
+      /**
+       * Random share, 0 to 1, added to or taken from each backoff so retries of many callers do
+       * not hit the exchangerate-api at the same time.
+       */
+      private double jitter = 0.5;
+
+    }
+
+    @Data
+    public static class CircuitBreaker {
+
+      /**
+       * Percentage of failed calls within the sliding window which opens the circuit breaker.
+       */
+      private float failureRateThreshold = 50;
+
+      /**
+       * Number of the most recent upstream calls the failure rate is calculated from.
+       */
+      private int slidingWindowSize = 10;
+
+      private int minimumNumberOfCalls = 5;
+
+      /**
+       * Time the circuit breaker stays open, rejecting calls without reaching the upstream,
+       * before trial calls are let through.
+       */
+      private Duration waitDurationInOpenState = Duration.ofSeconds(30);
+
+      private int permittedNumberOfCallsInHalfOpenState = 2;
+
+    }
+
+    @Data
+    public static class Bulkhead {
+
+      /**
+       * Concurrent upstream calls. Further calls are rejected at once instead of queueing.
+       */
+      private int maxConcurrentCalls = 20;
+
+    }
+
+  }
+
+  @Data
+  public static class History {
+
+    /**
+     * Rate history repository - binary (journal and time-series files, default, the only one with
+     * retention), xml (the ExchangeRateDetails file at xml-path) or h2 (embedded database at
+     * database-url).
+     */
+    private String repository = "binary";
+
+    /**
+     * Embedded H2 database of the h2 repository.
+     */
+    private String databaseUrl = "jdbc:h2:file:./ExchangeRateHistory";
+
+    /**
+     * Daily report XML file written by the Daily Report Scheduler.
+     */
+    private String dailyReportPath = "./DailyExchangeRateDetails.xml";
+
+    /**
+     * Append-only binary journal holding every detected rate change.
+     */
+    private String journalPath = "./ExchangeRateHistory.journal";
+
+    /**
+     * ExchangeRateDetails XML written by earlier versions. Imported once into an empty binary or
+     * h2 repository, the store of the xml repository and the target of the on-demand XML export.
+     */
+    private String xmlPath = "./ExchangeRateDetails.xml";
+
+    /**
+     * Directory of the per currency time-series files used for the rate history range queries.
+     */
+    private String timeSeriesDirectory = "./timeseries";
+
+    /**
+     * Hourly and daily OHLC buckets of the rate history compacted by the retention policy.
+     */
+    private String bucketPath = "./ExchangeRateHistory.buckets";
+
+    /**
+     * Daily buckets past the retention horizon are appended here before they are dropped. Empty
+     * drops them without archiving.
+     */
+    private String archivePath = "./ExchangeRateHistory.archive";
+
+  }
+
+  @Data
+  public static class Scheduler {
+
+    /**
+     * Interval of the Currency Exchange Rate Scheduler fetching the Euro base currency rates.
+     */
+    private Duration currencyRateInterval = Duration.ofHours(2);
+
+    /**
+     * Interval of the Daily Report Scheduler writing the daily report XML file.
+     */
+    private Duration dailyReportInterval = Duration.ofDays(1);
+
+  }
+
+  @Data
+  public static class Io {
+
+    /**
+     * Threads of the fxrate-io scheduler running the blocking upstream, file and JAXB work.
+     */
+    private int threads = 4;
+
+    /**
+     * Tasks allowed to wait for a fxrate-io thread. Further tasks are rejected.
+     */
+    private int queueCapacity = 256;
+
+    private Duration keepAlive = Duration.ofSeconds(60);
+
+  }
+
+  @Data
+  public static class Feed {
+
+    /**
+     * Rate change events buffered per feed subscriber. Once full the oldest event is dropped.
+     */
+    private int subscriberBufferSize = 256;
+
+  }
+
+  @Data
+  public static class HttpCache {
+
+    /**
+     * Cache-Control max-age of the report and pair responses. Clients revalidate afterwards with
+     * the ETag, which is answered with 304 until the rates change.
+     */
+    private Duration maxAge = Duration.ofMinutes(1);
+
+  }
+
+  @Data
+  public static class ResponseCache {
+
+    /**
+     * Keep a gzip compressed copy of the encoded reports for clients sending Accept-Encoding: gzip.
+     */
+    private boolean gzip = true;
+
+    /**
+     * Largest rate history, in rate points, encoded and kept in memory for /report. Larger
+     * histories are streamed from the time-series on every request.
+     */
+    private int maxReportPoints = 100_000;
+
+  }
+
+  @Data
+  public static class CrossRate {
+
+    /**
+     * Significant digits of the triangulated X/Y rates, 0 keeps them unrounded.
+     */
+    private int precision = 0;
+
+    private RoundingMode roundingMode = RoundingMode.HALF_EVEN;
+
+    public MathContext getMathContext() {
+      return new MathContext(precision, roundingMode);
+    }
+
+  }
+
+  @Data
+  public static class Retention {
+
+    /**
+     * Compact the rate history in the background while the schedulers run.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Interval of the history compaction.
+     */
+    private Duration compactionInterval = Duration.ofHours(1);
+
+    /**
+     * Age up to which every rate change is kept. At least the 24 hours of the daily report.
+     */
+    private Duration fullResolution = Duration.ofDays(30);
+
+    /**
+     * Age up to which older rate changes are kept as hourly OHLC buckets, daily buckets beyond.
+     */
+    private Duration hourlyResolution = Duration.ofDays(365);
+
+    /**
+     * Age beyond which daily buckets are archived and dropped from the history.
+     */
+    private Duration horizon = Duration.ofDays(3650);
+
+  }
+
+}
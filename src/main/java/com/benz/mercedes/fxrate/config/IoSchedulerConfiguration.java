@@ -0,0 +1,53 @@
+package com.benz.mercedes.fxrate.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scheduler for the blocking work of the service - upstream Feign calls, journal and time-series
+ * file I/O and JAXB marshalling - so it never runs on the CPU sized parallel or event loop threads.
+ * The pool and its queue are bounded; a task beyond the queue capacity is rejected instead of
+ * queued. Pool size, active threads and queue depth are published as the executor.* metrics of
+ * the fxrate-io executor.
+ */
+@Configuration
+public class IoSchedulerConfiguration {
+
+  public static final String IO_SCHEDULER_NAME = "fxrate-io";
+
+  @Bean(destroyMethod = "dispose")
+  public Scheduler ioScheduler(FxRateProperties fxRateProperties,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    FxRateProperties.Io ioProperties = fxRateProperties.getIo();
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(ioProperties.getThreads(),
+        ioProperties.getThreads(), ioProperties.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(ioProperties.getQueueCapacity()), newThreadFactory(),
+        new ThreadPoolExecutor.AbortPolicy());
+    executor.allowCoreThreadTimeOut(true);
+    meterRegistry.ifAvailable(registry -> new ExecutorServiceMetrics(executor, IO_SCHEDULER_NAME,
+        Tags.empty()).bindTo(registry));
+    return Schedulers.fromExecutorService(executor, IO_SCHEDULER_NAME);
+  }
+
+  private static ThreadFactory newThreadFactory() {
+    AtomicInteger threadCount = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, IO_SCHEDULER_NAME + "-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+}
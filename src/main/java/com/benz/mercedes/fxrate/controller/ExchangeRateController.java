@@ -1,7 +1,19 @@
 package com.benz.mercedes.fxrate.controller;
 
-import com.benz.mercedes.fxrate.domain.jaxb.ExchangeRateDetails;
+import com.benz.mercedes.fxrate.config.BinaryCodecConfiguration;
+import com.benz.mercedes.fxrate.config.FxRateProperties;
+import com.benz.mercedes.fxrate.domain.ConversionRequest;
+import com.benz.mercedes.fxrate.domain.ConversionResult;
+import com.benz.mercedes.fxrate.domain.RateChangeEvent;
+import com.benz.mercedes.fxrate.domain.SchedulerStatus;
+import com.benz.mercedes.fxrate.domain.jaxb.CurrencyChangeDetails;
 import com.benz.mercedes.fxrate.exception.Error;
+import com.benz.mercedes.fxrate.persistence.RateBucket;
+import com.benz.mercedes.fxrate.report.EncodedReport;
+import com.benz.mercedes.fxrate.report.ReportCursor;
+import com.benz.mercedes.fxrate.report.ReportFormat;
+import com.benz.mercedes.fxrate.report.ReportQuery;
+import com.benz.mercedes.fxrate.scheduler.ExchangeRateScheduler;
 import com.benz.mercedes.fxrate.service.ExchangeRateService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,15 +23,29 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.Optional;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Function;
 
 
 @Slf4j
@@ -36,6 +62,15 @@ import java.util.Optional;
         @Content(mediaType = "application/json",
             schema = @Schema(implementation = Error.class))}),
     @ApiResponse(responseCode = "500", description = "Internal Server Error", content = {
+        @Content(mediaType = "application/json",
+            schema = @Schema(implementation = Error.class))}),
+    @ApiResponse(responseCode = "502", description = "Bad Gateway", content = {
+        @Content(mediaType = "application/json",
+            schema = @Schema(implementation = Error.class))}),
+    @ApiResponse(responseCode = "503", description = "Service Unavailable", content = {
+        @Content(mediaType = "application/json",
+            schema = @Schema(implementation = Error.class))}),
+    @ApiResponse(responseCode = "504", description = "Gateway Timeout", content = {
         @Content(mediaType = "application/json",
             schema = @Schema(implementation = Error.class))}),})
 public class ExchangeRateController {
@@ -43,9 +78,21 @@ public class ExchangeRateController {
   @Autowired
   private ExchangeRateService exchangeRateService;
 
-  public static String DAILY_REPORT_FILE_PATH = "./DailyExchangeRateDetails.xml";
+  @Autowired
+  private ExchangeRateScheduler exchangeRateScheduler;
+
+  @Autowired
+  private FxRateProperties fxRateProperties;
+
+  /**
+   * Response header with the cursor of the next /report page, absent on the last page
+   */
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
-  private static String FILE_PATH = "./ExchangeRateDetails.xml";
+  /**
+   * Warning header value of rates served from the stale cache, see RFC 7234 section 5.5.1
+   */
+  public static final String STALE_WARNING = "110 - \"Response is Stale\"";
 
 
   @Operation(description = "Trigger Currency Exchange Rate Scheduler and Daily Report Scheduler",
@@ -54,38 +101,265 @@ public class ExchangeRateController {
   @GetMapping
   public Mono<ResponseEntity<HttpStatus>> triggerScheduler() {
     log.info("Started Trigger Currency Exchange Rate Scheduler and Daily Report Schedulers");
-    return exchangeRateService.triggerScheduler()
+    // starts the schedulers only once, every trigger performs one immediate fetch
+    exchangeRateScheduler.start();
+    // a failed fetch is recorded in the scheduler status, other errors reach the error handler
+    return exchangeRateScheduler.runNow()
         .thenReturn(ResponseEntity.status(HttpStatus.OK).build());
   }
 
+  @Operation(description = "Reads the status of the Exchange Rate and Daily Report Schedulers",
+      summary = "Reads the scheduler status", tags = {"Exchange Rate Schedulers"})
+  @GetMapping("/scheduler")
+  public Mono<ResponseEntity<SchedulerStatus>> getSchedulerStatus() {
+    return Mono.fromSupplier(exchangeRateScheduler::getStatus)
+        .map(ResponseEntity.status(HttpStatus.OK)::body);
+  }
+
+  @Operation(description = "Starts the Exchange Rate and Daily Report Schedulers once",
+      summary = "Starts the schedulers", tags = {"Exchange Rate Schedulers"})
+  @PostMapping("/scheduler/start")
+  public Mono<ResponseEntity<SchedulerStatus>> startScheduler() {
+    return Mono.fromSupplier(exchangeRateScheduler::start)
+        .map(ResponseEntity.status(HttpStatus.OK)::body);
+  }
+
+  @Operation(description = "Stops the Exchange Rate and Daily Report Schedulers",
+      summary = "Stops the schedulers", tags = {"Exchange Rate Schedulers"})
+  @PostMapping("/scheduler/stop")
+  public Mono<ResponseEntity<SchedulerStatus>> stopScheduler() {
+    return Mono.fromSupplier(exchangeRateScheduler::stop)
+        .map(ResponseEntity.status(HttpStatus.OK)::body);
+  }
+
+  @Operation(description = "Fetches the exchange rates once without starting a scheduler",
+      summary = "Fetches the exchange rates once", tags = {"Exchange Rate Schedulers"})
+  @PostMapping("/scheduler/run")
+  public Mono<ResponseEntity<SchedulerStatus>> runScheduler() {
+    return exchangeRateScheduler.runNow().map(ResponseEntity.status(HttpStatus.OK)::body);
+  }
+
   @Operation(description = "Read current exchange rate in terms of X/Y. Example USD/EUR",
       summary = "Read current exchange rate in terms of X/Y. Example USD/EUR", tags = {
       "Read current exchange rate in terms of X/Y. Example USD/EUR"})
   @GetMapping("/pair/{baseCurrency}/{targetCurrency}")
   public Mono<ResponseEntity<Double>> getExchangeRate(@PathVariable final String baseCurrency,
-      final @PathVariable String targetCurrency) {
+      final @PathVariable String targetCurrency, final ServerWebExchange exchange) {
     log.debug("Started Read current exchange rate in terms of baseCurrency {} targetCurrency {} ",
         baseCurrency, targetCurrency);
-    return exchangeRateService.getExchangeRate(baseCurrency, targetCurrency)
-        .map(ResponseEntity.status(HttpStatus.OK)::body);
+    return checkNotModified(exchange, exchangeRateService.getLastRateChange(),
+        response -> exchangeRateService.getExchangeRate(baseCurrency, targetCurrency)
+            .map(rate -> markStale(response).body(rate)));
+  }
+
+  @Operation(description = "Converts the amount from the base to the target currency",
+      summary = "Converts the amount from the base to the target currency", tags = {
+      "Read current exchange rate in terms of X/Y. Example USD/EUR"})
+  @GetMapping("/pair/{baseCurrency}/{targetCurrency}/{amount}")
+  public Mono<ResponseEntity<ConversionResult>> convertAmount(
+      @PathVariable final String baseCurrency, @PathVariable final String targetCurrency,
+      @PathVariable final double amount, final ServerWebExchange exchange) {
+    log.debug("Started Convert {} from baseCurrency {} to targetCurrency {} ", amount,
+        baseCurrency, targetCurrency);
+    return checkNotModified(exchange, exchangeRateService.getLastRateChange(),
+        response -> exchangeRateService.convert(baseCurrency, targetCurrency, amount)
+            .map(conversionResult -> markStale(response).body(conversionResult)));
+  }
+
+  @Operation(description = "Converts a JSON array or NDJSON stream of amounts between currency "
+      + "pairs with one consistent rate snapshot",
+      summary = "Converts a stream of amounts between currency pairs", tags = {
+      "Read current exchange rate in terms of X/Y. Example USD/EUR"})
+  @PostMapping(value = "/convert",
+      consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+          BinaryCodecConfiguration.APPLICATION_STREAM_SMILE_VALUE})
+  public Flux<ConversionResult> convert(
+      @RequestBody final Flux<ConversionRequest> conversionRequests) {
+    log.debug("Started Convert a stream of amounts");
+    return exchangeRateService.convert(conversionRequests);
   }
 
   @Operation(description = "Reads the daily report data in terms of base currency: EUR",
       summary = "Reads the daily report data in terms of base currency: EUR", tags = {
       "Reads the daily report data in terms of base currency: EUR"})
-  @GetMapping(value = "/daily-report")
-  public Mono<ResponseEntity<ExchangeRateDetails>> readDailyReportData() {
+  @GetMapping(value = "/daily-report",
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE,
+          MediaType.APPLICATION_CBOR_VALUE, BinaryCodecConfiguration.APPLICATION_SMILE_VALUE})
+  public Mono<ResponseEntity<Flux<DataBuffer>>> readDailyReportData(
+      final ServerWebExchange exchange) {
     log.debug("Started Read the report data ");
-    return exchangeRateService.readReportData(DAILY_REPORT_FILE_PATH).map(ResponseEntity.status(HttpStatus.OK)::body);
+    ReportFormat reportFormat = ReportFormat.of(exchange.getRequest().getHeaders().getAccept());
+    return checkNotModified(exchange, exchangeRateService.getDailyReportLastModified(),
+        response -> exchangeRateService.readEncodedDailyReport(reportFormat)
+            .map(encodedReport -> toResponse(response, encodedReport, reportFormat,
+                exchange.getRequest())));
   }
 
   @Operation(description = "Reads the Currency Exchange data",
       summary = "Reads the Currency Exchange data", tags = {
       "Reads the Currency Exchange data"})
-  @GetMapping(value = "/report")
-  public Mono<ResponseEntity<ExchangeRateDetails>> readCurrencyExchangeData() {
-    log.debug("Started Read the report data ");
-    return exchangeRateService.readReportData(FILE_PATH).map(ResponseEntity.status(HttpStatus.OK)::body);
+  @GetMapping(value = "/report",
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE,
+          MediaType.APPLICATION_CBOR_VALUE, BinaryCodecConfiguration.APPLICATION_SMILE_VALUE})
+  public Mono<ResponseEntity<Flux<DataBuffer>>> readCurrencyExchangeData(
+      final ServerWebExchange exchange,
+      @RequestParam(required = false) final Instant from,
+      @RequestParam(required = false) final Instant to,
+      @RequestParam(required = false) final List<String> currencies,
+      @RequestParam(required = false) final String cursor,
+      @RequestParam(required = false) final Integer limit) {
+    log.debug("Started Read the report data from {} to {} of {}", from, to, currencies);
+    ReportFormat reportFormat = ReportFormat.of(exchange.getRequest().getHeaders().getAccept());
+    // the parameters are validated before the conditional GET reads the rate version
+    ReportCursor reportCursor;
+    try {
+      reportCursor = cursor == null ? null : ReportCursor.decode(cursor);
+    } catch (IllegalArgumentException exception) {
+      return Mono.error(new ServerWebInputException(exception.getMessage()));
+    }
+    if (from == null && to == null && currencies == null && cursor == null && limit == null) {
+      return checkNotModified(exchange, exchangeRateService.getLastRateChange(),
+          // the full report is served pre-encoded, unless the history is too large to keep
+          response -> exchangeRateService.readEncodedExchangeRateHistory(reportFormat)
+              .map(encodedReport -> toResponse(response, encodedReport, reportFormat,
+                  exchange.getRequest()))
+              .switchIfEmpty(Mono.defer(() -> readReportPage(response, reportFormat,
+                  ReportQuery.all()))));
+    }
+    ReportQuery reportQuery = ReportQuery.builder()
+        .from(from == null ? null : from.toEpochMilli())
+        .to(to == null ? null : to.toEpochMilli())
+        .currencies(currencies)
+        .cursor(reportCursor)
+        .limit(limit)
+        .build();
+    return checkNotModified(exchange, exchangeRateService.getLastRateChange(),
+        response -> readReportPage(response, reportFormat, reportQuery));
+  }
+
+  private Mono<ResponseEntity<Flux<DataBuffer>>> readReportPage(
+      ResponseEntity.BodyBuilder response, ReportFormat reportFormat,
+      ReportQuery reportQuery) {
+    return Mono.defer(() -> exchangeRateService.readExchangeRateHistoryPage(reportQuery))
+        .onErrorMap(IllegalArgumentException.class,
+            exception -> new ServerWebInputException(exception.getMessage()))
+        .map(reportPage -> {
+          response.contentType(reportFormat.getMediaType());
+          if (reportPage.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, reportPage.getNextCursor().encode());
+          }
+          return response.body(
+              exchangeRateService.streamExchangeRateHistory(reportPage, reportFormat));
+        });
+  }
+
+  @Operation(description = "Reads the rate history of a currency within a time range",
+      summary = "Reads the rate history of a currency within a time range", tags = {
+      "Reads the Currency Exchange data"})
+  @GetMapping(value = "/history/{currency}")
+  public Flux<CurrencyChangeDetails> readCurrencyExchangeHistory(
+      @PathVariable final String currency,
+      @RequestParam(required = false) final Instant from,
+      @RequestParam(required = false) final Instant to) {
+    log.debug("Started Read the rate history of {} from {} to {}", currency, from, to);
+    return exchangeRateService.readExchangeRateHistory(currency, from, to);
+  }
+
+  @Operation(description = "Reads the hourly and daily OHLC buckets of a currency within a time "
+      + "range, which the retention policy compacted from rate changes past the full resolution "
+      + "window", summary = "Reads the compacted rate history of a currency", tags = {
+      "Reads the Currency Exchange data"})
+  @GetMapping(value = "/history/{currency}/buckets")
+  public Flux<RateBucket> readCurrencyRateBuckets(
+      @PathVariable final String currency,
+      @RequestParam(required = false) final Instant from,
+      @RequestParam(required = false) final Instant to) {
+    log.debug("Started Read the rate buckets of {} from {} to {}", currency, from, to);
+    return exchangeRateService.readRateBuckets(currency, from, to);
+  }
+
+  @Operation(description = "Streams the rate changes as Server-Sent Events, NDJSON or a Smile "
+      + "stream", summary = "Streams the rate changes", tags = {"Reads the Currency Exchange data"})
+  @GetMapping(value = "/changes",
+      produces = {MediaType.TEXT_EVENT_STREAM_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+          BinaryCodecConfiguration.APPLICATION_STREAM_SMILE_VALUE})
+  public Flux<RateChangeEvent> streamRateChanges(
+      @RequestParam(required = false) final List<String> currency) {
+    log.debug("Started Stream the rate changes of {}", currency);
+    return exchangeRateService.streamRateChanges(currency);
+  }
+
+  @Operation(description = "Exports the Currency Exchange data as ExchangeRateDetails XML file",
+      summary = "Exports the Currency Exchange data as ExchangeRateDetails XML file", tags = {
+      "Exports the Currency Exchange data as ExchangeRateDetails XML file"})
+  @PostMapping(value = "/report/export")
+  public Mono<ResponseEntity<HttpStatus>> exportCurrencyExchangeData() {
+    log.debug("Started Export the report data ");
+    return exchangeRateService.exportExchangeRateHistory()
+        .thenReturn(ResponseEntity.status(HttpStatus.OK).build());
+  }
+
+  /**
+   * Answers a conditional GET with 304 Not Modified while the rates behind the response are
+   * unchanged, before anything is read. Otherwise the response is created with a strong ETag of
+   * the rate version and the requested representation, Last-Modified and Cache-Control max-age.
+   *
+   * @param lastModified time of the last change of the response in epoch millis, 0 if unknown
+   */
+  private <T> Mono<ResponseEntity<T>> checkNotModified(ServerWebExchange exchange,
+      long lastModified, Function<ResponseEntity.BodyBuilder, Mono<ResponseEntity<T>>> response) {
+    ResponseEntity.BodyBuilder ok = ResponseEntity.status(HttpStatus.OK);
+    if (lastModified <= 0) {
+      // no rate change recorded yet, the response is not versioned
+      return response.apply(ok);
+    }
+    String eTag = getETag(exchange.getRequest(), lastModified);
+    CacheControl cacheControl = CacheControl.maxAge(fxRateProperties.getHttpCache().getMaxAge());
+    if (exchange.checkNotModified(eTag, Instant.ofEpochMilli(lastModified))) {
+      exchange.getResponse().getHeaders().setCacheControl(cacheControl);
+      return Mono.empty();
+    }
+    return response.apply(ok.eTag(eTag)
+        .lastModified(lastModified)
+        .cacheControl(cacheControl)
+        .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING));
+  }
+
+  private ResponseEntity.BodyBuilder markStale(ResponseEntity.BodyBuilder response) {
+    if (exchangeRateService.isServingStaleRates()) {
+      response.header(HttpHeaders.WARNING, STALE_WARNING);
+    }
+    return response;
+  }
+
+  /**
+   * Wraps the encoded payload without copying it, gzip compressed if the client accepts it
+   */
+  private static ResponseEntity<Flux<DataBuffer>> toResponse(ResponseEntity.BodyBuilder response,
+      EncodedReport encodedReport, ReportFormat reportFormat, ServerHttpRequest request) {
+    byte[] payload = encodedReport.getPayload();
+    if (encodedReport.getGzipPayload() != null && acceptsGzip(request)) {
+      payload = encodedReport.getGzipPayload();
+      response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    return response.contentType(reportFormat.getMediaType())
+        .contentLength(payload.length)
+        .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(payload)));
+  }
+
+  private static boolean acceptsGzip(ServerHttpRequest request) {
+    String acceptEncoding = request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+    return acceptEncoding != null && acceptEncoding.contains("gzip");
+  }
+
+  private static String getETag(ServerHttpRequest request, long lastModified) {
+    // path and query select the data, Accept and Accept-Encoding its representation
+    String representation = request.getURI().getRawPath() + "?" + request.getURI().getRawQuery()
+        + " " + request.getHeaders().getFirst(HttpHeaders.ACCEPT)
+        + " " + request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+    return "\"" + Long.toHexString(lastModified) + "-"
+        + Integer.toHexString(representation.hashCode()) + "\"";
   }
 
 }
@@ -1,31 +1,83 @@
-
 package com.benz.mercedes.fxrate.domain;
 
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
-import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.annotation.JsonPropertyOrder;
-import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+/**
+ * Rates of every currency returned by the exchangerate-api against the base currency, keyed by
+ * ISO currency code. The USD, GBP, EUR and CHF accessors are kept for the four currency reports.
+ */
 @JsonInclude(JsonInclude.Include.NON_NULL)
-@JsonPropertyOrder({
-    "USD",
-    "GBP",
-    "EUR",
-    "CHF"
-})
-@Data
+@EqualsAndHashCode
+@ToString
 public class ConversionRates {
 
-    @JsonProperty("USD")
-    private Double usd;
+    private final Map<String, Double> rates = new LinkedHashMap<>();
+
+    @JsonAnyGetter
+    public Map<String, Double> getRates() {
+        return rates;
+    }
+
+    @JsonAnySetter
+    public void setRate(String currencyCode, Double rate) {
+        rates.put(currencyCode.toUpperCase(), rate);
+    }
+
+    /**
+     * Rate of the given ISO currency code against the base currency
+     *
+     * @return null if the currency is not available
+     */
+    public Double getRate(String currencyCode) {
+        if (currencyCode == null) {
+            return null;
+        }
+        Double rate = rates.get(currencyCode);
+        return rate != null ? rate : rates.get(currencyCode.toUpperCase());
+    }
+
+    @JsonIgnore
+    public Double getUsd() {
+        return rates.get("USD");
+    }
+
+    public void setUsd(Double usd) {
+        setRate("USD", usd);
+    }
+
+    @JsonIgnore
+    public Double getGbp() {
+        return rates.get("GBP");
+    }
+
+    public void setGbp(Double gbp) {
+        setRate("GBP", gbp);
+    }
+
+    @JsonIgnore
+    public Double getEur() {
+        return rates.get("EUR");
+    }
 
-    @JsonProperty("GBP")
-    private Double gbp;
+    public void setEur(Double eur) {
+        setRate("EUR", eur);
+    }
 
-    @JsonProperty("EUR")
-    private Double eur;
+    @JsonIgnore
+    public Double getChf() {
+        return rates.get("CHF");
+    }
 
-    @JsonProperty("CHF")
-    private Double chf;
+    public void setChf(Double chf) {
+        setRate("CHF", chf);
+    }
 
 }
@@ -0,0 +1,23 @@
+package com.benz.mercedes.fxrate.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One amount to convert from the base to the target currency
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversionRequest {
+
+  private String base;
+
+  private String target;
+
+  private Double amount;
+
+}
@@ -0,0 +1,50 @@
+package com.benz.mercedes.fxrate.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Amount converted from the base to the target currency, or the reason it could not be converted
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversionResult {
+
+  private String base;
+
+  private String target;
+
+  private Double amount;
+
+  /**
+   * Base/target rate the amount was converted with
+   */
+  private Double rate;
+
+  private Double convertedAmount;
+
+  /**
+   * Fetch time of the rates, the same for every item of a batch
+   */
+  private Instant ratesAt;
+
+  /**
+   * True if the rates are older than the cache ttl and served only because the exchangerate-api is
+   * not reachable
+   */
+  private Boolean stale;
+
+  /**
+   * Set instead of the converted amount for an unknown currency or a missing amount
+   */
+  private String error;
+
+}
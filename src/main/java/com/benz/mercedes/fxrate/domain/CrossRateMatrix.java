@@ -0,0 +1,86 @@
+package com.benz.mercedes.fxrate.domain;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+/**
+ * Cross rates of all currency pairs triangulated from one {@link RateSnapshot} of base currency
+ * rates, X/Y = (base -> Y) / (base -> X). The N x N matrix is computed and rounded once when the
+ * rates are fetched, so a pair lookup is a single array read without dividing or rounding.
+ */
+public final class CrossRateMatrix {
+
+  private final RateSnapshot rateSnapshot;
+
+  private final int size;
+
+  // row by base ordinal, column by target ordinal, NaN if either rate is not available
+  private final double[] crossRates;
+
+  private CrossRateMatrix(RateSnapshot rateSnapshot, int size, double[] crossRates) {
+    this.rateSnapshot = rateSnapshot;
+    this.size = size;
+    this.crossRates = crossRates;
+  }
+
+  /**
+   * @param mathContext precision and rounding of the cross rates, a precision of 0 keeps them
+   *                    unrounded
+   */
+  public static CrossRateMatrix of(RateSnapshot rateSnapshot, MathContext mathContext) {
+    int size = rateSnapshot.toRates().length;
+    double[] crossRates = new double[size * size];
+    for (int baseOrdinal = 0; baseOrdinal < size; baseOrdinal++) {
+      for (int targetOrdinal = 0; targetOrdinal < size; targetOrdinal++) {
+        crossRates[baseOrdinal * size + targetOrdinal] = round(
+            rateSnapshot.getCrossRate(baseOrdinal, targetOrdinal), mathContext);
+      }
+    }
+    return new CrossRateMatrix(rateSnapshot, size, crossRates);
+  }
+
+  private static double round(double rate, MathContext mathContext) {
+    if (mathContext.getPrecision() == 0 || Double.isNaN(rate) || Double.isInfinite(rate)) {
+      return rate;
+    }
+    return BigDecimal.valueOf(rate).round(mathContext).doubleValue();
+  }
+
+  /**
+   * Base currency rates the matrix was triangulated from
+   */
+  public RateSnapshot getRateSnapshot() {
+    return rateSnapshot;
+  }
+
+  /**
+   * Epoch milliseconds at which the rates were fetched
+   */
+  public long getTimestamp() {
+    return rateSnapshot.getTimestamp();
+  }
+
+  /**
+   * Number of currencies, the matrix holds the square of it
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * X/Y rate of two currencies
+   *
+   * @return NaN if either currency is not available
+   */
+  public double getCrossRate(int baseOrdinal, int targetOrdinal) {
+    if (baseOrdinal < 0 || baseOrdinal >= size || targetOrdinal < 0 || targetOrdinal >= size) {
+      return Double.NaN;
+    }
+    return crossRates[baseOrdinal * size + targetOrdinal];
+  }
+
+  public double getCrossRate(String baseCurrency, String targetCurrency) {
+    return getCrossRate(CurrencyTable.ordinal(baseCurrency), CurrencyTable.ordinal(targetCurrency));
+  }
+
+}
@@ -0,0 +1,110 @@
+package com.benz.mercedes.fxrate.domain;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Process wide ISO 4217 code to ordinal table. Rates of all currencies are kept in primitive
+ * {@code double[]} arrays indexed by these ordinals, with {@link Double#NaN} for an unknown rate.
+ * Ordinals are assigned on first sight and never change while the process runs. EUR, USD, GBP and
+ * CHF always take the first four ordinals.
+ */
+public final class CurrencyTable {
+
+  public static final List<String> DEFAULT_CURRENCIES = List.of("EUR", "USD", "GBP", "CHF");
+
+  private static final Pattern CURRENCY_CODE = Pattern.compile("[A-Z]{3}");
+
+  private static final Map<String, Integer> ORDINALS = new ConcurrentHashMap<>();
+
+  private static volatile String[] codes = new String[0];
+
+  static {
+    DEFAULT_CURRENCIES.forEach(CurrencyTable::register);
+  }
+
+  private CurrencyTable() {
+  }
+
+  /**
+   * Ordinal of the currency code, assigning a new one to an unseen code
+   *
+   * @throws IllegalArgumentException if the code is not three letters
+   */
+  public static int register(String currencyCode) {
+    Integer ordinal = ORDINALS.get(currencyCode);
+    if (ordinal != null) {
+      return ordinal;
+    }
+    String upperCaseCode = currencyCode.toUpperCase();
+    if (!CURRENCY_CODE.matcher(upperCaseCode).matches()) {
+      throw new IllegalArgumentException("Not an ISO 4217 currency code " + currencyCode);
+    }
+    synchronized (ORDINALS) {
+      ordinal = ORDINALS.get(upperCaseCode);
+      if (ordinal == null) {
+        String[] extendedCodes = Arrays.copyOf(codes, codes.length + 1);
+        ordinal = codes.length;
+        extendedCodes[ordinal] = upperCaseCode;
+        codes = extendedCodes;
+        ORDINALS.put(upperCaseCode, ordinal);
+      }
+      return ordinal;
+    }
+  }
+
+  /**
+   * Ordinal of the currency code without registering it. Upper case codes are looked up without
+   * allocating.
+   *
+   * @return -1 for an unknown or null code
+   */
+  public static int ordinal(String currencyCode) {
+    if (currencyCode == null) {
+      return -1;
+    }
+    Integer ordinal = ORDINALS.get(currencyCode);
+    if (ordinal == null) {
+      ordinal = ORDINALS.get(currencyCode.toUpperCase());
+    }
+    return ordinal == null ? -1 : ordinal;
+  }
+
+  public static String code(int ordinal) {
+    return codes[ordinal];
+  }
+
+  /**
+   * Number of currencies known so far, every ordinal is below it
+   */
+  public static int size() {
+    return codes.length;
+  }
+
+  /**
+   * Rates keyed by currency code as array indexed by ordinal
+   */
+  public static double[] toRates(Map<String, Double> ratesByCode) {
+    ratesByCode.keySet().forEach(CurrencyTable::register);
+    double[] rates = newRates();
+    ratesByCode.forEach((currencyCode, rate) -> {
+      if (rate != null) {
+        rates[ordinal(currencyCode)] = rate;
+      }
+    });
+    return rates;
+  }
+
+  /**
+   * Array of unknown rates covering all currencies known so far
+   */
+  public static double[] newRates() {
+    double[] rates = new double[size()];
+    Arrays.fill(rates, Double.NaN);
+    return rates;
+  }
+
+}
@@ -0,0 +1,32 @@
+package com.benz.mercedes.fxrate.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A detected change of one currency rate in terms of base currency: EUR
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateChangeEvent {
+
+  private Instant date;
+
+  private String currency;
+
+  private Double value;
+
+  /**
+   * Rate before the change, null for the first rate of the currency
+   */
+  private Double previousValue;
+
+}
@@ -0,0 +1,79 @@
+package com.benz.mercedes.fxrate.domain;
+
+import java.util.Arrays;
+
+/**
+ * Immutable snapshot of the base currency rates of all currencies at one point in time. Rates are
+ * indexed by {@link CurrencyTable} ordinal with {@link Double#NaN} for a currency which is not
+ * available, so lookups and cross rates are computed without boxing or allocating.
+ */
+public final class RateSnapshot {
+
+  private final double[] rates;
+
+  private final long timestamp;
+
+  private RateSnapshot(double[] rates, long timestamp) {
+    this.rates = rates;
+    this.timestamp = timestamp;
+  }
+
+  public static RateSnapshot of(ConversionRates conversionRates, long timestamp) {
+    return new RateSnapshot(CurrencyTable.toRates(conversionRates.getRates()), timestamp);
+  }
+
+  public static RateSnapshot of(double[] rates, long timestamp) {
+    return new RateSnapshot(rates.clone(), timestamp);
+  }
+
+  /**
+   * Epoch milliseconds at which the rates were fetched
+   */
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  /**
+   * Rate of the currency against the base currency
+   *
+   * @return NaN if the currency is not available
+   */
+  public double getRate(int ordinal) {
+    return ordinal >= 0 && ordinal < rates.length ? rates[ordinal] : Double.NaN;
+  }
+
+  public double getRate(String currencyCode) {
+    return getRate(CurrencyTable.ordinal(currencyCode));
+  }
+
+  /**
+   * X/Y rate of two currencies from their base currency rates, X/Y = (base -> Y) / (base -> X)
+   *
+   * @return NaN if either currency is not available
+   */
+  public double getCrossRate(int baseOrdinal, int targetOrdinal) {
+    double baseRate = getRate(baseOrdinal);
+    double targetRate = getRate(targetOrdinal);
+    if (baseRate == 0d) {
+      return Double.NaN;
+    }
+    return targetRate / baseRate;
+  }
+
+  public double getCrossRate(String baseCurrency, String targetCurrency) {
+    return getCrossRate(CurrencyTable.ordinal(baseCurrency), CurrencyTable.ordinal(targetCurrency));
+  }
+
+  /**
+   * Copy of the rates indexed by CurrencyTable ordinal
+   */
+  public double[] toRates() {
+    return rates.clone();
+  }
+
+  @Override
+  public String toString() {
+    return "RateSnapshot(timestamp=" + timestamp + ", rates=" + Arrays.toString(rates) + ")";
+  }
+
+}
@@ -0,0 +1,39 @@
+package com.benz.mercedes.fxrate.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchedulerStatus {
+
+  private boolean running;
+
+  private Instant startedAt;
+
+  private Duration currencyRateInterval;
+
+  private Duration dailyReportInterval;
+
+  private Instant lastFetchAt;
+
+  private String lastFetchError;
+
+  private Instant lastDailyReportAt;
+
+  private String lastDailyReportError;
+
+  private Instant lastCompactionAt;
+
+  private String lastCompactionError;
+
+}
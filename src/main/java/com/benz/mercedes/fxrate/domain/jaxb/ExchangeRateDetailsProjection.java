@@ -0,0 +1,55 @@
+package com.benz.mercedes.fxrate.domain.jaxb;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Builds the four currency {@link ExchangeRateDetails} XML/JSON shape - EUR, USD, CHF and GBP -
+ * from individual rate changes. Changes of any other currency are ignored.
+ */
+public final class ExchangeRateDetailsProjection {
+
+  public static final List<String> CURRENCIES = List.of("EUR", "USD", "CHF", "GBP");
+
+  private final ExchangeRateDetails exchangeRateDetails = ExchangeRateDetails.builder()
+      .euroCurrencyChanges(new ArrayList<>())
+      .usdCurrencyChanges(new ArrayList<>())
+      .chfCurrencyChanges(new ArrayList<>())
+      .gbpCurrencyChanges(new ArrayList<>())
+      .build();
+
+  public void add(String currency, Date date, double value) {
+    List<CurrencyChangeDetails> currencyChanges = getCurrencyChanges(exchangeRateDetails,
+        currency);
+    if (currencyChanges != null) {
+      currencyChanges.add(CurrencyChangeDetails.builder().date(date).value(value).build());
+    }
+  }
+
+  public ExchangeRateDetails getExchangeRateDetails() {
+    return exchangeRateDetails;
+  }
+
+  /**
+   * Currency change list of the given ISO currency code
+   *
+   * @return null for currencies outside the projection
+   */
+  public static List<CurrencyChangeDetails> getCurrencyChanges(
+      ExchangeRateDetails exchangeRateDetails, String currency) {
+    switch (currency) {
+      case "EUR":
+        return exchangeRateDetails.getEuroCurrencyChanges();
+      case "USD":
+        return exchangeRateDetails.getUsdCurrencyChanges();
+      case "CHF":
+        return exchangeRateDetails.getChfCurrencyChanges();
+      case "GBP":
+        return exchangeRateDetails.getGbpCurrencyChanges();
+      default:
+        return null;
+    }
+  }
+
+}
@@ -1,13 +1,18 @@
 package com.benz.mercedes.fxrate.exception;
 
 import feign.FeignException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.server.ServerWebInputException;
 import org.springframework.web.server.UnsupportedMediaTypeStatusException;
 
@@ -16,6 +21,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.TimeoutException;
 
 @AllArgsConstructor
 @Slf4j
@@ -39,8 +45,7 @@ public class CentralExceptionHandler {
   }
 
   @ExceptionHandler(FeignException.class)
-  @ResponseStatus(value = HttpStatus.NOT_FOUND)
-  public final Error handleFeignException(
+  public final ResponseEntity<Error> handleFeignException(
       FeignException feignException) {
 
     String uniqueID = getRandomId();
@@ -50,11 +55,95 @@ public class CentralExceptionHandler {
     String detailedErrorMessage = Optional.of(feignException)
         .map(FeignException::getCause)
         .map(Throwable::getMessage).orElse(null);
+    HttpStatus httpStatus = getUpstreamErrorStatus(feignException.status());
+    return ResponseEntity.status(httpStatus).body(Error.builder()
+        .id(uniqueID)
+        .code(httpStatus.value())
+        .message(httpStatus.getReasonPhrase())
+        .details(Collections.singletonList(detailedErrorMessage))
+        .build());
+  }
+
+  @ExceptionHandler(UnknownCurrencyException.class)
+  @ResponseStatus(value = HttpStatus.NOT_FOUND)
+  public final Error handleUnknownCurrencyException(
+      UnknownCurrencyException unknownCurrencyException) {
+
+    String uniqueID = getRandomId();
+    log.error("ErrorId - {} Inside handleUnknownCurrencyException - {}", uniqueID,
+        unknownCurrencyException.getMessage());
     return Error.builder()
         .id(uniqueID)
         .code(HttpStatus.NOT_FOUND.value())
         .message(HttpStatus.NOT_FOUND.getReasonPhrase())
+        .details(Collections.singletonList(unknownCurrencyException.getMessage()))
+        .build();
+  }
+
+  @ExceptionHandler(WebClientResponseException.class)
+  public final ResponseEntity<Error> handleWebClientResponseException(
+      WebClientResponseException webClientResponseException) {
+
+    String uniqueID = getRandomId();
+    log.error("ErrorId - {} Inside handleWebClientResponseException - ", uniqueID,
+        webClientResponseException);
+    // Extracting detailed error message
+    String detailedErrorMessage = Optional.of(webClientResponseException)
+        .map(WebClientResponseException::getResponseBodyAsString)
+        .filter(responseBody -> !responseBody.isEmpty())
+        .orElseGet(webClientResponseException::getMessage);
+    HttpStatus httpStatus = getUpstreamErrorStatus(webClientResponseException.getRawStatusCode());
+    return ResponseEntity.status(httpStatus).body(Error.builder()
+        .id(uniqueID)
+        .code(httpStatus.value())
+        .message(httpStatus.getReasonPhrase())
         .details(Collections.singletonList(detailedErrorMessage))
+        .build());
+  }
+
+  @ExceptionHandler(WebClientRequestException.class)
+  @ResponseStatus(value = HttpStatus.BAD_GATEWAY)
+  public final Error handleWebClientRequestException(
+      WebClientRequestException webClientRequestException) {
+
+    String uniqueID = getRandomId();
+    log.error("ErrorId - {} Inside handleWebClientRequestException - {}", uniqueID,
+        webClientRequestException.getMessage());
+    return Error.builder()
+        .id(uniqueID)
+        .code(HttpStatus.BAD_GATEWAY.value())
+        .message(HttpStatus.BAD_GATEWAY.getReasonPhrase())
+        .details(Collections.singletonList(webClientRequestException.getMessage()))
+        .build();
+  }
+
+  @ExceptionHandler(TimeoutException.class)
+  @ResponseStatus(value = HttpStatus.GATEWAY_TIMEOUT)
+  public final Error handleTimeoutException(TimeoutException timeoutException) {
+
+    String uniqueID = getRandomId();
+    log.error("ErrorId - {} Inside handleTimeoutException - {}", uniqueID,
+        timeoutException.getMessage());
+    return Error.builder()
+        .id(uniqueID)
+        .code(HttpStatus.GATEWAY_TIMEOUT.value())
+        .message(HttpStatus.GATEWAY_TIMEOUT.getReasonPhrase())
+        .details(Collections.singletonList(timeoutException.getMessage()))
+        .build();
+  }
+
+  @ExceptionHandler({CallNotPermittedException.class, BulkheadFullException.class})
+  @ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+  public final Error handleUpstreamRejectedException(RuntimeException rejectedException) {
+
+    String uniqueID = getRandomId();
+    log.error("ErrorId - {} Inside handleUpstreamRejectedException - {}", uniqueID,
+        rejectedException.getMessage());
+    return Error.builder()
+        .id(uniqueID)
+        .code(HttpStatus.SERVICE_UNAVAILABLE.value())
+        .message(HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase())
+        .details(Collections.singletonList(rejectedException.getMessage()))
         .build();
   }
 
@@ -118,6 +207,15 @@ public class CentralExceptionHandler {
 
   }
 
+  /**
+   * A client error of the exchangerate-api means an unsupported currency, anything else is a
+   * failure of the exchangerate-api itself
+   */
+  private static HttpStatus getUpstreamErrorStatus(int upstreamStatus) {
+    return upstreamStatus >= 400 && upstreamStatus < 500 ? HttpStatus.NOT_FOUND
+        : HttpStatus.BAD_GATEWAY;
+  }
+
   public String getRandomId() {
     return UUID.randomUUID().toString();
   }
@@ -0,0 +1,12 @@
+package com.benz.mercedes.fxrate.exception;
+
+/**
+ * A currency pair which is not part of the Euro base currency rates of the exchangerate-api
+ */
+public class UnknownCurrencyException extends RuntimeException {
+
+  public UnknownCurrencyException(String baseCurrency, String targetCurrency) {
+    super("Unsupported currency pair " + baseCurrency + "/" + targetCurrency);
+  }
+
+}
@@ -0,0 +1,71 @@
+package com.benz.mercedes.fxrate.feed;
+
+import com.benz.mercedes.fxrate.config.FxRateProperties;
+import com.benz.mercedes.fxrate.domain.RateChangeEvent;
+import com.benz.mercedes.fxrate.metrics.FxRateMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Hot multicast feed of the rate changes detected by the Currency Exchange Rate Scheduler. Events
+ * are not replayed; a subscriber sees the changes detected after it subscribed. Every subscriber
+ * has its own bounded buffer which drops the oldest event once full, so a slow subscriber neither
+ * holds back the others nor grows memory without bound.
+ */
+@Slf4j
+@Component
+public class RateChangeFeed {
+
+  private final Sinks.Many<RateChangeEvent> sink = Sinks.many().multicast().directBestEffort();
+
+  private final FxRateProperties.Feed feedProperties;
+
+  private final FxRateMetrics fxRateMetrics;
+
+  public RateChangeFeed(FxRateProperties fxRateProperties, FxRateMetrics fxRateMetrics) {
+    this.feedProperties = fxRateProperties.getFeed();
+    this.fxRateMetrics = fxRateMetrics;
+    fxRateMetrics.registerFeedSubscribers(sink::currentSubscriberCount);
+  }
+
+  /**
+   * Emits the events to the current subscribers
+   */
+  public synchronized void publish(Collection<RateChangeEvent> rateChangeEvents) {
+    for (RateChangeEvent rateChangeEvent : rateChangeEvents) {
+      Sinks.EmitResult emitResult = sink.tryEmitNext(rateChangeEvent);
+      if (emitResult.isFailure() && emitResult != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+        log.warn("Rate change {} not published - {}", rateChangeEvent, emitResult);
+      }
+    }
+  }
+
+  /**
+   * Rate changes detected from now on
+   *
+   * @param currencies ISO currency codes to receive, all currencies if null or empty
+   */
+  public Flux<RateChangeEvent> subscribe(Collection<String> currencies) {
+    Flux<RateChangeEvent> rateChangeEvents = sink.asFlux();
+    if (currencies != null && !currencies.isEmpty()) {
+      Set<String> currencyCodes = currencies.stream().map(String::toUpperCase)
+          .collect(Collectors.toSet());
+      rateChangeEvents = rateChangeEvents
+          .filter(rateChangeEvent -> currencyCodes.contains(rateChangeEvent.getCurrency()));
+    }
+    return rateChangeEvents.onBackpressureBuffer(feedProperties.getSubscriberBufferSize(),
+        droppedEvent -> fxRateMetrics.incrementFeedDropped(), BufferOverflowStrategy.DROP_OLDEST);
+  }
+
+  public int getSubscriberCount() {
+    return sink.currentSubscriberCount();
+  }
+
+}
@@ -0,0 +1,131 @@
+package com.benz.mercedes.fxrate.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Meters of the exchange rate service, published with the actuator metrics and the Prometheus
+ * endpoint. Timers publish percentile histograms so latency percentiles can be aggregated across
+ * instances.
+ */
+@Component
+public class FxRateMetrics {
+
+  public static final String UPSTREAM_REQUESTS = "fxrate.upstream.requests";
+
+  public static final String XML_DURATION = "fxrate.xml.duration";
+
+  public static final String XML_FILE_SIZE = "fxrate.xml.file.size";
+
+  public static final String SCHEDULER_TICK_LAG = "fxrate.scheduler.tick.lag";
+
+  public static final String RATE_CHANGES = "fxrate.rate.changes";
+
+  public static final String FEED_SUBSCRIBERS = "fxrate.feed.subscribers";
+
+  public static final String FEED_DROPPED = "fxrate.feed.dropped";
+
+  private final MeterRegistry meterRegistry;
+
+  public FxRateMetrics(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * Times the exchangerate-api call from subscription to its result, tagged with the upstream
+   * endpoint and the outcome
+   *
+   * @param endpoint latest or pair
+   */
+  public <T> Mono<T> timeUpstreamCall(String endpoint, Mono<T> upstreamCall) {
+    return Mono.defer(() -> {
+      Timer.Sample sample = Timer.start(meterRegistry);
+      return upstreamCall
+          .doOnSuccess(result -> sample.stop(upstreamTimer(endpoint, "success")))
+          .doOnError(error -> sample.stop(upstreamTimer(endpoint, "error")))
+          .doOnCancel(() -> sample.stop(upstreamTimer(endpoint, "cancelled")));
+    });
+  }
+
+  public Timer.Sample startTimer() {
+    return Timer.start(meterRegistry);
+  }
+
+  /**
+   * Stops the sample as duration of reading or writing the XML file and records the file size
+   *
+   * @param operation read or write
+   * @param report    daily-report, history or report
+   */
+  public void recordXmlFile(Timer.Sample sample, String operation, String report, File file) {
+    sample.stop(Timer.builder(XML_DURATION)
+        .description("Duration of reading or writing an ExchangeRateDetails XML file")
+        .tag("operation", operation)
+        .tag("report", report)
+        .publishPercentileHistogram()
+        .register(meterRegistry));
+    DistributionSummary.builder(XML_FILE_SIZE)
+        .description("Size of the ExchangeRateDetails XML file read or written")
+        .baseUnit("bytes")
+        .tag("operation", operation)
+        .tag("report", report)
+        .register(meterRegistry)
+        .record(file.length());
+  }
+
+  /**
+   * Records how late a scheduler tick started its job against the configured interval
+   *
+   * @param job currency-rate or daily-report
+   */
+  public void recordSchedulerTickLag(String job, Duration lag) {
+    Timer.builder(SCHEDULER_TICK_LAG)
+        .description("Delay between the planned and the actual start of a scheduled job")
+        .tag("job", job)
+        .register(meterRegistry)
+        .record(lag);
+  }
+
+  public void incrementRateChanges(String currency) {
+    Counter.builder(RATE_CHANGES)
+        .description("Rate changes detected and appended to the rate history")
+        .tag("currency", currency)
+        .register(meterRegistry)
+        .increment();
+  }
+
+  public void registerFeedSubscribers(Supplier<Number> subscriberCount) {
+    Gauge.builder(FEED_SUBSCRIBERS, subscriberCount)
+        .description("Current subscribers of the rate change feed")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Counts a rate change event dropped from the buffer of a slow feed subscriber
+   */
+  public void incrementFeedDropped() {
+    Counter.builder(FEED_DROPPED)
+        .description("Rate change events dropped for slow feed subscribers")
+        .register(meterRegistry)
+        .increment();
+  }
+
+  private Timer upstreamTimer(String endpoint, String outcome) {
+    return Timer.builder(UPSTREAM_REQUESTS)
+        .description("Latency of the exchangerate-api calls")
+        .tag("endpoint", endpoint)
+        .tag("outcome", outcome)
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+  }
+
+}
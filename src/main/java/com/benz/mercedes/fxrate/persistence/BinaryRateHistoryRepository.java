@@ -0,0 +1,67 @@
+package com.benz.mercedes.fxrate.persistence;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+/**
+ * Rate history in the crash-safe {@link RateHistoryJournal}, range queries answered by binary
+ * search in the memory-mapped {@link RateTimeSeriesStore} without copying the points. The only
+ * repository with retention and compaction of the history.
+ */
+@Component
+@ConditionalOnProperty(prefix = "fxrate.history", name = "repository", havingValue = "binary",
+    matchIfMissing = true)
+public class BinaryRateHistoryRepository implements RateHistoryRepository {
+
+  private final RateHistoryJournal rateHistoryJournal;
+
+  private final RateTimeSeriesStore rateTimeSeriesStore;
+
+  public BinaryRateHistoryRepository(RateHistoryJournal rateHistoryJournal,
+      RateTimeSeriesStore rateTimeSeriesStore) {
+    this.rateHistoryJournal = rateHistoryJournal;
+    this.rateTimeSeriesStore = rateTimeSeriesStore;
+  }
+
+  /**
+   * Appends to the journal, then to the time-series index. A crash in between is repaired by the
+   * index rebuild on the next start.
+   */
+  @Override
+  public Mono<Void> append(RateHistoryEntry entry) {
+    return Mono.fromCallable(() -> {
+      rateHistoryJournal.append(entry);
+      rateTimeSeriesStore.append(entry);
+      return entry;
+    }).then();
+  }
+
+  @Override
+  public Mono<RateSeriesSlice> findByCurrency(String currency, long from, long to) {
+    return Mono.fromCallable(() -> rateTimeSeriesStore.query(currency, from, to));
+  }
+
+  @Override
+  public Set<String> getCurrencies() {
+    return rateTimeSeriesStore.getCurrencies();
+  }
+
+  @Override
+  public double[] getLatestRates() {
+    return rateHistoryJournal.getLatestRates();
+  }
+
+  @Override
+  public long getLastTimestamp() {
+    return rateHistoryJournal.getLastTimestamp();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return rateHistoryJournal.isEmpty();
+  }
+
+}
@@ -0,0 +1,168 @@
+package com.benz.mercedes.fxrate.persistence;
+
+import com.benz.mercedes.fxrate.config.FxRateProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+/**
+ * Rate history in an embedded H2 database, one row per rate change. The primary key on
+ * (currency, timestamp) is the index of the range queries and makes a repeated append of the
+ * same change a no-op.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "fxrate.history", name = "repository", havingValue = "h2")
+public class H2RateHistoryRepository implements RateHistoryRepository {
+
+  private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS RATE_HISTORY ("
+      + "CURRENCY CHAR(3) NOT NULL, "
+      + "TS BIGINT NOT NULL, "
+      + "RATE DOUBLE PRECISION NOT NULL, "
+      + "PRIMARY KEY (CURRENCY, TS))";
+
+  private static final String MERGE_RATE = "MERGE INTO RATE_HISTORY (CURRENCY, TS, RATE) "
+      + "KEY (CURRENCY, TS) VALUES (?, ?, ?)";
+
+  private static final String SELECT_RANGE = "SELECT TS, RATE FROM RATE_HISTORY "
+      + "WHERE CURRENCY = ? AND TS BETWEEN ? AND ? ORDER BY TS";
+
+  // the latest rate of every currency, one primary key lookup per currency
+  private static final String SELECT_LATEST = "SELECT CURRENCY, TS, RATE FROM RATE_HISTORY H "
+      + "WHERE TS = (SELECT MAX(TS) FROM RATE_HISTORY WHERE CURRENCY = H.CURRENCY) ORDER BY TS";
+
+  private final String url;
+
+  private final LatestRates latestRates = new LatestRates();
+
+  private final Set<String> currencies = new ConcurrentSkipListSet<>();
+
+  private JdbcConnectionPool connectionPool;
+
+  @Autowired
+  public H2RateHistoryRepository(FxRateProperties fxRateProperties) {
+    this(fxRateProperties.getHistory().getDatabaseUrl());
+  }
+
+  public H2RateHistoryRepository(String url) {
+    this.url = url;
+  }
+
+  /**
+   * Creates the table if missing and restores the latest rate of every currency
+   */
+  @PostConstruct
+  public void open() throws IOException {
+    connectionPool = JdbcConnectionPool.create(url, "sa", "");
+    try (Connection connection = connectionPool.getConnection();
+        Statement statement = connection.createStatement()) {
+      statement.execute(CREATE_TABLE);
+      try (ResultSet resultSet = statement.executeQuery(SELECT_LATEST)) {
+        while (resultSet.next()) {
+          String currency = resultSet.getString(1);
+          latestRates.update(new RateHistoryEntry(resultSet.getLong(2),
+              Map.of(currency, resultSet.getDouble(3))));
+          currencies.add(currency);
+        }
+      }
+    } catch (SQLException exception) {
+      throw new IOException("Rate history database " + url + " could not be opened", exception);
+    }
+    log.info("Rate history database {} opened with currencies {}", url, currencies);
+  }
+
+  @PreDestroy
+  public void close() {
+    if (connectionPool != null) {
+      connectionPool.dispose();
+    }
+  }
+
+  /**
+   * Inserts the rates of the entry in one transaction
+   */
+  @Override
+  public Mono<Void> append(RateHistoryEntry entry) {
+    return Mono.fromCallable(() -> {
+      try (Connection connection = connectionPool.getConnection();
+          PreparedStatement statement = connection.prepareStatement(MERGE_RATE)) {
+        connection.setAutoCommit(false);
+        for (Map.Entry<String, Double> rate : entry.getRates().entrySet()) {
+          statement.setString(1, rate.getKey().toUpperCase());
+          statement.setLong(2, entry.getTimestamp());
+          statement.setDouble(3, rate.getValue());
+          statement.addBatch();
+        }
+        statement.executeBatch();
+        connection.commit();
+      } catch (SQLException exception) {
+        throw new IOException("Rate history entry could not be inserted", exception);
+      }
+      entry.getRates().keySet().forEach(currency -> currencies.add(currency.toUpperCase()));
+      latestRates.update(entry);
+      return entry;
+    }).then();
+  }
+
+  @Override
+  public Mono<RateSeriesSlice> findByCurrency(String currency, long from, long to) {
+    return Mono.fromCallable(() -> {
+      RateSeriesSlice.Builder builder = new RateSeriesSlice.Builder();
+      if (currency == null) {
+        return builder.build();
+      }
+      try (Connection connection = connectionPool.getConnection();
+          PreparedStatement statement = connection.prepareStatement(SELECT_RANGE)) {
+        statement.setString(1, currency.toUpperCase());
+        statement.setLong(2, from);
+        statement.setLong(3, to);
+        try (ResultSet resultSet = statement.executeQuery()) {
+          while (resultSet.next()) {
+            builder.add(resultSet.getLong(1), resultSet.getDouble(2));
+          }
+        }
+      } catch (SQLException exception) {
+        throw new IOException("Rate history of " + currency + " could not be queried",
+            exception);
+      }
+      return builder.build();
+    });
+  }
+
+  @Override
+  public Set<String> getCurrencies() {
+    return Collections.unmodifiableSet(currencies);
+  }
+
+  @Override
+  public double[] getLatestRates() {
+    return latestRates.getRates();
+  }
+
+  @Override
+  public long getLastTimestamp() {
+    return latestRates.getLastTimestamp();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return currencies.isEmpty();
+  }
+
+}
@@ -0,0 +1,50 @@
+package com.benz.mercedes.fxrate.persistence;
+
+import com.benz.mercedes.fxrate.domain.CurrencyTable;
+
+import java.util.Arrays;
+
+/**
+ * Latest rate of every currency and time of the last rate change of a rate history, kept up to
+ * date by its appends
+ */
+final class LatestRates {
+
+  // latest rate by CurrencyTable ordinal, NaN for a currency not in the history
+  private double[] rates = CurrencyTable.newRates();
+
+  // timestamp of the last appended entry, read without the lock by the HTTP validators
+  private volatile long lastTimestamp;
+
+  synchronized void update(RateHistoryEntry entry) {
+    lastTimestamp = Math.max(lastTimestamp, entry.getTimestamp());
+    entry.getRates().forEach((currency, rate) -> {
+      int ordinal = CurrencyTable.register(currency);
+      if (ordinal >= rates.length) {
+        rates = copyOf(rates, CurrencyTable.size());
+      }
+      rates[ordinal] = rate;
+    });
+  }
+
+  /**
+   * @return rates indexed by {@link CurrencyTable} ordinal, NaN for a currency not in the history
+   */
+  synchronized double[] getRates() {
+    return copyOf(rates, CurrencyTable.size());
+  }
+
+  /**
+   * @return epoch millis, 0 for an empty history
+   */
+  long getLastTimestamp() {
+    return lastTimestamp;
+  }
+
+  private static double[] copyOf(double[] rates, int length) {
+    double[] copy = Arrays.copyOf(rates, Math.max(length, rates.length));
+    Arrays.fill(copy, rates.length, copy.length, Double.NaN);
+    return copy;
+  }
+
+}
@@ -0,0 +1,88 @@
+package com.benz.mercedes.fxrate.persistence;
+
+import com.benz.mercedes.fxrate.config.FxRateProperties;
+import com.benz.mercedes.fxrate.domain.jaxb.CurrencyChangeDetails;
+import com.benz.mercedes.fxrate.domain.jaxb.ExchangeRateDetails;
+import com.benz.mercedes.fxrate.domain.jaxb.ExchangeRateDetailsProjection;
+import com.benz.mercedes.fxrate.xml.ExchangeRateXmlMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import javax.xml.bind.JAXBException;
+
+/**
+ * One-time import of an ExchangeRateDetails XML written by earlier versions into the empty rate
+ * history repository. Once the repository holds any entry the XML file is left untouched.
+ */
+@Slf4j
+@Component
+public class LegacyXmlHistoryImporter implements ApplicationRunner {
+
+  @Autowired
+  private RateHistoryRepository rateHistoryRepository;
+
+  @Autowired
+  private ExchangeRateXmlMapper exchangeRateXmlMapper;
+
+  @Autowired
+  private FxRateProperties fxRateProperties;
+
+  @Override
+  public void run(ApplicationArguments args) throws IOException, JAXBException {
+    importXml(Paths.get(fxRateProperties.getHistory().getXmlPath()));
+  }
+
+  /**
+   * Imports the XML history, merging the currency changes of the same scheduler run into one
+   * entry. Runs once on start up, before any rate change is saved.
+   *
+   * @return number of imported entries
+   */
+  public int importXml(Path xmlPath) throws IOException, JAXBException {
+    if (!rateHistoryRepository.isEmpty() || !Files.exists(xmlPath)) {
+      return 0;
+    }
+    ExchangeRateDetails exchangeRateDetails;
+    try (Reader reader = Files.newBufferedReader(xmlPath)) {
+      exchangeRateDetails = exchangeRateXmlMapper.unmarshal(reader);
+    }
+
+    SortedMap<Long, Map<String, Double>> entries = new TreeMap<>();
+    for (String currency : ExchangeRateDetailsProjection.CURRENCIES) {
+      List<CurrencyChangeDetails> currencyChanges = Optional.ofNullable(
+              ExchangeRateDetailsProjection.getCurrencyChanges(exchangeRateDetails, currency))
+          .orElse(Collections.emptyList());
+      currencyChanges.stream()
+          .filter(currencyChangeDetails -> currencyChangeDetails.getDate() != null
+              && currencyChangeDetails.getValue() != null)
+          .forEach(currencyChangeDetails -> entries.computeIfAbsent(
+                  currencyChangeDetails.getDate().getTime(), timestamp -> new LinkedHashMap<>())
+              .put(currency, currencyChangeDetails.getValue()));
+    }
+
+    Flux.fromIterable(entries.entrySet())
+        .concatMap(entry -> rateHistoryRepository.append(
+            new RateHistoryEntry(entry.getKey(), entry.getValue())))
+        .then()
+        .block();
+    log.info("Imported {} rate history entries from {}", entries.size(), xmlPath);
+    return entries.size();
+  }
+
+}
@@ -0,0 +1,81 @@
+package com.benz.mercedes.fxrate.persistence;
+
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Open, high, low and close rate of one currency within an hour or a day of the compacted rate
+ * history
+ */
+@Value
+public class RateBucket {
+
+  String currency;
+
+  Resolution resolution;
+
+  /**
+   * Epoch millis of the bucket start, aligned to the resolution at UTC
+   */
+  long start;
+
+  double open;
+
+  double high;
+
+  double low;
+
+  double close;
+
+  /**
+   * Bucket of a single rate point
+   */
+  public static RateBucket of(String currency, Resolution resolution, long timestamp,
+      double rate) {
+    return new RateBucket(currency, resolution, resolution.align(timestamp), rate, rate, rate,
+        rate);
+  }
+
+  /**
+   * Merges a later bucket of the same currency into this one
+   */
+  public RateBucket merge(RateBucket later) {
+    return new RateBucket(currency, resolution, start, open, Math.max(high, later.high),
+        Math.min(low, later.low), later.close);
+  }
+
+  /**
+   * This bucket widened to the given, coarser resolution
+   */
+  public RateBucket withResolution(Resolution coarserResolution) {
+    return new RateBucket(currency, coarserResolution, coarserResolution.align(start), open, high,
+        low, close);
+  }
+
+  public enum Resolution {
+
+    HOUR(Duration.ofHours(1)),
+
+    DAY(Duration.ofDays(1));
+
+    private final Duration length;
+
+    Resolution(Duration length) {
+      this.length = length;
+    }
+
+    public Duration getLength() {
+      return length;
+    }
+
+    /**
+     * Start of the bucket holding the given epoch millis
+     */
+    public long align(long timestamp) {
+      return Math.floorDiv(timestamp, length.toMillis()) * length.toMillis();
+    }
+
+  }
+
+}
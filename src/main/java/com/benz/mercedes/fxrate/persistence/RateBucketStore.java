@@ -0,0 +1,256 @@
+package com.benz.mercedes.fxrate.persistence;
+
+import com.benz.mercedes.fxrate.config.FxRateProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import javax.annotation.PostConstruct;
+
+/**
+ * Hourly and daily OHLC buckets of the compacted rate history in one file of fixed width records,
+ * sorted by currency and bucket start:
+ *
+ * <pre>
+ * long compactedUntil | n * (3 byte ISO code, byte resolution, long start,
+ *     double open, double high, double low, double close)
+ * </pre>
+ * <p>
+ * The file is only ever replaced as a whole by an atomic move and read through a read-only memory
+ * mapping, so a reader keeps a consistent snapshot while a compaction replaces it.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "fxrate.history", name = "repository", havingValue = "binary",
+    matchIfMissing = true)
+public class RateBucketStore {
+
+  private static final int HEADER_BYTES = Long.BYTES;
+
+  private static final int CURRENCY_CODE_BYTES = 3;
+
+  static final int RECORD_BYTES = CURRENCY_CODE_BYTES + 1 + Long.BYTES + 4 * Double.BYTES;
+
+  private static final Comparator<RateBucket> BUCKET_ORDER = Comparator
+      .comparing(RateBucket::getCurrency).thenComparingLong(RateBucket::getStart);
+
+  private final Path bucketPath;
+
+  private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+  @Autowired
+  public RateBucketStore(FxRateProperties fxRateProperties) {
+    this(Paths.get(fxRateProperties.getHistory().getBucketPath()));
+  }
+
+  public RateBucketStore(Path bucketPath) {
+    this.bucketPath = bucketPath;
+  }
+
+  @PostConstruct
+  public synchronized void open() throws IOException {
+    if (Files.exists(bucketPath)) {
+      snapshot = map(bucketPath);
+      log.info("Rate buckets {} opened with {} buckets compacted until {}", bucketPath,
+          snapshot.count, snapshot.compactedUntil);
+    }
+  }
+
+  /**
+   * Epoch millis up to which the rate history was compacted into the buckets, the journal holds
+   * every rate change from there on
+   *
+   * @return Long.MIN_VALUE before the first compaction
+   */
+  public long getCompactedUntil() {
+    return snapshot.compactedUntil;
+  }
+
+  /**
+   * Buckets of the currency with from &lt;= start &lt;= to, both in epoch millis, in time order
+   */
+  public List<RateBucket> query(String currency, long from, long to) {
+    Snapshot current = snapshot;
+    int[] range = currency == null ? null : current.ranges.get(currency.toUpperCase());
+    List<RateBucket> buckets = new ArrayList<>();
+    if (range == null) {
+      return buckets;
+    }
+    int index = search(current.mapping, range[0], range[1], from);
+    for (; index < range[1]; index++) {
+      RateBucket bucket = decode(current.mapping, index);
+      if (bucket.getStart() > to) {
+        break;
+      }
+      buckets.add(bucket);
+    }
+    return buckets;
+  }
+
+  /**
+   * Visits all buckets of one snapshot, ordered by currency and start
+   */
+  public void forEach(Consumer<RateBucket> consumer) {
+    Snapshot current = snapshot;
+    for (int index = 0; index < current.count; index++) {
+      consumer.accept(decode(current.mapping, index));
+    }
+  }
+
+  /**
+   * Replaces all buckets. The new file is written and forced next to the current one and moved
+   * over it, a crash leaves either the old or the new buckets.
+   */
+  public synchronized void replace(long compactedUntil, List<RateBucket> buckets)
+      throws IOException {
+    List<RateBucket> sortedBuckets = new ArrayList<>(buckets);
+    sortedBuckets.sort(BUCKET_ORDER);
+    Path compactedPath = bucketPath.resolveSibling(bucketPath.getFileName() + ".compact");
+    try (FileChannel fileChannel = FileChannel.open(compactedPath, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + sortedBuckets.size() * RECORD_BYTES);
+      buffer.putLong(compactedUntil);
+      sortedBuckets.forEach(bucket -> encode(buffer, bucket));
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        fileChannel.write(buffer);
+      }
+      fileChannel.force(true);
+    }
+    Files.move(compactedPath, bucketPath, StandardCopyOption.ATOMIC_MOVE,
+        StandardCopyOption.REPLACE_EXISTING);
+    snapshot = map(bucketPath);
+  }
+
+  /**
+   * Appends the buckets to an archive of bucket records without header, created if missing
+   */
+  public static void archive(Path archivePath, List<RateBucket> buckets) throws IOException {
+    try (FileChannel fileChannel = FileChannel.open(archivePath, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+      ByteBuffer buffer = ByteBuffer.allocate(buckets.size() * RECORD_BYTES);
+      buckets.forEach(bucket -> encode(buffer, bucket));
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        fileChannel.write(buffer);
+      }
+      fileChannel.force(true);
+    }
+  }
+
+  private static Snapshot map(Path path) throws IOException {
+    try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = fileChannel.size();
+      if (size < HEADER_BYTES || (size - HEADER_BYTES) % RECORD_BYTES != 0) {
+        throw new IOException("Corrupt rate bucket file " + path + " of " + size + " bytes");
+      }
+      // the mapping stays valid after the channel is closed
+      ByteBuffer mapping = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      long compactedUntil = mapping.getLong(0);
+      return new Snapshot(mapping.position(HEADER_BYTES).slice(), compactedUntil);
+    }
+  }
+
+  private static void encode(ByteBuffer buffer, RateBucket bucket) {
+    byte[] currencyCode = bucket.getCurrency().toUpperCase().getBytes(StandardCharsets.US_ASCII);
+    if (currencyCode.length != CURRENCY_CODE_BYTES) {
+      throw new IllegalArgumentException("Not an ISO 4217 currency code " + bucket.getCurrency());
+    }
+    buffer.put(currencyCode)
+        .put((byte) bucket.getResolution().ordinal())
+        .putLong(bucket.getStart())
+        .putDouble(bucket.getOpen())
+        .putDouble(bucket.getHigh())
+        .putDouble(bucket.getLow())
+        .putDouble(bucket.getClose());
+  }
+
+  private static RateBucket decode(ByteBuffer mapping, int index) {
+    int offset = index * RECORD_BYTES;
+    int valueOffset = offset + CURRENCY_CODE_BYTES + 1 + Long.BYTES;
+    return new RateBucket(getCurrency(mapping, index),
+        RateBucket.Resolution.values()[mapping.get(offset + CURRENCY_CODE_BYTES)],
+        getStart(mapping, index),
+        mapping.getDouble(valueOffset),
+        mapping.getDouble(valueOffset + Double.BYTES),
+        mapping.getDouble(valueOffset + 2 * Double.BYTES),
+        mapping.getDouble(valueOffset + 3 * Double.BYTES));
+  }
+
+  private static String getCurrency(ByteBuffer mapping, int index) {
+    byte[] currencyCode = new byte[CURRENCY_CODE_BYTES];
+    for (int position = 0; position < CURRENCY_CODE_BYTES; position++) {
+      currencyCode[position] = mapping.get(index * RECORD_BYTES + position);
+    }
+    return new String(currencyCode, StandardCharsets.US_ASCII);
+  }
+
+  private static long getStart(ByteBuffer mapping, int index) {
+    return mapping.getLong(index * RECORD_BYTES + CURRENCY_CODE_BYTES + 1);
+  }
+
+  /**
+   * Index of the first bucket in [low, high) starting at or after the given epoch millis
+   */
+  private static int search(ByteBuffer mapping, int low, int high, long from) {
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (getStart(mapping, middle) < from) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Mapped buckets with the index range of every currency
+   */
+  private static final class Snapshot {
+
+    static final Snapshot EMPTY = new Snapshot(ByteBuffer.allocate(0), Long.MIN_VALUE);
+
+    final ByteBuffer mapping;
+
+    final long compactedUntil;
+
+    final int count;
+
+    // currency to {first index, end index}
+    final Map<String, int[]> ranges = new HashMap<>();
+
+    Snapshot(ByteBuffer mapping, long compactedUntil) {
+      this.mapping = mapping;
+      this.compactedUntil = compactedUntil;
+      this.count = mapping.capacity() / RECORD_BYTES;
+      for (int index = 0; index < count; index++) {
+        String currency = getCurrency(mapping, index);
+        int[] range = ranges.get(currency);
+        if (range == null) {
+          range = new int[]{index, index};
+          ranges.put(currency, range);
+        }
+        range[1] = index + 1;
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,35 @@
+package com.benz.mercedes.fxrate.persistence;
+
+import com.benz.mercedes.fxrate.domain.CurrencyTable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Finds the rates of a Currency Exchange Rate Scheduler run which differ from the latest rates of
+ * the rate history, in one pass over the CurrencyTable ordinals
+ */
+public final class RateChangeDetector {
+
+  private RateChangeDetector() {
+  }
+
+  /**
+   * @param rates       fetched rates indexed by CurrencyTable ordinal, NaN if not fetched
+   * @param latestRates latest rates of the history indexed by ordinal, may be shorter than rates
+   * @return the changed rates keyed by ISO currency code in ordinal order, every fetched rate
+   *     while the history is empty
+   */
+  public static Map<String, Double> getCurrencyChanges(double[] rates, double[] latestRates) {
+    Map<String, Double> currencyChanges = new LinkedHashMap<>();
+    for (int ordinal = 0; ordinal < rates.length; ordinal++) {
+      double rate = rates[ordinal];
+      double latestRate = ordinal < latestRates.length ? latestRates[ordinal] : Double.NaN;
+      if (!Double.isNaN(rate) && Double.compare(latestRate, rate) != 0) {
+        currencyChanges.put(CurrencyTable.code(ordinal), rate);
+      }
+    }
+    return currencyChanges;
+  }
+
+}
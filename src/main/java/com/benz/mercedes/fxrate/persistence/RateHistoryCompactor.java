@@ -0,0 +1,186 @@
+package com.benz.mercedes.fxrate.persistence;
+
+import com.benz.mercedes.fxrate.config.FxRateProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Retention policy of the rate history. Every rate change is kept for the full resolution window,
+ * older changes are downsampled into hourly and, past the hourly window, daily OHLC buckets per
+ * currency in the {@link RateBucketStore}. Daily buckets past the horizon are archived and dropped.
+ * <p>
+ * The journal keeps one point per bucket, its close rate at the bucket start, so the reports and
+ * range queries read the downsampled history from the time-series as before. A compaction reads
+ * and writes beside the live files and replaces them by atomic moves, rate changes are appended
+ * meanwhile and readers keep the snapshot they started with.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "fxrate.history", name = "repository", havingValue = "binary",
+    matchIfMissing = true)
+public class RateHistoryCompactor {
+
+  private static final Duration MIN_FULL_RESOLUTION = Duration.ofDays(1);
+
+  private final FxRateProperties.Retention retention;
+
+  private final RateHistoryJournal rateHistoryJournal;
+
+  private final RateTimeSeriesStore rateTimeSeriesStore;
+
+  private final RateBucketStore rateBucketStore;
+
+  // null drops the buckets past the horizon
+  private final Path archivePath;
+
+  private final Clock clock;
+
+  // time of the last compaction which changed the history
+  private volatile long lastCompactedAt;
+
+  @Autowired
+  public RateHistoryCompactor(FxRateProperties fxRateProperties,
+      RateHistoryJournal rateHistoryJournal, RateTimeSeriesStore rateTimeSeriesStore,
+      RateBucketStore rateBucketStore) {
+    this(fxRateProperties, rateHistoryJournal, rateTimeSeriesStore, rateBucketStore,
+        Clock.systemUTC());
+  }
+
+  RateHistoryCompactor(FxRateProperties fxRateProperties, RateHistoryJournal rateHistoryJournal,
+      RateTimeSeriesStore rateTimeSeriesStore, RateBucketStore rateBucketStore, Clock clock) {
+    this.retention = fxRateProperties.getRetention();
+    this.rateHistoryJournal = rateHistoryJournal;
+    this.rateTimeSeriesStore = rateTimeSeriesStore;
+    this.rateBucketStore = rateBucketStore;
+    String archive = fxRateProperties.getHistory().getArchivePath();
+    this.archivePath = archive == null || archive.isEmpty() ? null : Paths.get(archive);
+    this.clock = clock;
+    if (retention.getFullResolution().compareTo(MIN_FULL_RESOLUTION) < 0
+        || retention.getHourlyResolution().compareTo(retention.getFullResolution()) < 0
+        || retention.getHorizon().compareTo(retention.getHourlyResolution()) < 0) {
+      throw new IllegalArgumentException("fxrate.retention needs 1 day <= full-resolution "
+          + "<= hourly-resolution <= horizon");
+    }
+  }
+
+  /**
+   * Downsamples the rate changes which left the full resolution window and drops the buckets
+   * past the horizon
+   *
+   * @return false if the history was already compacted
+   */
+  public synchronized boolean compact() throws IOException {
+    long now = clock.millis();
+    // the compacted part never shrinks, even when the clock or the windows go back
+    long compactUntil = Math.max(RateBucket.Resolution.HOUR.align(
+        now - retention.getFullResolution().toMillis()), rateBucketStore.getCompactedUntil());
+    long dailyUntil = RateBucket.Resolution.DAY.align(
+        now - retention.getHourlyResolution().toMillis());
+    long horizon = RateBucket.Resolution.DAY.align(now - retention.getHorizon().toMillis());
+    long compactedUntil = rateBucketStore.getCompactedUntil();
+
+    Map<String, NavigableMap<Long, RateBucket>> buckets = new TreeMap<>();
+    List<RateBucket> widenedBuckets = new ArrayList<>();
+    rateBucketStore.forEach(bucket -> {
+      if (bucket.getResolution() == RateBucket.Resolution.HOUR && bucket.getStart() < dailyUntil) {
+        widenedBuckets.add(bucket);
+      }
+      add(buckets, bucket, dailyUntil);
+    });
+
+    List<RateHistoryEntry> keptEntries = new ArrayList<>();
+    int[] downsampledEntries = new int[1];
+    long end = rateHistoryJournal.forEach(entry -> {
+      long timestamp = entry.getTimestamp();
+      if (timestamp >= compactUntil) {
+        keptEntries.add(entry);
+      } else if (timestamp >= compactedUntil) {
+        // older entries are the bucket points written by an earlier compaction
+        downsampledEntries[0]++;
+        entry.getRates().forEach((currency, rate) -> add(buckets,
+            RateBucket.of(currency.toUpperCase(), RateBucket.Resolution.HOUR, timestamp, rate),
+            dailyUntil));
+      }
+    });
+
+    List<RateBucket> expiredBuckets = new ArrayList<>();
+    for (NavigableMap<Long, RateBucket> currencyBuckets : buckets.values()) {
+      SortedMap<Long, RateBucket> expired = currencyBuckets.headMap(horizon);
+      expiredBuckets.addAll(expired.values());
+      expired.clear();
+    }
+    if (downsampledEntries[0] == 0 && widenedBuckets.isEmpty() && expiredBuckets.isEmpty()) {
+      log.debug("Rate history already compacted until {}", compactedUntil);
+      return false;
+    }
+
+    // archive first, a crash may archive buckets twice but never loses them
+    if (archivePath != null && !expiredBuckets.isEmpty()) {
+      RateBucketStore.archive(archivePath, expiredBuckets);
+    }
+    List<RateBucket> retainedBuckets = new ArrayList<>();
+    buckets.values().forEach(currencyBuckets -> retainedBuckets.addAll(currencyBuckets.values()));
+    // the buckets cover the compacted entries before the journal drops them
+    rateBucketStore.replace(compactUntil, retainedBuckets);
+    rateHistoryJournal.compact(end, getJournalEntries(retainedBuckets, keptEntries));
+    rateTimeSeriesStore.rebuild();
+    lastCompactedAt = now;
+    log.info("Rate history compacted - {} entries downsampled, {} hourly buckets widened to days, "
+            + "{} buckets past the horizon {}", downsampledEntries[0], widenedBuckets.size(),
+        expiredBuckets.size(), archivePath == null ? "dropped" : "archived to " + archivePath);
+    return true;
+  }
+
+  /**
+   * Time of the last compaction which changed the history
+   *
+   * @return epoch millis, 0 if none since the start
+   */
+  public long getLastCompactedAt() {
+    return lastCompactedAt;
+  }
+
+  /**
+   * Adds the bucket, widened to a day if it starts before the hourly window, in time order
+   */
+  private static void add(Map<String, NavigableMap<Long, RateBucket>> buckets, RateBucket bucket,
+      long dailyUntil) {
+    RateBucket resolvedBucket =
+        bucket.getResolution() == RateBucket.Resolution.HOUR && bucket.getStart() < dailyUntil
+            ? bucket.withResolution(RateBucket.Resolution.DAY) : bucket;
+    buckets.computeIfAbsent(resolvedBucket.getCurrency(), currency -> new TreeMap<>())
+        .merge(resolvedBucket.getStart(), resolvedBucket, RateBucket::merge);
+  }
+
+  /**
+   * Close rate of every bucket at its start, followed by the entries of the full resolution window
+   */
+  private static List<RateHistoryEntry> getJournalEntries(List<RateBucket> buckets,
+      List<RateHistoryEntry> keptEntries) {
+    SortedMap<Long, Map<String, Double>> bucketRates = new TreeMap<>();
+    for (RateBucket bucket : buckets) {
+      bucketRates.computeIfAbsent(bucket.getStart(), start -> new LinkedHashMap<>())
+          .put(bucket.getCurrency(), bucket.getClose());
+    }
+    List<RateHistoryEntry> entries = new ArrayList<>(bucketRates.size() + keptEntries.size());
+    bucketRates.forEach((start, rates) -> entries.add(new RateHistoryEntry(start, rates)));
+    entries.addAll(keptEntries);
+    return entries;
+  }
+
+}
@@ -0,0 +1,20 @@
+package com.benz.mercedes.fxrate.persistence;
+
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * Rates which changed in one Currency Exchange Rate Scheduler run, keyed by ISO currency code
+ */
+@Value
+public class RateHistoryEntry {
+
+  /**
+   * Epoch millis of the scheduler run
+   */
+  long timestamp;
+
+  Map<String, Double> rates;
+
+}
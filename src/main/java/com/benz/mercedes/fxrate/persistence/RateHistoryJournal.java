@@ -0,0 +1,343 @@
+package com.benz.mercedes.fxrate.persistence;
+
+import com.benz.mercedes.fxrate.config.FxRateProperties;
+import com.benz.mercedes.fxrate.domain.CurrencyTable;
+import com.benz.mercedes.fxrate.domain.jaxb.ExchangeRateDetails;
+import com.benz.mercedes.fxrate.domain.jaxb.ExchangeRateDetailsProjection;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+/**
+ * Append-only, crash-safe rate history log. Every {@link RateHistoryEntry} is one length-prefixed
+ * and CRC32 checked record:
+ *
+ * <pre>
+ * int payloadLength | long timestamp | short rateCount
+ *     | rateCount * (3 byte ISO code, double rate) | int crc32
+ * </pre>
+ * <p>
+ * A torn record left by a crash in the middle of an append is detected by the length prefix and
+ * checksum and truncated on the next start. Appends never rewrite earlier records, only a
+ * compaction replaces the journal as a whole.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "fxrate.history", name = "repository", havingValue = "binary",
+    matchIfMissing = true)
+public class RateHistoryJournal {
+
+  private static final int LENGTH_BYTES = Integer.BYTES;
+
+  private static final int CHECKSUM_BYTES = Integer.BYTES;
+
+  private static final int PAYLOAD_HEADER_BYTES = Long.BYTES + Short.BYTES;
+
+  private static final int CURRENCY_CODE_BYTES = 3;
+
+  private static final int RATE_BYTES = CURRENCY_CODE_BYTES + Double.BYTES;
+
+  // guards the recovery scan against a corrupt length prefix
+  private static final int MAX_PAYLOAD_BYTES = PAYLOAD_HEADER_BYTES + Short.MAX_VALUE * RATE_BYTES;
+
+  private final Path journalPath;
+
+  private final LatestRates latestRates = new LatestRates();
+
+  private FileChannel fileChannel;
+
+  // held for reading while the records are scanned, for writing while a compaction swaps the file
+  private final ReadWriteLock channelLock = new ReentrantReadWriteLock();
+
+  // end of the last complete record
+  private long size;
+
+  @Autowired
+  public RateHistoryJournal(FxRateProperties fxRateProperties) {
+    this(Paths.get(fxRateProperties.getHistory().getJournalPath()));
+  }
+
+  public RateHistoryJournal(Path journalPath) {
+    this.journalPath = journalPath;
+  }
+
+  /**
+   * Opens the journal, truncates a torn trailing record and restores the latest rate of every
+   * currency
+   */
+  @PostConstruct
+  public synchronized void open() throws IOException {
+    fileChannel = FileChannel.open(journalPath, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    long fileSize = fileChannel.size();
+    size = scan(0, fileSize, latestRates::update);
+    if (size < fileSize) {
+      log.warn("Truncating {} bytes of a torn record at the end of the rate history journal {}",
+          fileSize - size, journalPath);
+      fileChannel.truncate(size);
+      fileChannel.force(true);
+    }
+    fileChannel.position(size);
+    log.info("Rate history journal {} opened with {} bytes", journalPath, size);
+  }
+
+  @PreDestroy
+  public synchronized void close() throws IOException {
+    if (fileChannel != null) {
+      fileChannel.close();
+    }
+  }
+
+  /**
+   * Appends the entry and forces it to the storage device before returning
+   */
+  public synchronized void append(RateHistoryEntry entry) throws IOException {
+    ByteBuffer record = encode(entry);
+    try {
+      while (record.hasRemaining()) {
+        fileChannel.write(record);
+      }
+      fileChannel.force(false);
+    } catch (IOException exception) {
+      // drop the partially written record, so the next append does not follow a torn one
+      fileChannel.truncate(size);
+      fileChannel.position(size);
+      throw exception;
+    }
+    size += record.limit();
+    latestRates.update(entry);
+  }
+
+  /**
+   * Latest known rate of every currency in the journal
+   *
+   * @return rates indexed by {@link CurrencyTable} ordinal, NaN for a currency not in the journal
+   */
+  public double[] getLatestRates() {
+    return latestRates.getRates();
+  }
+
+  /**
+   * Timestamp of the last rate change in the journal
+   *
+   * @return epoch millis, 0 for an empty journal
+   */
+  public long getLastTimestamp() {
+    return latestRates.getLastTimestamp();
+  }
+
+  public synchronized boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Streams all entries in append order. Entries appended while reading are not visited.
+   *
+   * @return end of the visited records, to continue from or to compact up to
+   */
+  public long forEach(Consumer<RateHistoryEntry> consumer) throws IOException {
+    return forEach(0, consumer);
+  }
+
+  /**
+   * Streams the entries from the given end of an earlier {@link #forEach} in append order
+   *
+   * @return end of the visited records
+   */
+  public long forEach(long from, Consumer<RateHistoryEntry> consumer) throws IOException {
+    channelLock.readLock().lock();
+    try {
+      long end;
+      synchronized (this) {
+        end = size;
+      }
+      return scan(from, end, consumer);
+    } finally {
+      channelLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Replaces the records up to the given end of an earlier {@link #forEach} with the given
+   * entries. The compacted journal is written next to the current one while appends and reads go
+   * on. Only the records appended meanwhile are copied while appends and reads wait, then the
+   * compacted journal is moved over the current one and the move is forced to the directory, a
+   * crash leaves either of them.
+   */
+  public void compact(long end, List<RateHistoryEntry> head) throws IOException {
+    Path compactedPath = journalPath.resolveSibling(journalPath.getFileName() + ".compact");
+    FileChannel compactedChannel = FileChannel.open(compactedPath, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    boolean moved = false;
+    try {
+      for (RateHistoryEntry entry : head) {
+        ByteBuffer record = encode(entry);
+        while (record.hasRemaining()) {
+          compactedChannel.write(record);
+        }
+      }
+      channelLock.writeLock().lock();
+      try {
+        synchronized (this) {
+          long position = end;
+          while (position < size) {
+            position += fileChannel.transferTo(position, size - position, compactedChannel);
+          }
+          compactedChannel.force(true);
+          Files.move(compactedPath, journalPath, StandardCopyOption.ATOMIC_MOVE,
+              StandardCopyOption.REPLACE_EXISTING);
+          moved = true;
+          long compactedSize = compactedChannel.size();
+          log.info("Rate history journal {} compacted from {} to {} bytes", journalPath, size,
+              compactedSize);
+          fileChannel.close();
+          fileChannel = compactedChannel;
+          size = compactedSize;
+          fileChannel.position(size);
+          forceDirectory(journalPath);
+        }
+      } finally {
+        channelLock.writeLock().unlock();
+      }
+    } finally {
+      if (!moved) {
+        compactedChannel.close();
+        Files.deleteIfExists(compactedPath);
+      }
+    }
+  }
+
+  /**
+   * Forces the directory entry of a renamed file to the storage device, otherwise a crash may
+   * lose the rename
+   */
+  private static void forceDirectory(Path path) throws IOException {
+    try (FileChannel directoryChannel = FileChannel.open(path.toAbsolutePath().getParent(),
+        StandardOpenOption.READ)) {
+      directoryChannel.force(true);
+    }
+  }
+
+  /**
+   * Exports the journal in the EUR, USD, CHF and GBP ExchangeRateDetails XML format
+   */
+  public ExchangeRateDetails exportExchangeRateDetails() throws IOException {
+    ExchangeRateDetailsProjection projection = new ExchangeRateDetailsProjection();
+    forEach(entry -> {
+      Date date = new Date(entry.getTimestamp());
+      entry.getRates().forEach((currency, rate) -> projection.add(currency, date, rate));
+    });
+    return projection.getExchangeRateDetails();
+  }
+
+  /**
+   * Reads complete records from the start of a record up to the given end
+   *
+   * @return end of the last complete record
+   */
+  private long scan(long start, long end, Consumer<RateHistoryEntry> consumer)
+      throws IOException {
+    ByteBuffer lengthBuffer = ByteBuffer.allocate(LENGTH_BYTES);
+    long position = start;
+    while (position + LENGTH_BYTES + CHECKSUM_BYTES <= end) {
+      lengthBuffer.clear();
+      readFully(lengthBuffer, position);
+      int payloadLength = lengthBuffer.getInt(0);
+      long recordEnd = position + LENGTH_BYTES + payloadLength + CHECKSUM_BYTES;
+      if (payloadLength < PAYLOAD_HEADER_BYTES || payloadLength > MAX_PAYLOAD_BYTES
+          || recordEnd > end) {
+        break;
+      }
+      ByteBuffer recordBuffer = ByteBuffer.allocate(payloadLength + CHECKSUM_BYTES);
+      readFully(recordBuffer, position + LENGTH_BYTES);
+      recordBuffer.flip();
+      CRC32 checksum = new CRC32();
+      checksum.update(recordBuffer.array(), 0, payloadLength);
+      if ((int) checksum.getValue() != recordBuffer.getInt(payloadLength)) {
+        break;
+      }
+      RateHistoryEntry entry;
+      try {
+        entry = decode(recordBuffer, payloadLength);
+      } catch (BufferUnderflowException exception) {
+        break;
+      }
+      consumer.accept(entry);
+      position = recordEnd;
+    }
+    return position;
+  }
+
+  private void readFully(ByteBuffer buffer, long position) throws IOException {
+    long readPosition = position;
+    while (buffer.hasRemaining()) {
+      int read = fileChannel.read(buffer, readPosition);
+      if (read < 0) {
+        throw new EOFException("Unexpected end of the rate history journal " + journalPath);
+      }
+      readPosition += read;
+    }
+  }
+
+  private static ByteBuffer encode(RateHistoryEntry entry) {
+    int payloadLength = PAYLOAD_HEADER_BYTES + entry.getRates().size() * RATE_BYTES;
+    ByteBuffer record = ByteBuffer.allocate(LENGTH_BYTES + payloadLength + CHECKSUM_BYTES);
+    record.putInt(payloadLength)
+        .putLong(entry.getTimestamp())
+        .putShort((short) entry.getRates().size());
+    entry.getRates().forEach((currency, rate) -> record.put(getCurrencyCode(currency))
+        .putDouble(rate));
+    CRC32 checksum = new CRC32();
+    checksum.update(record.array(), LENGTH_BYTES, payloadLength);
+    record.putInt((int) checksum.getValue());
+    record.flip();
+    return record;
+  }
+
+  private static RateHistoryEntry decode(ByteBuffer payload, int payloadLength) {
+    long timestamp = payload.getLong();
+    int rateCount = payload.getShort();
+    if (payloadLength != PAYLOAD_HEADER_BYTES + rateCount * RATE_BYTES) {
+      throw new BufferUnderflowException();
+    }
+    Map<String, Double> rates = new LinkedHashMap<>();
+    byte[] currencyCode = new byte[CURRENCY_CODE_BYTES];
+    for (int rate = 0; rate < rateCount; rate++) {
+      payload.get(currencyCode);
+      rates.put(new String(currencyCode, StandardCharsets.US_ASCII), payload.getDouble());
+    }
+    return new RateHistoryEntry(timestamp, rates);
+  }
+
+  private static byte[] getCurrencyCode(String currency) {
+    byte[] currencyCode = currency.toUpperCase().getBytes(StandardCharsets.US_ASCII);
+    if (currencyCode.length != CURRENCY_CODE_BYTES) {
+      throw new IllegalArgumentException("Not an ISO 4217 currency code " + currency);
+    }
+    return currencyCode;
+  }
+
+}
@@ -0,0 +1,51 @@
+package com.benz.mercedes.fxrate.persistence;
+
+import com.benz.mercedes.fxrate.domain.CurrencyTable;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+/**
+ * Store of record of the rate history, selected by fxrate.history.repository - binary (journal
+ * and memory-mapped time-series, default), xml (ExchangeRateDetails file) or h2 (embedded
+ * database).
+ * <p>
+ * The returned publishers do the blocking I/O on the subscribing thread, callers subscribe on
+ * the fxrate-io scheduler. Failures are signalled as {@link java.io.IOException}.
+ */
+public interface RateHistoryRepository {
+
+  /**
+   * Appends the rate changes of one scheduler run, durable once the returned Mono completes
+   */
+  Mono<Void> append(RateHistoryEntry entry);
+
+  /**
+   * Points of the currency with from &lt;= timestamp &lt;= to, both in epoch millis, in time order
+   *
+   * @return empty slice for a currency without history
+   */
+  Mono<RateSeriesSlice> findByCurrency(String currency, long from, long to);
+
+  /**
+   * ISO codes of the currencies with history, in alphabetical order
+   */
+  Set<String> getCurrencies();
+
+  /**
+   * Latest known rate of every currency
+   *
+   * @return rates indexed by {@link CurrencyTable} ordinal, NaN for a currency without history
+   */
+  double[] getLatestRates();
+
+  /**
+   * Timestamp of the last rate change, read by the HTTP validators without I/O
+   *
+   * @return epoch millis, 0 for an empty history
+   */
+  long getLastTimestamp();
+
+  boolean isEmpty();
+
+}
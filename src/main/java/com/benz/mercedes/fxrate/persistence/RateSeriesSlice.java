@@ -0,0 +1,84 @@
+package com.benz.mercedes.fxrate.persistence;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Zero-copy view of consecutive points of a currency time-series. Timestamps and rates are read
+ * straight from the memory-mapped file on access.
+ */
+public final class RateSeriesSlice {
+
+  static final RateSeriesSlice EMPTY = new RateSeriesSlice(ByteBuffer.allocate(0), 0, 0);
+
+  private final ByteBuffer buffer;
+
+  private final int offset;
+
+  private final int size;
+
+  RateSeriesSlice(ByteBuffer buffer, int offset, int size) {
+    this.buffer = buffer;
+    this.offset = offset;
+    this.size = size;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Epoch millis of the point at the given index
+   */
+  public long getTimestamp(int index) {
+    return buffer.getLong(getByteOffset(index));
+  }
+
+  public double getRate(int index) {
+    return buffer.getDouble(getByteOffset(index) + Long.BYTES);
+  }
+
+  /**
+   * View of count points starting at fromIndex, sharing the mapped buffer
+   */
+  public RateSeriesSlice subSlice(int fromIndex, int count) {
+    if (fromIndex < 0 || count < 0 || fromIndex + count > size) {
+      throw new IndexOutOfBoundsException(
+          "Sub slice " + fromIndex + "+" + count + " out of slice size " + size);
+    }
+    return count == size ? this : new RateSeriesSlice(buffer, offset + fromIndex, count);
+  }
+
+  private int getByteOffset(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of slice size " + size);
+    }
+    return (offset + index) * RateTimeSeries.RECORD_BYTES;
+  }
+
+  /**
+   * Collects points in time order into a heap buffer, for the repositories which do not keep the
+   * time-series records on disk
+   */
+  static final class Builder {
+
+    private ByteBuffer buffer = ByteBuffer.allocate(64 * RateTimeSeries.RECORD_BYTES);
+
+    private int size;
+
+    Builder add(long timestamp, double rate) {
+      if (!buffer.hasRemaining()) {
+        ByteBuffer grownBuffer = ByteBuffer.allocate(buffer.capacity() * 2);
+        grownBuffer.put(buffer.flip());
+        buffer = grownBuffer;
+      }
+      buffer.putLong(timestamp).putDouble(rate);
+      size++;
+      return this;
+    }
+
+    RateSeriesSlice build() {
+      return size == 0 ? EMPTY : new RateSeriesSlice(buffer, 0, size);
+    }
+  }
+
+}
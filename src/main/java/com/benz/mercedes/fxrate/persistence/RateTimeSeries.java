@@ -0,0 +1,134 @@
+package com.benz.mercedes.fxrate.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Time-series file of one currency - fixed width records of epoch millis and rate, in ascending
+ * time order. Appends go through the FileChannel, reads through a read-only memory mapping which
+ * is extended when the file has grown.
+ */
+final class RateTimeSeries implements Closeable {
+
+  static final int RECORD_BYTES = Long.BYTES + Double.BYTES;
+
+  private static final ByteBuffer EMPTY_MAPPING = ByteBuffer.allocate(0);
+
+  private final FileChannel fileChannel;
+
+  private long recordCount;
+
+  private long lastTimestamp = Long.MIN_VALUE;
+
+  private ByteBuffer mapping = EMPTY_MAPPING;
+
+  RateTimeSeries(Path path) throws IOException {
+    this.fileChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    this.recordCount = fileChannel.size() / RECORD_BYTES;
+    // drop a torn trailing record
+    fileChannel.truncate(recordCount * RECORD_BYTES);
+    fileChannel.position(recordCount * RECORD_BYTES);
+    if (recordCount > 0) {
+      ByteBuffer timestamp = ByteBuffer.allocate(Long.BYTES);
+      fileChannel.read(timestamp, (recordCount - 1) * RECORD_BYTES);
+      lastTimestamp = timestamp.getLong(0);
+    }
+  }
+
+  /**
+   * Appends the point unless it is older than the last point of the series
+   *
+   * @return false if the point was out of order and skipped
+   */
+  synchronized boolean append(long timestamp, double rate) throws IOException {
+    if (timestamp < lastTimestamp) {
+      return false;
+    }
+    ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES).putLong(timestamp).putDouble(rate);
+    record.flip();
+    while (record.hasRemaining()) {
+      fileChannel.write(record);
+    }
+    recordCount++;
+    lastTimestamp = timestamp;
+    return true;
+  }
+
+  /**
+   * Epoch millis of the last point, Long.MIN_VALUE for an empty series
+   */
+  synchronized long getLastTimestamp() {
+    return lastTimestamp;
+  }
+
+  synchronized void force() throws IOException {
+    fileChannel.force(false);
+  }
+
+  synchronized void truncate() throws IOException {
+    mapping = EMPTY_MAPPING;
+    fileChannel.truncate(0);
+    fileChannel.position(0);
+    recordCount = 0;
+    lastTimestamp = Long.MIN_VALUE;
+  }
+
+  /**
+   * Points with from &lt;= timestamp &lt;= to, located by binary search
+   */
+  RateSeriesSlice slice(long from, long to) throws IOException {
+    ByteBuffer buffer = getMapping();
+    int count = buffer.capacity() / RECORD_BYTES;
+    int first = search(buffer, count, from, false);
+    int end = search(buffer, count, to, true);
+    return end > first ? new RateSeriesSlice(buffer, first, end - first) : RateSeriesSlice.EMPTY;
+  }
+
+  /**
+   * Closes the file of a replaced series, its points stay readable through the mapping for the
+   * queries which picked the series before it was replaced
+   */
+  synchronized void retire() throws IOException {
+    getMapping();
+    fileChannel.close();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    mapping = EMPTY_MAPPING;
+    fileChannel.close();
+  }
+
+  private synchronized ByteBuffer getMapping() throws IOException {
+    long mappedBytes = recordCount * RECORD_BYTES;
+    if (mapping.capacity() != mappedBytes) {
+      mapping = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, mappedBytes);
+    }
+    return mapping;
+  }
+
+  /**
+   * Index of the first point whose timestamp is greater than or equal to the given timestamp, or
+   * strictly greater if inclusive is set
+   */
+  private static int search(ByteBuffer buffer, int count, long timestamp, boolean inclusive) {
+    int low = 0;
+    int high = count;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      long middleTimestamp = buffer.getLong(middle * RECORD_BYTES);
+      if (middleTimestamp < timestamp || (inclusive && middleTimestamp == timestamp)) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+}
@@ -0,0 +1,226 @@
+package com.benz.mercedes.fxrate.persistence;
+
+import com.benz.mercedes.fxrate.config.FxRateProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+/**
+ * Per currency time-series index of the rate history journal. Each currency has its own file of
+ * fixed width (epoch millis, rate) records, so a time range query is a binary search over a
+ * memory-mapped file and never deserializes the whole history.
+ * <p>
+ * The index is derived data and rebuilt from the journal on start up, which also repairs any
+ * point lost by a crash between the journal and the index append, and after a compaction of the
+ * journal.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "fxrate.history", name = "repository", havingValue = "binary",
+    matchIfMissing = true)
+public class RateTimeSeriesStore {
+
+  private static final String FILE_SUFFIX = ".ts";
+
+  private static final String REBUILD_DIRECTORY = "rebuild";
+
+  private static final Pattern CURRENCY_CODE = Pattern.compile("[A-Z]{3}");
+
+  private final Path directory;
+
+  private final RateHistoryJournal rateHistoryJournal;
+
+  private final ConcurrentMap<String, RateTimeSeries> timeSeries = new ConcurrentHashMap<>();
+
+  // one rebuild at a time, appends are excluded by the store monitor
+  private final Object rebuildLock = new Object();
+
+  @Autowired
+  public RateTimeSeriesStore(FxRateProperties fxRateProperties,
+      RateHistoryJournal rateHistoryJournal) {
+    this(Paths.get(fxRateProperties.getHistory().getTimeSeriesDirectory()), rateHistoryJournal);
+  }
+
+  public RateTimeSeriesStore(Path directory, RateHistoryJournal rateHistoryJournal) {
+    this.directory = directory;
+    this.rateHistoryJournal = rateHistoryJournal;
+  }
+
+  @PostConstruct
+  public void open() throws IOException {
+    Files.createDirectories(directory);
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+      for (Path file : files) {
+        String fileName = file.getFileName().toString();
+        String currency = fileName.substring(0, fileName.length() - FILE_SUFFIX.length());
+        if (CURRENCY_CODE.matcher(currency).matches()) {
+          timeSeries.put(currency, new RateTimeSeries(file));
+        }
+      }
+    }
+    rebuild();
+  }
+
+  @PreDestroy
+  public void close() throws IOException {
+    for (RateTimeSeries series : timeSeries.values()) {
+      series.close();
+    }
+  }
+
+  /**
+   * Rebuilds every time-series from the rate history journal. The new series are written next to
+   * the current ones while appends and queries go on. Appends wait only while the points appended
+   * meanwhile are caught up and the new series replace the current ones.
+   */
+  public void rebuild() throws IOException {
+    synchronized (rebuildLock) {
+      rebuild(directory.resolve(REBUILD_DIRECTORY));
+    }
+    log.info("Rate time-series rebuilt for currencies {}", getCurrencies());
+  }
+
+  private void rebuild(Path rebuildDirectory) throws IOException {
+    Files.createDirectories(rebuildDirectory);
+    // left over by a rebuild which did not complete
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(rebuildDirectory)) {
+      for (Path file : files) {
+        Files.delete(file);
+      }
+    }
+    Map<String, RateTimeSeries> rebuiltSeries = new HashMap<>();
+    try {
+      // a currency without points left in the journal is replaced by an empty series
+      for (String currency : timeSeries.keySet()) {
+        getOrCreate(rebuiltSeries, rebuildDirectory, currency);
+      }
+      long end = appendPoints(rebuiltSeries, rebuildDirectory, 0);
+      synchronized (this) {
+        appendPoints(rebuiltSeries, rebuildDirectory, end);
+        Iterator<Map.Entry<String, RateTimeSeries>> iterator = rebuiltSeries.entrySet()
+            .iterator();
+        while (iterator.hasNext()) {
+          Map.Entry<String, RateTimeSeries> rebuilt = iterator.next();
+          rebuilt.getValue().force();
+          String fileName = rebuilt.getKey() + FILE_SUFFIX;
+          // the open series follows its file
+          Files.move(rebuildDirectory.resolve(fileName), directory.resolve(fileName),
+              StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+          RateTimeSeries replaced = timeSeries.put(rebuilt.getKey(), rebuilt.getValue());
+          iterator.remove();
+          if (replaced != null) {
+            replaced.retire();
+          }
+        }
+      }
+    } finally {
+      for (RateTimeSeries series : rebuiltSeries.values()) {
+        series.close();
+      }
+    }
+  }
+
+  /**
+   * Appends every rate of the entry to the time-series of its currency
+   */
+  public synchronized void append(RateHistoryEntry entry) throws IOException {
+    for (String currency : appendPoints(timeSeries, directory, entry)) {
+      timeSeries.get(currency).force();
+    }
+  }
+
+  /**
+   * Points of the currency with from &lt;= timestamp &lt;= to, both in epoch millis
+   *
+   * @return empty slice for a currency without history
+   */
+  public RateSeriesSlice query(String currency, long from, long to) throws IOException {
+    RateTimeSeries series = currency == null ? null : timeSeries.get(currency.toUpperCase());
+    return series == null ? RateSeriesSlice.EMPTY : series.slice(from, to);
+  }
+
+  public Set<String> getCurrencies() {
+    return Collections.unmodifiableSet(new TreeSet<>(timeSeries.keySet()));
+  }
+
+  /**
+   * Appends the points of the journal entries from the given end of an earlier scan
+   *
+   * @return end of the scanned journal records
+   */
+  private long appendPoints(Map<String, RateTimeSeries> series, Path seriesDirectory, long from)
+      throws IOException {
+    try {
+      return rateHistoryJournal.forEach(from, entry -> {
+        try {
+          appendPoints(series, seriesDirectory, entry);
+        } catch (IOException exception) {
+          throw new UncheckedIOException(exception);
+        }
+      });
+    } catch (UncheckedIOException exception) {
+      throw exception.getCause();
+    }
+  }
+
+  private static Set<String> appendPoints(Map<String, RateTimeSeries> series,
+      Path seriesDirectory, RateHistoryEntry entry) throws IOException {
+    Set<String> currencies = new HashSet<>();
+    for (Map.Entry<String, Double> rate : entry.getRates().entrySet()) {
+      String currency = rate.getKey().toUpperCase();
+      if (!CURRENCY_CODE.matcher(currency).matches()) {
+        log.warn("Skipping time-series point of invalid currency code {}", currency);
+        continue;
+      }
+      RateTimeSeries currencySeries = getOrCreate(series, seriesDirectory, currency);
+      if (entry.getTimestamp() == currencySeries.getLastTimestamp()) {
+        // already indexed by a rebuild which caught up with the journal
+        continue;
+      }
+      if (currencySeries.append(entry.getTimestamp(), rate.getValue())) {
+        currencies.add(currency);
+      } else {
+        log.warn("Skipping out of order {} time-series point at {}", currency,
+            entry.getTimestamp());
+      }
+    }
+    return currencies;
+  }
+
+  private static RateTimeSeries getOrCreate(Map<String, RateTimeSeries> series,
+      Path seriesDirectory, String currency) throws IOException {
+    RateTimeSeries currencySeries = series.get(currency);
+    if (currencySeries == null) {
+      synchronized (series) {
+        currencySeries = series.get(currency);
+        if (currencySeries == null) {
+          currencySeries = new RateTimeSeries(seriesDirectory.resolve(currency + FILE_SUFFIX));
+          series.put(currency, currencySeries);
+        }
+      }
+    }
+    return currencySeries;
+  }
+
+}
@@ -0,0 +1,207 @@
+package com.benz.mercedes.fxrate.persistence;
+
+import com.benz.mercedes.fxrate.config.FxRateProperties;
+import com.benz.mercedes.fxrate.domain.jaxb.CurrencyChangeDetails;
+import com.benz.mercedes.fxrate.domain.jaxb.ExchangeRateDetails;
+import com.benz.mercedes.fxrate.domain.jaxb.ExchangeRateDetailsProjection;
+import com.benz.mercedes.fxrate.xml.ExchangeRateXmlMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import javax.xml.bind.JAXBException;
+
+/**
+ * Rate history in the ExchangeRateDetails XML file written by earlier versions. The history is
+ * held in memory and every append rewrites the whole file next to the current one and moves it
+ * over it, so appends cost O(history). Only the EUR, USD, CHF and GBP changes fit the format,
+ * the latest rates of other currencies are kept until the next start.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "fxrate.history", name = "repository", havingValue = "xml")
+public class XmlRateHistoryRepository implements RateHistoryRepository {
+
+  private static final Comparator<CurrencyChangeDetails> DATE_ORDER = Comparator.comparing(
+      CurrencyChangeDetails::getDate);
+
+  private final Path xmlPath;
+
+  private final ExchangeRateXmlMapper exchangeRateXmlMapper;
+
+  private final LatestRates latestRates = new LatestRates();
+
+  private ExchangeRateDetails exchangeRateDetails =
+      new ExchangeRateDetailsProjection().getExchangeRateDetails();
+
+  @Autowired
+  public XmlRateHistoryRepository(FxRateProperties fxRateProperties,
+      ExchangeRateXmlMapper exchangeRateXmlMapper) {
+    this(Paths.get(fxRateProperties.getHistory().getXmlPath()), exchangeRateXmlMapper);
+  }
+
+  public XmlRateHistoryRepository(Path xmlPath, ExchangeRateXmlMapper exchangeRateXmlMapper) {
+    this.xmlPath = xmlPath;
+    this.exchangeRateXmlMapper = exchangeRateXmlMapper;
+  }
+
+  /**
+   * Reads the XML file, dropping changes without date or value and sorting the changes of every
+   * currency by date
+   */
+  @PostConstruct
+  public synchronized void open() throws IOException {
+    if (!Files.exists(xmlPath)) {
+      return;
+    }
+    ExchangeRateDetails fileDetails;
+    try (Reader reader = Files.newBufferedReader(xmlPath)) {
+      fileDetails = exchangeRateXmlMapper.unmarshal(reader);
+    } catch (JAXBException exception) {
+      throw new IOException("Unreadable rate history " + xmlPath, exception);
+    }
+    ExchangeRateDetailsProjection projection = new ExchangeRateDetailsProjection();
+    for (String currency : ExchangeRateDetailsProjection.CURRENCIES) {
+      List<CurrencyChangeDetails> currencyChanges = Optional.ofNullable(
+              ExchangeRateDetailsProjection.getCurrencyChanges(fileDetails, currency))
+          .orElse(Collections.emptyList()).stream()
+          .filter(currencyChangeDetails -> currencyChangeDetails.getDate() != null
+              && currencyChangeDetails.getValue() != null)
+          .sorted(DATE_ORDER)
+          .collect(Collectors.toList());
+      for (CurrencyChangeDetails currencyChangeDetails : currencyChanges) {
+        projection.add(currency, currencyChangeDetails.getDate(),
+            currencyChangeDetails.getValue());
+        latestRates.update(new RateHistoryEntry(currencyChangeDetails.getDate().getTime(),
+            Map.of(currency, currencyChangeDetails.getValue())));
+      }
+    }
+    exchangeRateDetails = projection.getExchangeRateDetails();
+    log.info("Rate history {} opened with {} currencies", xmlPath, getCurrencies());
+  }
+
+  @Override
+  public Mono<Void> append(RateHistoryEntry entry) {
+    return Mono.fromCallable(() -> {
+      write(entry);
+      return entry;
+    }).then();
+  }
+
+  @Override
+  public Mono<RateSeriesSlice> findByCurrency(String currency, long from, long to) {
+    return Mono.fromCallable(() -> query(currency, from, to));
+  }
+
+  @Override
+  public synchronized Set<String> getCurrencies() {
+    Set<String> currencies = new TreeSet<>();
+    for (String currency : ExchangeRateDetailsProjection.CURRENCIES) {
+      if (!ExchangeRateDetailsProjection.getCurrencyChanges(exchangeRateDetails, currency)
+          .isEmpty()) {
+        currencies.add(currency);
+      }
+    }
+    return Collections.unmodifiableSet(currencies);
+  }
+
+  @Override
+  public double[] getLatestRates() {
+    return latestRates.getRates();
+  }
+
+  @Override
+  public long getLastTimestamp() {
+    return latestRates.getLastTimestamp();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return getCurrencies().isEmpty();
+  }
+
+  private synchronized void write(RateHistoryEntry entry) throws IOException {
+    Date date = new Date(entry.getTimestamp());
+    ExchangeRateDetailsProjection projection = new ExchangeRateDetailsProjection();
+    for (String currency : ExchangeRateDetailsProjection.CURRENCIES) {
+      ExchangeRateDetailsProjection.getCurrencyChanges(projection.getExchangeRateDetails(),
+          currency).addAll(
+          ExchangeRateDetailsProjection.getCurrencyChanges(exchangeRateDetails, currency));
+    }
+    entry.getRates().forEach((currency, rate) -> projection.add(currency.toUpperCase(), date,
+        rate));
+
+    Path writtenPath = xmlPath.resolveSibling(xmlPath.getFileName() + ".tmp");
+    try (FileChannel fileChannel = FileChannel.open(writtenPath, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      exchangeRateXmlMapper.marshal(projection.getExchangeRateDetails(),
+          Channels.newOutputStream(fileChannel));
+      fileChannel.force(true);
+    } catch (JAXBException exception) {
+      throw new IOException("Rate history " + xmlPath + " could not be written", exception);
+    }
+    Files.move(writtenPath, xmlPath, StandardCopyOption.ATOMIC_MOVE,
+        StandardCopyOption.REPLACE_EXISTING);
+    // the current details stay untouched until the file is replaced
+    exchangeRateDetails = projection.getExchangeRateDetails();
+    latestRates.update(entry);
+  }
+
+  private synchronized RateSeriesSlice query(String currency, long from, long to) {
+    List<CurrencyChangeDetails> currencyChanges = currency == null ? null
+        : ExchangeRateDetailsProjection.getCurrencyChanges(exchangeRateDetails,
+            currency.toUpperCase());
+    RateSeriesSlice.Builder builder = new RateSeriesSlice.Builder();
+    if (currencyChanges == null) {
+      return builder.build();
+    }
+    for (int index = search(currencyChanges, from); index < currencyChanges.size(); index++) {
+      CurrencyChangeDetails currencyChangeDetails = currencyChanges.get(index);
+      long timestamp = currencyChangeDetails.getDate().getTime();
+      if (timestamp > to) {
+        break;
+      }
+      builder.add(timestamp, currencyChangeDetails.getValue());
+    }
+    return builder.build();
+  }
+
+  /**
+   * Index of the first change at or after the given epoch millis
+   */
+  private static int search(List<CurrencyChangeDetails> currencyChanges, long from) {
+    int low = 0;
+    int high = currencyChanges.size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (currencyChanges.get(middle).getDate().getTime() < from) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+}
@@ -0,0 +1,118 @@
+package com.benz.mercedes.fxrate.report;
+
+import com.benz.mercedes.fxrate.domain.jaxb.ExchangeRateDetails;
+import com.benz.mercedes.fxrate.domain.jaxb.ExchangeRateDetailsProjection;
+import com.benz.mercedes.fxrate.persistence.RateHistoryEntry;
+import com.benz.mercedes.fxrate.persistence.RateHistoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Rolling 24-hour window of the rate changes, fed by the Currency Exchange Rate Scheduler. The
+ * daily report is built from the window in O(window) without reading the rate history.
+ */
+@Component
+public class DailyReportWindow {
+
+  private static final Duration WINDOW_LENGTH = Duration.ofHours(24);
+
+  private final Clock clock;
+
+  // rate changes in ascending time order
+  private final Deque<RateHistoryEntry> entries = new ArrayDeque<>();
+
+  // time of the last add or eviction, the daily report is unchanged since then
+  private long lastModified;
+
+  /**
+   * Creates the window seeded with the last 24 hours of the rate history
+   */
+  @Autowired
+  public DailyReportWindow(RateHistoryRepository rateHistoryRepository) {
+    this(Clock.systemUTC());
+    seed(rateHistoryRepository);
+  }
+
+  /**
+   * Creates an empty window on the given clock
+   */
+  public DailyReportWindow(Clock clock) {
+    this.clock = clock;
+  }
+
+  public synchronized void add(RateHistoryEntry entry) {
+    entries.addLast(entry);
+    lastModified = Math.max(lastModified, entry.getTimestamp());
+    evict();
+  }
+
+  /**
+   * Time of the last change of the daily report, either a rate change or a rate change leaving the
+   * window
+   *
+   * @return epoch millis, 0 if the window never held a rate change
+   */
+  public synchronized long getLastModified() {
+    evict();
+    return lastModified;
+  }
+
+  /**
+   * Rate changes of the last 24 hours in terms of base currency: EUR
+   */
+  public synchronized ExchangeRateDetails getDailyReport() {
+    evict();
+    ExchangeRateDetailsProjection projection = new ExchangeRateDetailsProjection();
+    for (RateHistoryEntry entry : entries) {
+      Date date = new Date(entry.getTimestamp());
+      entry.getRates().forEach((currency, rate) -> projection.add(currency, date, rate));
+    }
+    return projection.getExchangeRateDetails();
+  }
+
+  /**
+   * Fills the window from the rate history, blocking on the repository. Only called on start up,
+   * before the first rate change is added.
+   */
+  synchronized void seed(RateHistoryRepository rateHistoryRepository) {
+    long windowStart = clock.millis() - WINDOW_LENGTH.toMillis();
+    SortedMap<Long, Map<String, Double>> ratesByTimestamp = new TreeMap<>();
+    Flux.fromIterable(rateHistoryRepository.getCurrencies())
+        .concatMap(currency -> rateHistoryRepository
+            .findByCurrency(currency, windowStart, Long.MAX_VALUE)
+            .doOnNext(rateSeriesSlice -> {
+              for (int index = 0; index < rateSeriesSlice.size(); index++) {
+                ratesByTimestamp.computeIfAbsent(rateSeriesSlice.getTimestamp(index),
+                    timestamp -> new LinkedHashMap<>())
+                    .put(currency, rateSeriesSlice.getRate(index));
+              }
+            }))
+        .then()
+        .block();
+    entries.clear();
+    ratesByTimestamp.forEach(
+        (timestamp, rates) -> entries.addLast(new RateHistoryEntry(timestamp, rates)));
+    lastModified = ratesByTimestamp.isEmpty() ? 0 : ratesByTimestamp.lastKey();
+  }
+
+  private void evict() {
+    long windowStart = clock.millis() - WINDOW_LENGTH.toMillis();
+    while (!entries.isEmpty() && entries.peekFirst().getTimestamp() < windowStart) {
+      // the report changed when the entry left the window, not when it is evicted
+      lastModified = Math.max(lastModified,
+          entries.pollFirst().getTimestamp() + WINDOW_LENGTH.toMillis());
+    }
+  }
+
+}
@@ -0,0 +1,23 @@
+package com.benz.mercedes.fxrate.report;
+
+import lombok.Value;
+
+/**
+ * Report payload encoded once and served to every request of the same version
+ */
+@Value
+public class EncodedReport {
+
+  /**
+   * Last change of the rates the payload was encoded from, in epoch millis
+   */
+  long version;
+
+  byte[] payload;
+
+  /**
+   * Gzip compressed payload, null if compression is disabled
+   */
+  byte[] gzipPayload;
+
+}
@@ -0,0 +1,88 @@
+package com.benz.mercedes.fxrate.report;
+
+import com.benz.mercedes.fxrate.config.FxRateProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoded JSON and XML report payloads, optionally gzip compressed, shared by all requests between
+ * two rate changes. A payload is served only for the version it was encoded from. Every write to
+ * the rate history or the daily report invalidates the cache; a payload encoded from rates read
+ * before the invalidation is discarded instead of stored.
+ */
+@Slf4j
+@Component
+public class EncodedReportCache {
+
+  private final boolean gzip;
+
+  private final ConcurrentMap<String, EncodedReport> encodedReports = new ConcurrentHashMap<>();
+
+  // incremented by every invalidation, guarded by this
+  private long generation;
+
+  @Autowired
+  public EncodedReportCache(FxRateProperties fxRateProperties) {
+    this(fxRateProperties.getResponseCache().isGzip());
+  }
+
+  EncodedReportCache(boolean gzip) {
+    this.gzip = gzip;
+  }
+
+  /**
+   * @return null if no payload of the given version is cached
+   */
+  public EncodedReport get(String key, long version) {
+    EncodedReport encodedReport = encodedReports.get(key);
+    return encodedReport != null && encodedReport.getVersion() == version ? encodedReport : null;
+  }
+
+  /**
+   * Generation to pass to {@link #put}, read before the rates of the payload are read
+   */
+  public synchronized long getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Caches the payload unless the cache was invalidated since the given generation
+   *
+   * @return the encoded report, also if it was not cached
+   */
+  public EncodedReport put(String key, long version, long generation, byte[] payload) {
+    EncodedReport encodedReport = new EncodedReport(version, payload,
+        gzip ? gzip(payload) : null);
+    synchronized (this) {
+      if (generation == this.generation) {
+        encodedReports.put(key, encodedReport);
+      }
+    }
+    return encodedReport;
+  }
+
+  public synchronized void invalidate() {
+    generation++;
+    encodedReports.clear();
+    log.debug("Encoded report cache invalidated");
+  }
+
+  private static byte[] gzip(byte[] payload) {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream(payload.length / 4 + 64);
+    try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+      gzipOutputStream.write(payload);
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+    return outputStream.toByteArray();
+  }
+
+}
@@ -0,0 +1,472 @@
+package com.benz.mercedes.fxrate.report;
+
+import com.benz.mercedes.fxrate.domain.jaxb.CurrencyChangeDetails;
+import com.benz.mercedes.fxrate.domain.jaxb.ExchangeRateDetails;
+import com.benz.mercedes.fxrate.domain.jaxb.ExchangeRateDetailsProjection;
+import com.benz.mercedes.fxrate.persistence.RateHistoryRepository;
+import com.benz.mercedes.fxrate.persistence.RateSeriesSlice;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Streams the rate history in the ExchangeRateDetails JSON, XML, CBOR or Smile shape from the
+ * range queries of the rate history repository, straight from the memory-mapped time-series with
+ * the binary repository. The report is produced in chunks of a bounded number of points, so the
+ * encoding buffers stay small regardless of the history size and the first bytes are sent before
+ * the history is read to the end. Time range, currencies and page bounds are located by the range
+ * queries, points outside of them are never read.
+ */
+@Component
+public class ExchangeRateReportWriter {
+
+  // ExchangeRateDetails currency list of each report currency
+  private static final Map<String, String> ELEMENT_NAMES = Map.of("EUR", "euroCurrencyChanges",
+      "USD", "usdCurrencyChanges", "CHF", "chfCurrencyChanges", "GBP", "gbpCurrencyChanges");
+
+  private static final int POINTS_PER_BUFFER = 256;
+
+  // the java.util.Date formats of Jackson and JAXB, at UTC
+  private static final DateTimeFormatter JSON_DATE_FORMAT = DateTimeFormatter
+      .ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSxxx").withZone(ZoneOffset.UTC);
+
+  private static final DateTimeFormatter XML_DATE_FORMAT = DateTimeFormatter
+      .ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSXXX").withZone(ZoneOffset.UTC);
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private static final JsonFactory CBOR_FACTORY = new CBORFactory();
+
+  private static final JsonFactory SMILE_FACTORY = new SmileFactory();
+
+  private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+
+  private final RateHistoryRepository rateHistoryRepository;
+
+  public ExchangeRateReportWriter(RateHistoryRepository rateHistoryRepository) {
+    this.rateHistoryRepository = rateHistoryRepository;
+  }
+
+  /**
+   * Streams the full rate history. Points appended while streaming are not included.
+   */
+  public Flux<DataBuffer> write(ReportFormat reportFormat) {
+    return plan(ReportQuery.all())
+        .flatMapMany(reportPage -> write(reportPage, reportFormat));
+  }
+
+  /**
+   * Locates the points of the requested page in the rate history. The currencies after the page
+   * are not read once the points read so far are sure to fill it.
+   *
+   * @return error IllegalArgumentException for a currency outside the report or a cursor which
+   *     does not match the requested currencies
+   */
+  public Mono<ReportPage> plan(ReportQuery reportQuery) {
+    return Mono.defer(() -> {
+      List<String> currencies = getReportCurrencies(reportQuery.getCurrencies());
+      long from = reportQuery.getFrom() == null ? Long.MIN_VALUE : reportQuery.getFrom();
+      long to = reportQuery.getTo() == null ? Long.MAX_VALUE : reportQuery.getTo();
+      int limit = reportQuery.getLimit() == null ? Integer.MAX_VALUE : reportQuery.getLimit();
+      if (limit < 1) {
+        throw new IllegalArgumentException("Report limit must be positive");
+      }
+      ReportCursor cursor = reportQuery.getCursor();
+      int firstCurrency = cursor == null ? 0 : currencies.indexOf(cursor.getCurrency());
+      if (firstCurrency < 0) {
+        throw new IllegalArgumentException("Report cursor does not match the currencies");
+      }
+
+      List<String> pageCurrencies = currencies.subList(firstCurrency, currencies.size());
+      // at most the points at the cursor timestamp are skipped, more points fill the page
+      long enough = (long) limit + (cursor == null ? 0 : cursor.getPointsAtTimestamp());
+      long[] points = new long[1];
+      return Flux.fromIterable(pageCurrencies)
+          .concatMap(currency -> rateHistoryRepository.findByCurrency(currency,
+              cursor != null && currency.equals(cursor.getCurrency())
+                  ? Math.max(from, cursor.getTimestamp()) : from, to))
+          .takeUntil(rateSeriesSlice -> (points[0] += rateSeriesSlice.size()) > enough)
+          .collectList()
+          .map(rateSeriesSlices -> plan(pageCurrencies, rateSeriesSlices, cursor, limit));
+    });
+  }
+
+  /**
+   * Takes up to limit points from the slices of the page currencies, in currency order
+   */
+  private static ReportPage plan(List<String> currencies, List<RateSeriesSlice> rateSeriesSlices,
+      ReportCursor cursor, int limit) {
+    int remaining = limit;
+    List<ReportPage.Series> series = new ArrayList<>();
+    for (int index = 0; index < rateSeriesSlices.size(); index++) {
+      String currency = currencies.get(index);
+      RateSeriesSlice rateSeriesSlice = rateSeriesSlices.get(index);
+      boolean continued = cursor != null && index == 0;
+      int first = 0;
+      // points at the cursor timestamp which were returned with the previous page
+      while (continued && first < cursor.getPointsAtTimestamp() && first < rateSeriesSlice.size()
+          && rateSeriesSlice.getTimestamp(first) == cursor.getTimestamp()) {
+        first++;
+      }
+      int available = rateSeriesSlice.size() - first;
+      int count = Math.min(available, remaining);
+      series.add(new ReportPage.Series(currency, rateSeriesSlice.subSlice(first, count)));
+      remaining -= count;
+      if (remaining == 0) {
+        if (count < available
+            || hasPoints(rateSeriesSlices.subList(index + 1, rateSeriesSlices.size()))) {
+          return new ReportPage(series, getNextCursor(currency, rateSeriesSlice, first + count));
+        }
+        break;
+      }
+    }
+    return new ReportPage(series, null);
+  }
+
+  /**
+   * Streams the located points of the page
+   */
+  public Flux<DataBuffer> write(ReportPage reportPage, ReportFormat reportFormat) {
+    return Flux.generate(() -> new ReportState(reportPage, newReportEncoder(reportFormat)),
+        ReportState::next, ReportState::close);
+  }
+
+  /**
+   * Encodes a report held in memory, such as the daily report, as the streamed report does
+   */
+  public byte[] encode(ExchangeRateDetails exchangeRateDetails, ReportFormat reportFormat)
+      throws IOException, XMLStreamException {
+    ReportEncoder reportEncoder = newReportEncoder(reportFormat);
+    try {
+      reportEncoder.startReport();
+      for (String currency : ExchangeRateDetailsProjection.CURRENCIES) {
+        List<CurrencyChangeDetails> currencyChanges = ExchangeRateDetailsProjection
+            .getCurrencyChanges(exchangeRateDetails, currency);
+        reportEncoder.startSeries(ELEMENT_NAMES.get(currency));
+        if (currencyChanges != null) {
+          for (CurrencyChangeDetails currencyChange : currencyChanges) {
+            reportEncoder.writePoint(currencyChange.getDate().getTime(),
+                currencyChange.getValue());
+          }
+        }
+        reportEncoder.endSeries();
+      }
+      reportEncoder.endReport();
+      return reportEncoder.drain();
+    } finally {
+      reportEncoder.close();
+    }
+  }
+
+  private static List<String> getReportCurrencies(List<String> requestedCurrencies) {
+    if (requestedCurrencies == null || requestedCurrencies.isEmpty()) {
+      return ExchangeRateDetailsProjection.CURRENCIES;
+    }
+    Set<String> currencies = new HashSet<>();
+    for (String requestedCurrency : requestedCurrencies) {
+      String currency = requestedCurrency.toUpperCase();
+      if (!ELEMENT_NAMES.containsKey(currency)) {
+        throw new IllegalArgumentException(
+            "Currency " + requestedCurrency + " is not in the report");
+      }
+      currencies.add(currency);
+    }
+    // keep the ExchangeRateDetails order, so the cursor position is stable
+    return ExchangeRateDetailsProjection.CURRENCIES.stream().filter(currencies::contains)
+        .collect(Collectors.toList());
+  }
+
+  private static boolean hasPoints(List<RateSeriesSlice> rateSeriesSlices) {
+    for (RateSeriesSlice rateSeriesSlice : rateSeriesSlices) {
+      if (rateSeriesSlice.size() > 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static ReportCursor getNextCursor(String currency, RateSeriesSlice rateSeriesSlice,
+      int end) {
+    long timestamp = rateSeriesSlice.getTimestamp(end - 1);
+    int pointsAtTimestamp = 0;
+    for (int index = end - 1; index >= 0 && rateSeriesSlice.getTimestamp(index) == timestamp;
+        index--) {
+      pointsAtTimestamp++;
+    }
+    return new ReportCursor(currency, timestamp, pointsAtTimestamp);
+  }
+
+  private static ReportEncoder newReportEncoder(ReportFormat reportFormat) {
+    switch (reportFormat) {
+      case XML:
+        return new XmlReportEncoder();
+      case CBOR:
+        return new JsonReportEncoder(CBOR_FACTORY, true);
+      case SMILE:
+        return new JsonReportEncoder(SMILE_FACTORY, true);
+      default:
+        return new JsonReportEncoder(JSON_FACTORY, false);
+    }
+  }
+
+  private static final class ReportState {
+
+    private final List<ReportPage.Series> series;
+
+    private final ReportEncoder reportEncoder;
+
+    private int seriesIndex = -1;
+
+    private RateSeriesSlice rateSeriesSlice;
+
+    private int pointIndex;
+
+    private boolean completed;
+
+    private ReportState(ReportPage reportPage, ReportEncoder reportEncoder) {
+      this.series = reportPage.getSeries();
+      this.reportEncoder = reportEncoder;
+    }
+
+    private ReportState next(SynchronousSink<DataBuffer> sink) {
+      if (completed) {
+        sink.complete();
+        return this;
+      }
+      try {
+        int points = 0;
+        while (!completed && points < POINTS_PER_BUFFER) {
+          points += step();
+        }
+        sink.next(DefaultDataBufferFactory.sharedInstance.wrap(reportEncoder.drain()));
+      } catch (IOException | XMLStreamException exception) {
+        sink.error(exception);
+      }
+      return this;
+    }
+
+    /**
+     * Writes the next structural element or point
+     *
+     * @return number of points written
+     */
+    private int step() throws IOException, XMLStreamException {
+      if (seriesIndex < 0) {
+        reportEncoder.startReport();
+        seriesIndex = 0;
+        rateSeriesSlice = null;
+        return 0;
+      }
+      if (seriesIndex == series.size()) {
+        reportEncoder.endReport();
+        completed = true;
+        return 0;
+      }
+      if (rateSeriesSlice == null) {
+        ReportPage.Series currentSeries = series.get(seriesIndex);
+        rateSeriesSlice = currentSeries.getRateSeriesSlice();
+        pointIndex = 0;
+        reportEncoder.startSeries(ELEMENT_NAMES.get(currentSeries.getCurrency()));
+        return 0;
+      }
+      if (pointIndex < rateSeriesSlice.size()) {
+        reportEncoder.writePoint(rateSeriesSlice.getTimestamp(pointIndex),
+            rateSeriesSlice.getRate(pointIndex));
+        pointIndex++;
+        return 1;
+      }
+      reportEncoder.endSeries();
+      seriesIndex++;
+      rateSeriesSlice = null;
+      return 0;
+    }
+
+    private void close() {
+      reportEncoder.close();
+    }
+  }
+
+  private abstract static class ReportEncoder {
+
+    protected final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+    abstract void startReport() throws IOException, XMLStreamException;
+
+    abstract void startSeries(String elementName) throws IOException, XMLStreamException;
+
+    abstract void writePoint(long timestamp, double rate) throws IOException, XMLStreamException;
+
+    abstract void endSeries() throws IOException, XMLStreamException;
+
+    abstract void endReport() throws IOException, XMLStreamException;
+
+    abstract void flush() throws IOException, XMLStreamException;
+
+    abstract void close();
+
+    /**
+     * Bytes written since the last drain
+     */
+    byte[] drain() throws IOException, XMLStreamException {
+      flush();
+      byte[] bytes = outputStream.toByteArray();
+      outputStream.reset();
+      return bytes;
+    }
+  }
+
+  /**
+   * JSON and the binary Jackson formats, which write the date as epoch millis number
+   */
+  private static final class JsonReportEncoder extends ReportEncoder {
+
+    private final JsonGenerator jsonGenerator;
+
+    private final boolean epochMillisDates;
+
+    private JsonReportEncoder(JsonFactory jsonFactory, boolean epochMillisDates) {
+      this.epochMillisDates = epochMillisDates;
+      try {
+        jsonGenerator = jsonFactory.createGenerator(outputStream);
+      } catch (IOException exception) {
+        throw new IllegalStateException(exception);
+      }
+    }
+
+    @Override
+    void startReport() throws IOException {
+      jsonGenerator.writeStartObject();
+    }
+
+    @Override
+    void startSeries(String elementName) throws IOException {
+      jsonGenerator.writeArrayFieldStart(elementName);
+    }
+
+    @Override
+    void writePoint(long timestamp, double rate) throws IOException {
+      jsonGenerator.writeStartObject();
+      if (epochMillisDates) {
+        jsonGenerator.writeNumberField("date", timestamp);
+      } else {
+        jsonGenerator.writeStringField("date",
+            JSON_DATE_FORMAT.format(Instant.ofEpochMilli(timestamp)));
+      }
+      jsonGenerator.writeNumberField("value", rate);
+      jsonGenerator.writeEndObject();
+    }
+
+    @Override
+    void endSeries() throws IOException {
+      jsonGenerator.writeEndArray();
+    }
+
+    @Override
+    void endReport() throws IOException {
+      jsonGenerator.writeEndObject();
+    }
+
+    @Override
+    void flush() throws IOException {
+      jsonGenerator.flush();
+    }
+
+    @Override
+    void close() {
+      try {
+        jsonGenerator.close();
+      } catch (IOException exception) {
+        // nothing left to release
+      }
+    }
+  }
+
+  private static final class XmlReportEncoder extends ReportEncoder {
+
+    private final XMLStreamWriter xmlStreamWriter;
+
+    private String elementName;
+
+    private XmlReportEncoder() {
+      try {
+        xmlStreamWriter = XML_OUTPUT_FACTORY.createXMLStreamWriter(outputStream,
+            StandardCharsets.UTF_8.name());
+      } catch (XMLStreamException exception) {
+        throw new IllegalStateException(exception);
+      }
+    }
+
+    @Override
+    void startReport() throws XMLStreamException {
+      xmlStreamWriter.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+      xmlStreamWriter.writeStartElement("ExchangeRateDetails");
+    }
+
+    @Override
+    void startSeries(String elementName) {
+      // JAXB writes a list field as one element per item, without a wrapper element
+      this.elementName = elementName;
+    }
+
+    @Override
+    void writePoint(long timestamp, double rate) throws XMLStreamException {
+      xmlStreamWriter.writeStartElement(elementName);
+      xmlStreamWriter.writeStartElement("date");
+      xmlStreamWriter.writeCharacters(XML_DATE_FORMAT.format(Instant.ofEpochMilli(timestamp)));
+      xmlStreamWriter.writeEndElement();
+      xmlStreamWriter.writeStartElement("value");
+      xmlStreamWriter.writeCharacters(Double.toString(rate));
+      xmlStreamWriter.writeEndElement();
+      xmlStreamWriter.writeEndElement();
+    }
+
+    @Override
+    void endSeries() {
+      elementName = null;
+    }
+
+    @Override
+    void endReport() throws XMLStreamException {
+      xmlStreamWriter.writeEndElement();
+      xmlStreamWriter.writeEndDocument();
+    }
+
+    @Override
+    void flush() throws XMLStreamException {
+      xmlStreamWriter.flush();
+    }
+
+    @Override
+    void close() {
+      try {
+        xmlStreamWriter.close();
+      } catch (XMLStreamException exception) {
+        // nothing left to release
+      }
+    }
+  }
+
+}
@@ -0,0 +1,44 @@
+package com.benz.mercedes.fxrate.report;
+
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position after the last point of a report page - the currency, the timestamp of its last point
+ * and how many points with that timestamp were already returned. Clients pass it back as an opaque
+ * string.
+ */
+@Value
+public class ReportCursor {
+
+  String currency;
+
+  long timestamp;
+
+  int pointsAtTimestamp;
+
+  public String encode() {
+    String cursor = currency + ":" + timestamp + ":" + pointsAtTimestamp;
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(cursor.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  /**
+   * @throws IllegalArgumentException if the cursor was not created by {@link #encode()}
+   */
+  public static ReportCursor decode(String encodedCursor) {
+    String[] parts = new String(Base64.getUrlDecoder().decode(encodedCursor),
+        StandardCharsets.US_ASCII).split(":");
+    if (parts.length != 3) {
+      throw new IllegalArgumentException("Invalid report cursor " + encodedCursor);
+    }
+    int pointsAtTimestamp = Integer.parseInt(parts[2]);
+    if (pointsAtTimestamp < 1) {
+      throw new IllegalArgumentException("Invalid report cursor " + encodedCursor);
+    }
+    return new ReportCursor(parts[0], Long.parseLong(parts[1]), pointsAtTimestamp);
+  }
+
+}
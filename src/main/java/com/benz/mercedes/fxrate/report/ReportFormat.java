@@ -0,0 +1,49 @@
+package com.benz.mercedes.fxrate.report;
+
+import com.benz.mercedes.fxrate.config.BinaryCodecConfiguration;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Output formats of the streamed rate history report. CBOR and Smile carry the JSON shape with
+ * the dates as epoch millis.
+ */
+public enum ReportFormat {
+
+  JSON(MediaType.APPLICATION_JSON),
+
+  XML(MediaType.APPLICATION_XML),
+
+  CBOR(MediaType.APPLICATION_CBOR),
+
+  SMILE(BinaryCodecConfiguration.APPLICATION_SMILE);
+
+  private final MediaType mediaType;
+
+  ReportFormat(MediaType mediaType) {
+    this.mediaType = mediaType;
+  }
+
+  public MediaType getMediaType() {
+    return mediaType;
+  }
+
+  /**
+   * Format preferred by the Accept header, JSON if none of the formats is accepted explicitly
+   */
+  public static ReportFormat of(List<MediaType> acceptedMediaTypes) {
+    List<MediaType> mediaTypes = new ArrayList<>(acceptedMediaTypes);
+    MediaType.sortBySpecificityAndQuality(mediaTypes);
+    for (MediaType mediaType : mediaTypes) {
+      for (ReportFormat reportFormat : values()) {
+        if (mediaType.isCompatibleWith(reportFormat.mediaType)) {
+          return reportFormat;
+        }
+      }
+    }
+    return JSON;
+  }
+
+}
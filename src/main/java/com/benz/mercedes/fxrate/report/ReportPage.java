@@ -0,0 +1,38 @@
+package com.benz.mercedes.fxrate.report;
+
+import com.benz.mercedes.fxrate.persistence.RateSeriesSlice;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Points of one report page, located in the time-series but not read yet
+ */
+@Value
+public class ReportPage {
+
+  List<Series> series;
+
+  /**
+   * Cursor of the next page, null on the last page
+   */
+  ReportCursor nextCursor;
+
+  public int getPointCount() {
+    int pointCount = 0;
+    for (Series reportSeries : series) {
+      pointCount += reportSeries.getRateSeriesSlice().size();
+    }
+    return pointCount;
+  }
+
+  @Value
+  public static class Series {
+
+    String currency;
+
+    RateSeriesSlice rateSeriesSlice;
+
+  }
+
+}
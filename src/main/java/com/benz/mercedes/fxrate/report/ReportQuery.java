@@ -0,0 +1,44 @@
+package com.benz.mercedes.fxrate.report;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Selection of the rate history report. Null fields select everything.
+ */
+@Value
+@Builder
+public class ReportQuery {
+
+  /**
+   * Inclusive lower bound in epoch millis
+   */
+  Long from;
+
+  /**
+   * Inclusive upper bound in epoch millis
+   */
+  Long to;
+
+  /**
+   * ISO codes of the report currencies, EUR, USD, CHF and GBP if empty
+   */
+  List<String> currencies;
+
+  /**
+   * Continues after the end of the previous page
+   */
+  ReportCursor cursor;
+
+  /**
+   * Maximum number of points of the page
+   */
+  Integer limit;
+
+  public static ReportQuery all() {
+    return ReportQuery.builder().build();
+  }
+
+}
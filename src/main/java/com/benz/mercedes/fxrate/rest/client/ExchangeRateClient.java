@@ -1,11 +1,14 @@
 package com.benz.mercedes.fxrate.rest.client;
 
+import com.benz.mercedes.fxrate.config.FxRateProperties;
 import com.benz.mercedes.fxrate.domain.ExchangeRate;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 
-@FeignClient(name = ExchangeRateClient.SERVICE_NAME, url = "https://v6.exchangerate-api.com/v6/dfc4b4b26dafbfc23a1dfee4/")
+// without the property the Feign client falls back to the same default as the WebClient
+@FeignClient(name = ExchangeRateClient.SERVICE_NAME,
+    url = "${fxrate.upstream.base-url:" + FxRateProperties.Upstream.DEFAULT_BASE_URL + "}")
 public interface ExchangeRateClient {
 
   String SERVICE_NAME = "exchangeRateClient";
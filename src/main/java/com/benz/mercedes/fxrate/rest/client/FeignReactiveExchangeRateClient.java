@@ -0,0 +1,33 @@
+package com.benz.mercedes.fxrate.rest.client;
+
+import com.benz.mercedes.fxrate.domain.ExchangeRate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Adapts the blocking OpenFeign {@link ExchangeRateClient} to {@link ReactiveExchangeRateClient}
+ * by running each call on the bounded fxrate-io scheduler instead of the subscribing thread.
+ */
+@Component
+@ConditionalOnProperty(prefix = "fxrate.upstream", name = "client", havingValue = "feign")
+public class FeignReactiveExchangeRateClient implements ReactiveExchangeRateClient {
+
+  private final ExchangeRateClient exchangeRateClient;
+
+  private final Scheduler ioScheduler;
+
+  public FeignReactiveExchangeRateClient(ExchangeRateClient exchangeRateClient,
+      Scheduler ioScheduler) {
+    this.exchangeRateClient = exchangeRateClient;
+    this.ioScheduler = ioScheduler;
+  }
+
+  @Override
+  public Mono<ExchangeRate> getExchangeRateForEuroBaseCurrency() {
+    return Mono.fromCallable(exchangeRateClient::getExchangeRateForEuroBaseCurrency)
+        .subscribeOn(ioScheduler);
+  }
+
+}
@@ -0,0 +1,17 @@
+package com.benz.mercedes.fxrate.rest.client;
+
+import com.benz.mercedes.fxrate.domain.ExchangeRate;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking access to the exchangerate-api. Implementations never block the subscribing thread,
+ * so they are safe to call from the Reactor Netty event loop.
+ */
+public interface ReactiveExchangeRateClient {
+
+  /**
+   * Reads the rates of all currencies in terms of base currency: EUR
+   */
+  Mono<ExchangeRate> getExchangeRateForEuroBaseCurrency();
+
+}
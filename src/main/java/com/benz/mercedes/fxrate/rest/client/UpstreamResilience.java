@@ -0,0 +1,104 @@
+package com.benz.mercedes.fxrate.rest.client;
+
+import com.benz.mercedes.fxrate.config.FxRateProperties;
+import feign.FeignException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Guards the exchangerate-api calls of both upstream clients. Every attempt takes a permit of the
+ * concurrency bulkhead and passes the circuit breaker, failed attempts are retried with jittered
+ * exponential backoff. Only server side failures - 5xx, timeouts and I/O errors - are retried and
+ * count towards opening the circuit breaker, a rejected call fails at once.
+ */
+@Slf4j
+@Component
+public class UpstreamResilience {
+
+  private static final String NAME = "exchangerate-api";
+
+  private final CircuitBreaker circuitBreaker;
+
+  private final Bulkhead bulkhead;
+
+  private final Retry retry;
+
+  public UpstreamResilience(FxRateProperties fxRateProperties) {
+    FxRateProperties.Upstream upstream = fxRateProperties.getUpstream();
+
+    FxRateProperties.Upstream.CircuitBreaker circuitBreakerProperties =
+        upstream.getCircuitBreaker();
+    this.circuitBreaker = CircuitBreaker.of(NAME, CircuitBreakerConfig.custom()
+        .failureRateThreshold(circuitBreakerProperties.getFailureRateThreshold())
+        .slidingWindowSize(circuitBreakerProperties.getSlidingWindowSize())
+        .minimumNumberOfCalls(circuitBreakerProperties.getMinimumNumberOfCalls())
+        .waitDurationInOpenState(circuitBreakerProperties.getWaitDurationInOpenState())
+        .permittedNumberOfCallsInHalfOpenState(
+            circuitBreakerProperties.getPermittedNumberOfCallsInHalfOpenState())
+        .recordException(UpstreamResilience::isServerFailure)
+        .build());
+    circuitBreaker.getEventPublisher().onStateTransition(event ->
+        log.warn("exchangerate-api circuit breaker {}", event.getStateTransition()));
+
+    // a non-blocking caller must never wait for a permit
+    this.bulkhead = Bulkhead.of(NAME, BulkheadConfig.custom()
+        .maxConcurrentCalls(upstream.getBulkhead().getMaxConcurrentCalls())
+        .maxWaitDuration(Duration.ZERO)
+        .build());
+
+    FxRateProperties.Upstream.Retry retryProperties = upstream.getRetry();
+    this.retry = Retry.backoff(retryProperties.getMaxRetries(), retryProperties.getMinBackoff())
+        .maxBackoff(retryProperties.getMaxBackoff())
+        .jitter(retryProperties.getJitter())
+        .filter(UpstreamResilience::isServerFailure)
+        .doBeforeRetry(retrySignal -> log.warn("Retrying exchangerate-api call, attempt {} - {}",
+            retrySignal.totalRetries() + 1, retrySignal.failure().getMessage()))
+        .onRetryExhaustedThrow((retrySpec, retrySignal) -> retrySignal.failure());
+  }
+
+  /**
+   * Applies bulkhead, circuit breaker and retries to a cold upstream call, which is subscribed
+   * again for every attempt
+   */
+  public <T> Mono<T> protect(Mono<T> upstreamCall) {
+    return upstreamCall
+        .transformDeferred(BulkheadOperator.of(bulkhead))
+        .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+        .retryWhen(retry);
+  }
+
+  public CircuitBreaker.State getCircuitBreakerState() {
+    return circuitBreaker.getState();
+  }
+
+  /**
+   * Failures of the exchangerate-api itself or of the way to it, as opposed to a rejected request
+   */
+  static boolean isServerFailure(Throwable error) {
+    if (error instanceof FeignException) {
+      // -1 for a connect or read failure without response
+      int status = ((FeignException) error).status();
+      return status < 0 || status >= 500;
+    }
+    if (error instanceof WebClientResponseException) {
+      return ((WebClientResponseException) error).getRawStatusCode() >= 500;
+    }
+    return error instanceof WebClientRequestException || error instanceof TimeoutException
+        || error instanceof IOException;
+  }
+
+}
@@ -0,0 +1,62 @@
+package com.benz.mercedes.fxrate.rest.client;
+
+import com.benz.mercedes.fxrate.config.FxRateProperties;
+import com.benz.mercedes.fxrate.domain.ExchangeRate;
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * WebClient based exchangerate-api client running on a pooled Reactor Netty connection provider.
+ * The bounded pending acquire queue applies backpressure to callers once all pooled connections
+ * are busy.
+ */
+@Component
+@ConditionalOnProperty(prefix = "fxrate.upstream", name = "client", havingValue = "webclient",
+    matchIfMissing = true)
+public class WebClientExchangeRateClient implements ReactiveExchangeRateClient {
+
+  private static final String CONNECTION_POOL_NAME = "exchangerate-api";
+
+  private final WebClient webClient;
+
+  private final Duration requestTimeout;
+
+  public WebClientExchangeRateClient(WebClient.Builder webClientBuilder,
+      FxRateProperties fxRateProperties) {
+    FxRateProperties.Upstream upstream = fxRateProperties.getUpstream();
+
+    ConnectionProvider connectionProvider = ConnectionProvider.builder(CONNECTION_POOL_NAME)
+        .maxConnections(upstream.getMaxConnections())
+        .pendingAcquireMaxCount(upstream.getPendingAcquireMaxCount())
+        .pendingAcquireTimeout(upstream.getPendingAcquireTimeout())
+        .maxIdleTime(upstream.getMaxIdleTime())
+        .build();
+
+    HttpClient httpClient = HttpClient.create(connectionProvider)
+        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS,
+            (int) upstream.getConnectTimeout().toMillis())
+        .responseTimeout(upstream.getResponseTimeout());
+
+    this.webClient = webClientBuilder.baseUrl(upstream.getBaseUrl())
+        .clientConnector(new ReactorClientHttpConnector(httpClient))
+        .build();
+    this.requestTimeout = upstream.getRequestTimeout();
+  }
+
+  @Override
+  public Mono<ExchangeRate> getExchangeRateForEuroBaseCurrency() {
+    return webClient.get().uri("/latest/EUR")
+        .retrieve()
+        .bodyToMono(ExchangeRate.class)
+        .timeout(requestTimeout);
+  }
+
+}
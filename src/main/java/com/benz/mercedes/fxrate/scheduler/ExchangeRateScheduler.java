@@ -0,0 +1,213 @@
+package com.benz.mercedes.fxrate.scheduler;
+
+import com.benz.mercedes.fxrate.config.FxRateProperties;
+import com.benz.mercedes.fxrate.domain.SchedulerStatus;
+import com.benz.mercedes.fxrate.metrics.FxRateMetrics;
+import com.benz.mercedes.fxrate.service.ExchangeRateService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import javax.annotation.PreDestroy;
+
+/**
+ * Owns the Currency Exchange Rate Scheduler, the Daily Report Scheduler and, with the retention
+ * policy enabled on the binary repository, the History Compaction Scheduler. Each runs as at most
+ * one Flux.interval subscription, however often they are started. A manual run performs a single
+ * fetch; a run requested while another fetch is in flight joins that fetch.
+ */
+@Slf4j
+@Component
+public class ExchangeRateScheduler {
+
+  @Autowired
+  private ExchangeRateService exchangeRateService;
+
+  @Autowired
+  private FxRateProperties fxRateProperties;
+
+  @Autowired
+  private FxRateMetrics fxRateMetrics;
+
+  private final AtomicReference<Mono<Void>> inFlightFetch = new AtomicReference<>();
+
+  private Disposable currencyRateSchedule;
+
+  private Disposable dailyReportSchedule;
+
+  private Disposable compactionSchedule;
+
+  private volatile Instant startedAt;
+
+  private volatile Instant lastFetchAt;
+
+  private volatile String lastFetchError;
+
+  private volatile Instant lastDailyReportAt;
+
+  private volatile String lastDailyReportError;
+
+  private volatile Instant lastCompactionAt;
+
+  private volatile String lastCompactionError;
+
+  /**
+   * Starts the schedulers unless they are already running
+   */
+  public synchronized SchedulerStatus start() {
+    if (isRunning()) {
+      log.info("Exchange rate schedulers are already running since {}", startedAt);
+      return getStatus();
+    }
+    FxRateProperties.Scheduler schedulerProperties = fxRateProperties.getScheduler();
+    currencyRateSchedule = schedule(schedulerProperties.getCurrencyRateInterval(),
+        "Currency Exchange Rate", "currency-rate", this::runFetch);
+    dailyReportSchedule = schedule(schedulerProperties.getDailyReportInterval(), "Daily Report",
+        "daily-report", this::runDailyReport);
+    FxRateProperties.Retention retention = fxRateProperties.getRetention();
+    // only the binary repository keeps the compacted history
+    if (retention.isEnabled() && "binary".equals(fxRateProperties.getHistory().getRepository())) {
+      compactionSchedule = schedule(retention.getCompactionInterval(), "History Compaction",
+          "compaction", this::runCompaction);
+    }
+    startedAt = Instant.now();
+    log.info("Exchange rate schedulers started, fetching every {} and reporting every {}",
+        schedulerProperties.getCurrencyRateInterval(),
+        schedulerProperties.getDailyReportInterval());
+    return getStatus();
+  }
+
+  /**
+   * Stops the schedulers. A fetch already in flight is completed.
+   */
+  public synchronized SchedulerStatus stop() {
+    if (currencyRateSchedule != null) {
+      currencyRateSchedule.dispose();
+      currencyRateSchedule = null;
+    }
+    if (dailyReportSchedule != null) {
+      dailyReportSchedule.dispose();
+      dailyReportSchedule = null;
+    }
+    if (compactionSchedule != null) {
+      compactionSchedule.dispose();
+      compactionSchedule = null;
+    }
+    startedAt = null;
+    log.info("Exchange rate schedulers stopped");
+    return getStatus();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    stop();
+  }
+
+  /**
+   * Fetches the exchange rates once, independent of the schedulers
+   *
+   * @return the status once the fetch completed, a failed fetch is reported in the status
+   */
+  public Mono<SchedulerStatus> runNow() {
+    return runFetch().then(Mono.fromSupplier(this::getStatus));
+  }
+
+  public synchronized boolean isRunning() {
+    return currencyRateSchedule != null && !currencyRateSchedule.isDisposed();
+  }
+
+  public SchedulerStatus getStatus() {
+    FxRateProperties.Scheduler schedulerProperties = fxRateProperties.getScheduler();
+    return SchedulerStatus.builder()
+        .running(isRunning())
+        .startedAt(startedAt)
+        .currencyRateInterval(schedulerProperties.getCurrencyRateInterval())
+        .dailyReportInterval(schedulerProperties.getDailyReportInterval())
+        .lastFetchAt(lastFetchAt)
+        .lastFetchError(lastFetchError)
+        .lastDailyReportAt(lastDailyReportAt)
+        .lastDailyReportError(lastDailyReportError)
+        .lastCompactionAt(lastCompactionAt)
+        .lastCompactionError(lastCompactionError)
+        .build();
+  }
+
+  private Disposable schedule(Duration interval, String name, String job,
+      Supplier<Mono<Void>> jobRun) {
+    long startNanos = System.nanoTime();
+    return Flux.interval(interval)
+        // ticks arriving while the previous run is still busy are skipped, not queued
+        .onBackpressureDrop(tick -> log.warn("{} Scheduler skipped tick {}", name, tick))
+        .doFirst(() -> log.info("********************** Starting {} job scheduling "
+            + "**********************", name))
+        .concatMap(tick -> Mono.defer(() -> {
+          // tick n is planned n + 1 intervals after the start
+          long plannedNanos = startNanos + (tick + 1) * interval.toNanos();
+          fxRateMetrics.recordSchedulerTickLag(job,
+              Duration.ofNanos(Math.max(0, System.nanoTime() - plannedNanos)));
+          return jobRun.get();
+        }), 1)
+        .subscribe();
+  }
+
+  private Mono<Void> runFetch() {
+    return Mono.defer(() -> {
+      while (true) {
+        Mono<Void> fetch = inFlightFetch.get();
+        if (fetch != null) {
+          return fetch;
+        }
+        Mono<Void> newFetch = exchangeRateService.fetchExchangeRates()
+            .doOnSuccess(ignored -> {
+              lastFetchAt = Instant.now();
+              lastFetchError = null;
+            })
+            .onErrorResume(error -> {
+              log.error("An error happened for the Currency Exchange Rate job {}",
+                  error.getMessage());
+              lastFetchError = error.getMessage();
+              return Mono.empty();
+            })
+            .doFinally(signalType -> inFlightFetch.set(null))
+            .cache();
+        if (inFlightFetch.compareAndSet(null, newFetch)) {
+          return newFetch;
+        }
+      }
+    });
+  }
+
+  private Mono<Void> runDailyReport() {
+    return exchangeRateService.writeDailyReport()
+        .doOnSuccess(ignored -> {
+          lastDailyReportAt = Instant.now();
+          lastDailyReportError = null;
+        })
+        .onErrorResume(error -> {
+          log.error("An error happened for the Daily Report job {}", error.getMessage());
+          lastDailyReportError = error.getMessage();
+          return Mono.empty();
+        });
+  }
+
+  private Mono<Void> runCompaction() {
+    return exchangeRateService.compactHistory()
+        .doOnSuccess(ignored -> {
+          lastCompactionAt = Instant.now();
+          lastCompactionError = null;
+        })
+        .onErrorResume(error -> {
+          log.error("An error happened for the History Compaction job {}", error.getMessage());
+          lastCompactionError = error.getMessage();
+          return Mono.empty();
+        });
+  }
+
+}
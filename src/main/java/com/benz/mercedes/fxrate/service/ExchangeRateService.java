@@ -1,27 +1,119 @@
 package com.benz.mercedes.fxrate.service;
 
-import com.benz.mercedes.fxrate.domain.jaxb.ExchangeRateDetails;
+import com.benz.mercedes.fxrate.domain.ConversionRequest;
+import com.benz.mercedes.fxrate.domain.ConversionResult;
+import com.benz.mercedes.fxrate.domain.RateChangeEvent;
+import com.benz.mercedes.fxrate.domain.jaxb.CurrencyChangeDetails;
+import com.benz.mercedes.fxrate.persistence.RateBucket;
+import com.benz.mercedes.fxrate.report.EncodedReport;
+import com.benz.mercedes.fxrate.report.ReportFormat;
+import com.benz.mercedes.fxrate.report.ReportPage;
+import com.benz.mercedes.fxrate.report.ReportQuery;
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
+import java.util.List;
+
 public interface ExchangeRateService {
 
   /**
-   * Trigger manual exchange rate fetching process - Fetch currency rates from external service
-   * every two hours and compares with ExchangeRateDetails xml for the last available rate of the
-   * respective currency. Then it adds a new entry if there are any difference , else not. Also
-   * triggers a Daily Report Scheduler
+   * Fetch currency rates from external service once and compares with the rate history for the
+   * last available rate of the respective currency. Then it adds a new entry if there are any
+   * difference , else not.
+   */
+  Mono<Void> fetchExchangeRates();
+
+  /**
+   * Write the rate changes of the last 24 hours as daily report XML file
    */
-  Mono<Void> triggerScheduler();
+  Mono<Void> writeDailyReport();
 
   /**
    * Read current exchange rate in terms of X/Y. Example USD/EUR
    */
   Mono<Double> getExchangeRate(String baseCurrency, String targetCurrency);
 
+  /**
+   * Convert the amount from the base to the target currency at the current X/Y rate
+   */
+  Mono<ConversionResult> convert(String baseCurrency, String targetCurrency, double amount);
+
+  /**
+   * Convert a stream of amounts with the rates of one snapshot, without an exchangerate-api call
+   * per item. An item with an unknown currency or without amount is answered with an error.
+   */
+  Flux<ConversionResult> convert(Flux<ConversionRequest> conversionRequests);
+
+  /**
+   * Whether rates older than the cache ttl are served because the exchangerate-api is not reachable
+   */
+  boolean isServingStaleRates();
+
+
+  /**
+   * Time of the last detected rate change or history compaction in epoch millis, 0 before the
+   * first one. The rate history reports and the pair rates do not change while it stays the same.
+   */
+  long getLastRateChange();
+
+  /**
+   * Time of the last change of the daily report in epoch millis, 0 if it never held a rate change
+   */
+  long getDailyReportLastModified();
+
+  /**
+   * Read the daily report encoded in the given format. The encoded payload is reused until the
+   * daily report changes.
+   */
+  Mono<EncodedReport> readEncodedDailyReport(ReportFormat reportFormat);
+
+  /**
+   * Read the full rate history report encoded in the given format. The encoded payload is reused
+   * until the next rate change.
+   *
+   * @return empty if the history is too large to be kept in memory, it is streamed instead
+   */
+  Mono<EncodedReport> readEncodedExchangeRateHistory(ReportFormat reportFormat);
+
+  /**
+   * Locate the page of the rate history selected by time range, currencies and cursor
+   */
+  Mono<ReportPage> readExchangeRateHistoryPage(ReportQuery reportQuery);
+
+  /**
+   * Stream a page of the rate history in terms of base currency: EUR in the ExchangeRateDetails
+   * JSON, XML, CBOR or Smile format, without materialising the report
+   */
+  Flux<DataBuffer> streamExchangeRateHistory(ReportPage reportPage, ReportFormat reportFormat);
+
+  /**
+   * Read the rate history of one currency in terms of base currency: EUR within the given time
+   * range. Null bounds are open.
+   */
+  Flux<CurrencyChangeDetails> readExchangeRateHistory(String currency, Instant from, Instant to);
+
+  /**
+   * Read the hourly and daily OHLC buckets of one currency which the retention policy compacted,
+   * starting within the given time range. Null bounds are open.
+   */
+  Flux<RateBucket> readRateBuckets(String currency, Instant from, Instant to);
+
+  /**
+   * Stream the rate changes detected from now on, of all currencies if none are given
+   */
+  Flux<RateChangeEvent> streamRateChanges(List<String> currencies);
+
+  /**
+   * Export the rate history as ExchangeRateDetails XML file
+   */
+  Mono<Void> exportExchangeRateHistory();
 
   /**
-   * Read the report data in terms of base currency: EUR
+   * Downsample the rate history past the full resolution window and drop it past the retention
+   * horizon, without blocking the rate change appends
    */
-  Mono<ExchangeRateDetails> readReportData(String fileLocation);
+  Mono<Void> compactHistory();
 
 }
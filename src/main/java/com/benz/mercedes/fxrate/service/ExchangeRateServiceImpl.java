@@ -1,343 +1,551 @@
 package com.benz.mercedes.fxrate.service;
 
+import com.benz.mercedes.fxrate.cache.ExchangeRateCache;
+import com.benz.mercedes.fxrate.config.FxRateProperties;
 import com.benz.mercedes.fxrate.domain.ConversionRates;
+import com.benz.mercedes.fxrate.domain.ConversionRequest;
+import com.benz.mercedes.fxrate.domain.ConversionResult;
+import com.benz.mercedes.fxrate.domain.CrossRateMatrix;
+import com.benz.mercedes.fxrate.domain.CurrencyTable;
 import com.benz.mercedes.fxrate.domain.ExchangeRate;
+import com.benz.mercedes.fxrate.domain.RateChangeEvent;
 import com.benz.mercedes.fxrate.domain.jaxb.CurrencyChangeDetails;
 import com.benz.mercedes.fxrate.domain.jaxb.ExchangeRateDetails;
-import com.benz.mercedes.fxrate.rest.client.ExchangeRateClient;
-import lombok.SneakyThrows;
+import com.benz.mercedes.fxrate.domain.jaxb.ExchangeRateDetailsProjection;
+import com.benz.mercedes.fxrate.exception.UnknownCurrencyException;
+import com.benz.mercedes.fxrate.feed.RateChangeFeed;
+import com.benz.mercedes.fxrate.metrics.FxRateMetrics;
+import com.benz.mercedes.fxrate.persistence.RateBucket;
+import com.benz.mercedes.fxrate.persistence.RateBucketStore;
+import com.benz.mercedes.fxrate.persistence.RateChangeDetector;
+import com.benz.mercedes.fxrate.persistence.RateHistoryCompactor;
+import com.benz.mercedes.fxrate.persistence.RateHistoryEntry;
+import com.benz.mercedes.fxrate.persistence.RateHistoryRepository;
+import com.benz.mercedes.fxrate.persistence.RateSeriesSlice;
+import com.benz.mercedes.fxrate.report.DailyReportWindow;
+import com.benz.mercedes.fxrate.report.EncodedReport;
+import com.benz.mercedes.fxrate.report.EncodedReportCache;
+import com.benz.mercedes.fxrate.report.ExchangeRateReportWriter;
+import com.benz.mercedes.fxrate.report.ReportFormat;
+import com.benz.mercedes.fxrate.report.ReportPage;
+import com.benz.mercedes.fxrate.report.ReportQuery;
+import com.benz.mercedes.fxrate.rest.client.ReactiveExchangeRateClient;
+import com.benz.mercedes.fxrate.rest.client.UpstreamResilience;
+import com.benz.mercedes.fxrate.xml.ExchangeRateXmlMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.stereotype.Service;
-import org.springframework.util.CollectionUtils;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
 import java.time.Duration;
-import java.util.Arrays;
-import java.util.Calendar;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.Optional;
-import javax.xml.bind.JAXBContext;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Marshaller;
+import javax.xml.stream.XMLStreamException;
 
 @Service
 @Slf4j
 public class ExchangeRateServiceImpl implements ExchangeRateService {
 
-  private static String FILE_PATH = "./ExchangeRateDetails.xml";
-  private static String DAILY_REPORT_FILE_PATH = "./DailyExchangeRateDetails.xml";
+  // bound of the retries while another thread queues a save at the same moment
+  private static final Duration SAVE_QUEUE_EMIT_TIMEOUT = Duration.ofSeconds(1);
 
   @Autowired
-  private ExchangeRateClient exchangeRateClient;
+  private ReactiveExchangeRateClient exchangeRateClient;
 
+  @Autowired
+  private ExchangeRateCache exchangeRateCache;
 
-  /**
-   * Trigger manual exchange rate fetching process - Fetch currency rates from external service
-   * every two hours and compares with ExchangeRateDetails xml for the last available rate of the
-   * respective currency. Then it adds a new entry if there are any difference , else not.
-   */
-  @Override
-  public Mono<Void> triggerScheduler() {
+  @Autowired
+  private ExchangeRateXmlMapper exchangeRateXmlMapper;
+
+  @Autowired
+  private RateHistoryRepository rateHistoryRepository;
+
+  // the bucket store and the compactor exist with the binary repository only
+  @Autowired(required = false)
+  private RateBucketStore rateBucketStore;
 
-    long currencyRateSchedulerIntervalInHours = 2l;//2 hour
-    long dailyReportSchedulerIntervalInDays = 1l;//1 day
+  @Autowired(required = false)
+  private RateHistoryCompactor rateHistoryCompactor;
 
-    executeCurrencyRateScheduler(currencyRateSchedulerIntervalInHours);
+  @Autowired
+  private DailyReportWindow dailyReportWindow;
+
+  @Autowired
+  private ExchangeRateReportWriter exchangeRateReportWriter;
+
+  @Autowired
+  private EncodedReportCache encodedReportCache;
 
-    executeDailyReportScheduler(dailyReportSchedulerIntervalInDays);
+  @Autowired
+  private ObjectMapper objectMapper;
 
-    return Mono.empty();
+  @Autowired
+  private FxRateProperties fxRateProperties;
 
+  @Autowired
+  private FxRateMetrics fxRateMetrics;
+
+  @Autowired
+  private UpstreamResilience upstreamResilience;
+
+  @Autowired
+  private RateChangeFeed rateChangeFeed;
+
+  // bounded fxrate-io scheduler for all blocking file I/O and JAXB work
+  @Autowired
+  private Scheduler ioScheduler;
+
+  private final RequestCoalescer<String, EncodedReport> reportRequestCoalescer =
+      new RequestCoalescer<>();
+
+  private final RequestCoalescer<String, CrossRateMatrix> crossRateRequestCoalescer =
+      new RequestCoalescer<>();
+
+  // change detection and append run as one step, a scheduled and a manual fetch may overlap. The
+  // saves are queued and run one after another on the fxrate-io scheduler, see startSaveQueue.
+  private final Sinks.Many<Mono<Void>> saveQueue = Sinks.many().unicast().onBackpressureBuffer();
+
+  private Disposable saveQueueSubscription;
+
+  @PostConstruct
+  void startSaveQueue() {
+    // a save starts once the previous one completed, failures are reported to its caller
+    saveQueueSubscription = saveQueue.asFlux()
+        .concatMap(save -> save.subscribeOn(ioScheduler).onErrorResume(error -> Mono.empty()))
+        .subscribe();
   }
 
-  private void executeDailyReportScheduler(long currencyRateReportIntervalInDays) {
-    Flux.interval(Duration.ofDays(currencyRateReportIntervalInDays))
-        .doFirst(
-            () -> log.info(
-                "********************** Starting A daily report job scheduling **********************"))
-        .map(aLong -> {
-          ExchangeRateDetails exchangeRateDetails = null;
-          try {
-            exchangeRateDetails = readFile(JAXBContext.newInstance(ExchangeRateDetails.class,
-                CurrencyChangeDetails.class), FILE_PATH);
-          } catch (JAXBException | FileNotFoundException exception) {
-            log.error("Exception while reading the file {} for the daily report job",
-                exception.getMessage());
-          }
-          return exchangeRateDetails;
-        })
-        .map(exchangeRateDetails -> get24HourExchangeRateDetails(exchangeRateDetails))
-        .onErrorContinue((err, i) -> log.error("An error happened for the daily report job {} {}", i,
-            err.getMessage()))
-        .doOnNext(exchangeRateDetails -> log.info("Daily report exchange rate - {}",
-            exchangeRateDetails))
-        .subscribe(this::createDailyReport);
+  @PreDestroy
+  void stopSaveQueue() {
+    saveQueueSubscription.dispose();
   }
 
   /**
-   * Fetch currency rates from external service every the respective hour interval and saves to a
-   * file which contains certain exchange rates: USD, GBP, EUR, CHF
-   *
-   * @param currencyRateIntervalInHours
+   * Fetches the Euro base currency rates from the exchangerate-api once, updates the rate cache and
+   * appends the changes of the exchange rates of all currencies to the rate history repository
    */
-  private void executeCurrencyRateScheduler(long currencyRateIntervalInHours) {
-    Flux.interval(Duration.ofHours(currencyRateIntervalInHours))
-        .map(aLong -> exchangeRateClient.getExchangeRateForEuroBaseCurrency())
-        .doFirst(() -> log.info(
-            "********************** Starting Manual Exchange Rate Fetch job scheduling **********************"))
+  @Override
+  public Mono<Void> fetchExchangeRates() {
+    return upstreamResilience.protect(fxRateMetrics.timeUpstreamCall("latest",
+            exchangeRateClient.getExchangeRateForEuroBaseCurrency()))
+        // the rates are persisted with blocking file I/O, keep that off the event loop
+        .publishOn(ioScheduler)
         .doOnNext(exchangeRate -> log.info("Exchange Rate For Euro BaseCurrency - {} ",
             exchangeRate))
-        .onErrorContinue(
-            (err, i) -> log.error("An error happened for the Manual Exchange Rate Fetch job {} {}",
-                i, err.getMessage()))
-        .subscribe(this::saveExchangeRate);
+        .doOnNext(exchangeRateCache::update)
+        .flatMap(this::saveExchangeRate);
   }
 
-  private ExchangeRateDetails get24HourExchangeRateDetails(
-      ExchangeRateDetails exchangeRateDetails) {
-    Date date = new Date();
-    Calendar cal = Calendar.getInstance();
-    cal.add(Calendar.HOUR, -24);//24 Hour back time
-    Date twentyFourHourBack = cal.getTime();
-    log.info("24 hour back date is {} and current date {} ", twentyFourHourBack, date);
-    //Compare and get the 24-hour data from the two hours' report
-    Optional.of(exchangeRateDetails).map(ExchangeRateDetails::getEuroCurrencyChanges)
-        .filter(
-            currencyChangeDetailsList -> !CollectionUtils.isEmpty(currencyChangeDetailsList))
-        .ifPresent(currencyChangeDetailsList -> currencyChangeDetailsList.removeIf(
-            currencyChangeDetails ->
-                currencyChangeDetails.getDate() != null
-                    && (currencyChangeDetails.getDate().compareTo(twentyFourHourBack) == -1
-                    // remove all dates which is older than twentyFourHourBack date
-                    || currencyChangeDetails.getDate().compareTo(date)
-                    == 1))); // remove all the dates which is newer than current date
-
-    Optional.of(exchangeRateDetails).map(ExchangeRateDetails::getUsdCurrencyChanges)
-        .filter(
-            currencyChangeDetailsList -> !CollectionUtils.isEmpty(currencyChangeDetailsList))
-        .ifPresent(currencyChangeDetailsList -> currencyChangeDetailsList.removeIf(
-            currencyChangeDetails ->
-                currencyChangeDetails.getDate() != null
-                    && (currencyChangeDetails.getDate().compareTo(twentyFourHourBack) == -1
-                    // remove all dates which is older than twentyFourHourBack date
-                    || currencyChangeDetails.getDate().compareTo(date)
-                    == 1))); // remove all the dates which is newer than current date
-
-    Optional.of(exchangeRateDetails).map(ExchangeRateDetails::getGbpCurrencyChanges)
-        .filter(
-            currencyChangeDetailsList -> !CollectionUtils.isEmpty(currencyChangeDetailsList))
-        .ifPresent(currencyChangeDetailsList -> currencyChangeDetailsList.removeIf(
-            currencyChangeDetails ->
-                currencyChangeDetails.getDate() != null
-                    && (currencyChangeDetails.getDate().compareTo(twentyFourHourBack) == -1
-                    // remove all dates which is older than twentyFourHourBack date
-                    || currencyChangeDetails.getDate().compareTo(date)
-                    == 1))); // remove all the dates which is newer than current date
-
-    Optional.of(exchangeRateDetails).map(ExchangeRateDetails::getChfCurrencyChanges)
-        .filter(
-            currencyChangeDetailsList -> !CollectionUtils.isEmpty(currencyChangeDetailsList))
-        .ifPresent(currencyChangeDetailsList -> currencyChangeDetailsList.removeIf(
-            currencyChangeDetails ->
-                currencyChangeDetails.getDate() != null
-                    && (currencyChangeDetails.getDate().compareTo(twentyFourHourBack) == -1
-                    // remove all dates which is older than twentyFourHourBack date
-                    || currencyChangeDetails.getDate().compareTo(date)
-                    == 1))); // remove all the dates which is newer than current date
-
-    return exchangeRateDetails;
+  /**
+   * Writes the rate changes of the last 24 hours as daily report XML file
+   */
+  @Override
+  public Mono<Void> writeDailyReport() {
+    return Mono.fromRunnable(() -> {
+          ExchangeRateDetails exchangeRateDetails = dailyReportWindow.getDailyReport();
+          log.info("Daily report exchange rate - {}", exchangeRateDetails);
+          createDailyReport(exchangeRateDetails);
+        })
+        .subscribeOn(ioScheduler)
+        .then();
   }
 
+  /**
+   * Answers from the cross rates triangulated from the Euro base currency rates cached by the
+   * Currency Exchange Rate Scheduler, the exchangerate-api is never called per pair. Only if the
+   * cache holds no fresh rates, the Euro base currency rates are fetched once for all concurrent
+   * callers, falling back to stale rates within the configured max staleness.
+   */
   @Override
   public Mono<Double> getExchangeRate(String baseCurrency, String targetCurrency) {
-    return Optional.of(exchangeRateClient.getExchangeRate(baseCurrency, targetCurrency))
-        .map(ExchangeRate::getConversionRate).map(
-            Mono::just).orElse(null);
+    double cachedRate = exchangeRateCache.getRate(baseCurrency, targetCurrency);
+    if (!Double.isNaN(cachedRate)) {
+      return Mono.just(cachedRate);
+    }
+    return getCrossRates().flatMap(crossRates -> {
+      double rate = crossRates.getCrossRate(baseCurrency, targetCurrency);
+      return Double.isNaN(rate)
+          ? Mono.error(new UnknownCurrencyException(baseCurrency, targetCurrency))
+          : Mono.just(rate);
+    });
   }
 
-  @SneakyThrows
   @Override
-  public Mono<ExchangeRateDetails> readReportData(String fileLocation) {
-    return Optional.ofNullable(JAXBContext.newInstance(ExchangeRateDetails.class,
-            CurrencyChangeDetails.class)).map(jaxbContext -> {
-          ExchangeRateDetails exchangeRateDetails = null;
-          try {
-            exchangeRateDetails = readFile(jaxbContext, fileLocation);
-          } catch (JAXBException | FileNotFoundException exception) {
-            log.error("Exception while reading the file {} ", exception.getMessage());
-          }
-          if (exchangeRateDetails == null) {
-            log.info("Daily Report Data is empty");
-          }
-          return exchangeRateDetails;
-        })
-        .map(Mono::just)
-        .orElseGet(Mono::empty);//returns empty if no ExchangeRateDetails xml available
+  public Mono<ConversionResult> convert(String baseCurrency, String targetCurrency,
+      double amount) {
+    return getCrossRates().flatMap(crossRates -> {
+      double rate = crossRates.getCrossRate(baseCurrency, targetCurrency);
+      if (Double.isNaN(rate)) {
+        return Mono.error(new UnknownCurrencyException(baseCurrency, targetCurrency));
+      }
+      return Mono.just(ConversionResult.builder()
+          .base(baseCurrency)
+          .target(targetCurrency)
+          .amount(amount)
+          .rate(rate)
+          .convertedAmount(amount * rate)
+          .ratesAt(Instant.ofEpochMilli(crossRates.getTimestamp()))
+          .stale(isStale(crossRates))
+          .build());
+    });
   }
 
-  private void saveExchangeRate(ExchangeRate exchangeRate) {
-    log.debug("saveExchangeRate starts");
-    Date date = new Date();
-    JAXBContext context = null;
-    try {
-      context = JAXBContext.newInstance(ExchangeRateDetails.class,
-          CurrencyChangeDetails.class);
+  /**
+   * Converts every item with the same cached rates. Only if the cache holds no fresh rates, the
+   * Euro base currency rates are fetched once for the whole batch, falling back to stale rates
+   * within the configured max staleness.
+   */
+  @Override
+  public Flux<ConversionResult> convert(Flux<ConversionRequest> conversionRequests) {
+    return getCrossRates()
+        .flatMapMany(crossRates -> {
+          Boolean stale = isStale(crossRates);
+          return conversionRequests
+              .map(conversionRequest -> convert(crossRates, stale, conversionRequest));
+        });
+  }
 
-      ExchangeRateDetails exchangeRateDetails = readFile(context, FILE_PATH);
+  /**
+   * Stale rates are served while the exchangerate-api is not reachable or its circuit breaker is
+   * open
+   */
+  @Override
+  public boolean isServingStaleRates() {
+    return exchangeRateCache.getFreshCrossRates() == null
+        && exchangeRateCache.getStaleCrossRates() != null;
+  }
 
-      if (exchangeRateDetails != null) {//ExchangeRateDetails xml exists
-        updateCurrencyChanges(exchangeRate, date, exchangeRateDetails);
-      } else {//ExchangeRateDetails xml did not exists
-        exchangeRateDetails = getExchangeRateDetails(exchangeRate, date);
-      }
+  // null rather than false, so only stale results carry the flag
+  private Boolean isStale(CrossRateMatrix crossRates) {
+    return exchangeRateCache.isStale(crossRates) ? Boolean.TRUE : null;
+  }
 
-      Marshaller marshaller = context.createMarshaller();
-      marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
-      marshaller.marshal(exchangeRateDetails, new File(FILE_PATH));
-    } catch (JAXBException | FileNotFoundException exception) {
-      log.error("Exception in saveExchangeRate {} ", exception.getMessage());
+  private Mono<CrossRateMatrix> getCrossRates() {
+    CrossRateMatrix crossRates = exchangeRateCache.getFreshCrossRates();
+    if (crossRates != null) {
+      return Mono.just(crossRates);
     }
+    return crossRateRequestCoalescer.coalesce("latest",
+            () -> fetchExchangeRates()
+                .then(Mono.fromSupplier(exchangeRateCache::getFreshCrossRates)))
+        .onErrorResume(error -> {
+          CrossRateMatrix staleCrossRates = exchangeRateCache.getStaleCrossRates();
+          if (staleCrossRates == null) {
+            return Mono.error(error);
+          }
+          log.warn("Serving stale exchange rates - {}", error.getMessage());
+          return Mono.just(staleCrossRates);
+        })
+        .switchIfEmpty(Mono.error(() -> new IllegalStateException("No exchange rates available")));
+  }
 
-    log.debug("saveExchangeRate completed");
+  private static ConversionResult convert(CrossRateMatrix crossRates, Boolean stale,
+      ConversionRequest conversionRequest) {
+    ConversionResult.ConversionResultBuilder conversionResult = ConversionResult.builder()
+        .base(conversionRequest.getBase())
+        .target(conversionRequest.getTarget())
+        .amount(conversionRequest.getAmount())
+        .ratesAt(Instant.ofEpochMilli(crossRates.getTimestamp()))
+        .stale(stale);
+    double rate = crossRates.getCrossRate(conversionRequest.getBase(),
+        conversionRequest.getTarget());
+    if (Double.isNaN(rate)) {
+      return conversionResult.error("Unknown currency pair " + conversionRequest.getBase() + "/"
+          + conversionRequest.getTarget()).build();
+    }
+    conversionResult.rate(rate);
+    if (conversionRequest.getAmount() == null) {
+      return conversionResult.error("Missing amount").build();
+    }
+    return conversionResult.convertedAmount(conversionRequest.getAmount() * rate).build();
   }
 
-  private void createDailyReport(ExchangeRateDetails exchangeRateDetails) {
-    log.info("Inside create daily report method");
-    JAXBContext context = null;
-    try {
-      context = JAXBContext.newInstance(ExchangeRateDetails.class,
-          CurrencyChangeDetails.class);
+  @Override
+  public long getLastRateChange() {
+    // a compaction changes the reports without a rate change
+    return Math.max(rateHistoryRepository.getLastTimestamp(),
+        rateHistoryCompactor == null ? 0 : rateHistoryCompactor.getLastCompactedAt());
+  }
 
-      Marshaller marshaller = context.createMarshaller();
-      marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
-      marshaller.marshal(exchangeRateDetails,
-          new File(DAILY_REPORT_FILE_PATH));
-    } catch (JAXBException exception) {
-      log.error("Exception in createDailyReport {} ", exception.getMessage());
-    }
+  @Override
+  public long getDailyReportLastModified() {
+    return dailyReportWindow.getLastModified();
+  }
 
-    log.info("Inside create daily report generation completed");
+  @Override
+  public Mono<EncodedReport> readEncodedDailyReport(ReportFormat reportFormat) {
+    return readEncodedReport("daily-report/" + reportFormat,
+        dailyReportWindow.getLastModified(),
+        () -> Mono.fromCallable(() -> encode(dailyReportWindow.getDailyReport(), reportFormat))
+            .subscribeOn(ioScheduler));
   }
 
-  private ExchangeRateDetails getExchangeRateDetails(ExchangeRate exchangeRate, Date date) {
-    ExchangeRateDetails exchangeRateDetails;
-    exchangeRateDetails = ExchangeRateDetails.builder().build();
-    exchangeRateDetails.setEuroCurrencyChanges(Arrays.asList(
-        CurrencyChangeDetails.builder().value(exchangeRate.getConversionRates().getEur())
-            .date(date).build()));
-    exchangeRateDetails.setUsdCurrencyChanges(Arrays.asList(
-        CurrencyChangeDetails.builder().value(exchangeRate.getConversionRates().getUsd())
-            .date(date).build()));
-    exchangeRateDetails.setGbpCurrencyChanges(Arrays.asList(
-        CurrencyChangeDetails.builder().value(exchangeRate.getConversionRates().getGbp())
-            .date(date).build()));
-    exchangeRateDetails.setChfCurrencyChanges(Arrays.asList(
-        CurrencyChangeDetails.builder().value(exchangeRate.getConversionRates().getChf())
-            .date(date).build()));
-    return exchangeRateDetails;
+  @Override
+  public Mono<EncodedReport> readEncodedExchangeRateHistory(ReportFormat reportFormat) {
+    int maxReportPoints = fxRateProperties.getResponseCache().getMaxReportPoints();
+    return readEncodedReport("report/" + reportFormat, getLastRateChange(),
+        () -> readExchangeRateHistoryPage(ReportQuery.all())
+            .filter(reportPage -> reportPage.getPointCount() <= maxReportPoints)
+            .flatMap(reportPage -> DataBufferUtils.join(
+                streamExchangeRateHistory(reportPage, reportFormat)))
+            .map(dataBuffer -> {
+              byte[] payload = new byte[dataBuffer.readableByteCount()];
+              dataBuffer.read(payload);
+              DataBufferUtils.release(dataBuffer);
+              return payload;
+            }));
   }
 
   /**
-   * Compares the currency change details with the given exchange rate
-   *
-   * @param exchangeRate
-   * @param date
-   * @param exchangeRateDetails
+   * Serves the cached payload of the given version. On a miss the payload is encoded once for all
+   * concurrent requests and cached, unless a write invalidated the cache meanwhile.
    */
-  private void updateCurrencyChanges(ExchangeRate exchangeRate, Date date,
-      ExchangeRateDetails exchangeRateDetails) {
-    boolean isThereAnyChangeInCurrencyRate = false;
-    //Euro
-    CurrencyChangeDetails euroCurrencyChangeDetails = exchangeRateDetails.getEuroCurrencyChanges()
-        .get(exchangeRateDetails.getEuroCurrencyChanges().size() - 1);
-    if (exchangeRate.getConversionRates().getEur() != null &&
-        euroCurrencyChangeDetails.getValue().compareTo(exchangeRate.getConversionRates().getEur())
-            != 0) {
-      log.info("Euro Rate changed from {} to {}", euroCurrencyChangeDetails.getValue(),
-          Optional.of(exchangeRate).map(ExchangeRate::getConversionRates).map(
-              ConversionRates::getEur).orElse(null));
-      isThereAnyChangeInCurrencyRate = true;
-      exchangeRateDetails.getEuroCurrencyChanges().add(
-          CurrencyChangeDetails.builder().value(exchangeRate.getConversionRates().getEur())
-              .date(date).build());
+  private Mono<EncodedReport> readEncodedReport(String key, long version,
+      Supplier<Mono<byte[]>> encoder) {
+    EncodedReport encodedReport = encodedReportCache.get(key, version);
+    if (encodedReport != null) {
+      return Mono.just(encodedReport);
     }
+    long generation = encodedReportCache.getGeneration();
+    return reportRequestCoalescer.coalesce(key + "@" + version + "/" + generation,
+        () -> encoder.get()
+            .map(payload -> encodedReportCache.put(key, version, generation, payload)));
+  }
 
-    //USD
-    CurrencyChangeDetails usdCurrencyChangeDetails = exchangeRateDetails.getUsdCurrencyChanges()
-        .get(exchangeRateDetails.getUsdCurrencyChanges().size() - 1);
-    if (exchangeRate.getConversionRates().getUsd() != null &&
-        usdCurrencyChangeDetails.getValue().compareTo(exchangeRate.getConversionRates().getUsd())
-            != 0) {
-      log.info("USD Rate changed from {} to {}", usdCurrencyChangeDetails.getValue(),
-          Optional.of(exchangeRate).map(ExchangeRate::getConversionRates).map(
-              ConversionRates::getUsd).orElse(null));
-      isThereAnyChangeInCurrencyRate = true;
-      exchangeRateDetails.getUsdCurrencyChanges().add(
-          CurrencyChangeDetails.builder().value(exchangeRate.getConversionRates().getUsd())
-              .date(date).build());
+  private byte[] encode(ExchangeRateDetails exchangeRateDetails, ReportFormat reportFormat)
+      throws IOException, JAXBException, XMLStreamException {
+    switch (reportFormat) {
+      case XML:
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        exchangeRateXmlMapper.marshal(exchangeRateDetails, outputStream);
+        return outputStream.toByteArray();
+      case JSON:
+        return objectMapper.writeValueAsBytes(exchangeRateDetails);
+      default:
+        // the binary formats in the shape of the streamed /report
+        return exchangeRateReportWriter.encode(exchangeRateDetails, reportFormat);
     }
+  }
 
-    //GBP
-    CurrencyChangeDetails gbpCurrencyChangeDetails = exchangeRateDetails.getGbpCurrencyChanges()
-        .get(exchangeRateDetails.getGbpCurrencyChanges().size() - 1);
-    if (exchangeRate.getConversionRates().getGbp() != null &&
-        gbpCurrencyChangeDetails.getValue().compareTo(exchangeRate.getConversionRates().getGbp())
-            != 0) {
-      log.info("GBP Rate changed from {} to {}", gbpCurrencyChangeDetails.getValue(),
-          Optional.of(exchangeRate).map(ExchangeRate::getConversionRates).map(
-              ConversionRates::getGbp).orElse(null));
-      isThereAnyChangeInCurrencyRate = true;
-      exchangeRateDetails.getGbpCurrencyChanges().add(
-          CurrencyChangeDetails.builder().value(exchangeRate.getConversionRates().getGbp())
-              .date(date).build());
-    }
+  @Override
+  public Mono<ReportPage> readExchangeRateHistoryPage(ReportQuery reportQuery) {
+    return exchangeRateReportWriter.plan(reportQuery)
+        .subscribeOn(ioScheduler);
+  }
 
-    //CHF
-    CurrencyChangeDetails chfCurrencyChangeDetails = exchangeRateDetails.getChfCurrencyChanges()
-        .get(exchangeRateDetails.getChfCurrencyChanges().size() - 1);
-    if (exchangeRate.getConversionRates().getChf() != null &&
-        chfCurrencyChangeDetails.getValue().compareTo(exchangeRate.getConversionRates().getChf())
-            != 0) {
-      log.info("CHF Rate changed from {} to {}", chfCurrencyChangeDetails.getValue(),
-          Optional.of(exchangeRate).map(ExchangeRate::getConversionRates).map(
-              ConversionRates::getChf).orElse(null));
-      exchangeRateDetails.getChfCurrencyChanges().add(
-          CurrencyChangeDetails.builder().value(exchangeRate.getConversionRates().getChf())
-              .date(date).build());
+  @Override
+  public Flux<DataBuffer> streamExchangeRateHistory(ReportPage reportPage,
+      ReportFormat reportFormat) {
+    // the report is generated on request, keep the memory-mapped reads off the event loop
+    return exchangeRateReportWriter.write(reportPage, reportFormat)
+        .subscribeOn(ioScheduler);
+  }
+
+  @Override
+  public Flux<CurrencyChangeDetails> readExchangeRateHistory(String currency, Instant from,
+      Instant to) {
+    long fromMillis = from == null ? Long.MIN_VALUE : from.toEpochMilli();
+    long toMillis = to == null ? Long.MAX_VALUE : to.toEpochMilli();
+    return rateHistoryRepository.findByCurrency(currency, fromMillis, toMillis)
+        .subscribeOn(ioScheduler)
+        .flatMapMany(rateSeriesSlice -> Flux.range(0, rateSeriesSlice.size())
+            .map(index -> getCurrencyChangeDetails(rateSeriesSlice, index)));
+  }
+
+  @Override
+  public Flux<RateBucket> readRateBuckets(String currency, Instant from, Instant to) {
+    if (rateBucketStore == null) {
+      return Flux.empty();
     }
+    long fromMillis = from == null ? Long.MIN_VALUE : from.toEpochMilli();
+    long toMillis = to == null ? Long.MAX_VALUE : to.toEpochMilli();
+    return Mono.fromCallable(() -> rateBucketStore.query(currency, fromMillis, toMillis))
+        .subscribeOn(ioScheduler)
+        .flatMapIterable(rateBuckets -> rateBuckets);
+  }
 
-    if (!isThereAnyChangeInCurrencyRate) {
-      log.info("No change in the currency rates !!!");
+  private static CurrencyChangeDetails getCurrencyChangeDetails(RateSeriesSlice rateSeriesSlice,
+      int index) {
+    return CurrencyChangeDetails.builder()
+        .date(new Date(rateSeriesSlice.getTimestamp(index)))
+        .value(rateSeriesSlice.getRate(index))
+        .build();
+  }
+
+  @Override
+  public Flux<RateChangeEvent> streamRateChanges(List<String> currencies) {
+    return rateChangeFeed.subscribe(currencies);
+  }
+
+  @Override
+  public Mono<Void> exportExchangeRateHistory() {
+    if ("xml".equals(fxRateProperties.getHistory().getRepository())) {
+      log.info("Rate history is kept in {} by the xml repository",
+          fxRateProperties.getHistory().getXmlPath());
+      return Mono.empty();
     }
+    return Mono.defer(() -> {
+          ExchangeRateDetailsProjection projection = new ExchangeRateDetailsProjection();
+          return Flux.fromIterable(ExchangeRateDetailsProjection.CURRENCIES)
+              .concatMap(currency -> rateHistoryRepository
+                  .findByCurrency(currency, Long.MIN_VALUE, Long.MAX_VALUE)
+                  .doOnNext(rateSeriesSlice -> {
+                    for (int index = 0; index < rateSeriesSlice.size(); index++) {
+                      projection.add(currency, new Date(rateSeriesSlice.getTimestamp(index)),
+                          rateSeriesSlice.getRate(index));
+                    }
+                  }))
+              .then(Mono.fromCallable(() -> {
+                File xmlFile = new File(fxRateProperties.getHistory().getXmlPath());
+                Timer.Sample sample = fxRateMetrics.startTimer();
+                exchangeRateXmlMapper.marshal(projection.getExchangeRateDetails(), xmlFile);
+                fxRateMetrics.recordXmlFile(sample, "write", "history", xmlFile);
+                log.info("Rate history exported to {}", xmlFile);
+                return xmlFile;
+              }));
+        })
+        .subscribeOn(ioScheduler)
+        .then();
   }
 
-  private ExchangeRateDetails readFile(JAXBContext context, String filePath)
-      throws JAXBException, FileNotFoundException {
+  /**
+   * Compacts the rate history on the fxrate-io scheduler. Rate changes are saved meanwhile, the
+   * cached reports are dropped once the compacted history replaced the current one.
+   */
+  @Override
+  public Mono<Void> compactHistory() {
+    if (rateHistoryCompactor == null) {
+      log.debug("Rate history compaction needs the binary repository");
+      return Mono.empty();
+    }
+    return Mono.fromCallable(rateHistoryCompactor::compact)
+        .subscribeOn(ioScheduler)
+        .doOnNext(compacted -> {
+          if (compacted) {
+            encodedReportCache.invalidate();
+          }
+        })
+        .then();
+  }
 
-    ExchangeRateDetails exchangeRateDetailsFromFile = null;
-    Marshaller marshaller = context.createMarshaller();
-    marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+  /**
+   * Queues the append of the rate changes to the rate history repository and completes once it
+   * ran. A queued save still runs when the caller cancels, the rate cache is already updated.
+   */
+  private Mono<Void> saveExchangeRate(ExchangeRate exchangeRate) {
+    return Mono.defer(() -> {
+      Sinks.Empty<Void> saved = Sinks.empty();
+      saveQueue.emitNext(appendRateChanges(exchangeRate)
+              .doOnSuccess(ignored -> saved.tryEmitEmpty())
+              .doOnError(saved::tryEmitError),
+          Sinks.EmitFailureHandler.busyLooping(SAVE_QUEUE_EMIT_TIMEOUT));
+      return saved.asMono();
+    });
+  }
 
-    File file = new File(filePath);
+  /**
+   * Appends the rate changes to the rate history repository, a failed append is logged and
+   * skipped
+   */
+  private Mono<Void> appendRateChanges(ExchangeRate exchangeRate) {
+    return Mono.defer(() -> {
+          log.debug("saveExchangeRate starts");
+          Date date = new Date();
+          double[] latestRates = rateHistoryRepository.getLatestRates();
+          Map<String, Double> currencyChanges = updateCurrencyChanges(exchangeRate, latestRates);
+          if (currencyChanges.isEmpty()) {
+            return Mono.<Void>empty();
+          }
+          RateHistoryEntry rateHistoryEntry = new RateHistoryEntry(date.getTime(),
+              currencyChanges);
+          return rateHistoryRepository.append(rateHistoryEntry)
+              .doOnSuccess(ignored -> {
+                dailyReportWindow.add(rateHistoryEntry);
+                encodedReportCache.invalidate();
+                currencyChanges.keySet().forEach(fxRateMetrics::incrementRateChanges);
+                rateChangeFeed.publish(getRateChangeEvents(date, currencyChanges, latestRates));
+              });
+        })
+        .onErrorResume(IOException.class, exception -> {
+          log.error("Exception in saveExchangeRate {} ", exception.getMessage());
+          return Mono.empty();
+        })
+        .doFinally(signalType -> log.debug("saveExchangeRate completed"));
+  }
 
-    log.info("ExchangeRate file exists {}", file.exists());
+  private void createDailyReport(ExchangeRateDetails exchangeRateDetails) {
+    log.info("Inside create daily report method");
+    try {
+      File dailyReportFile = new File(fxRateProperties.getHistory().getDailyReportPath());
+      Timer.Sample sample = fxRateMetrics.startTimer();
+      exchangeRateXmlMapper.marshal(exchangeRateDetails, dailyReportFile);
+      fxRateMetrics.recordXmlFile(sample, "write", "daily-report", dailyReportFile);
+      encodedReportCache.invalidate();
+    } catch (JAXBException exception) {
+      throw new IllegalStateException("Daily report could not be written", exception);
+    }
 
-    if (file.exists()) {
-      try (FileReader fileReader = new FileReader(filePath)) {
-        exchangeRateDetailsFromFile = (ExchangeRateDetails) context.createUnmarshaller()
-            .unmarshal(fileReader);
-      } catch (IOException ioException) {
-        log.error("Exception while reading the file {} {} ", FILE_PATH, ioException.getMessage());
-      }
+    log.info("Inside create daily report generation completed");
+  }
 
+  /**
+   * Compares the latest rate of each currency in the rate history with the given exchange rate in
+   * one pass over all currencies. Every currency is a change while the history is empty.
+   *
+   * @param exchangeRate
+   * @param latestRates  indexed by CurrencyTable ordinal
+   * @return the changed rates keyed by ISO currency code
+   */
+  private Map<String, Double> updateCurrencyChanges(ExchangeRate exchangeRate,
+      double[] latestRates) {
+    ConversionRates conversionRates = exchangeRate.getConversionRates();
+    Map<String, Double> currencyChanges = conversionRates == null ? new LinkedHashMap<>()
+        : RateChangeDetector.getCurrencyChanges(CurrencyTable.toRates(conversionRates.getRates()),
+            latestRates);
+
+    if (currencyChanges.isEmpty()) {
+      log.info("No change in the currency rates !!!");
+    } else {
+      log.info("{} currency rates changed", currencyChanges.size());
+      log.debug("Changed rates {}", currencyChanges);
     }
-    return exchangeRateDetailsFromFile;
+    return currencyChanges;
+  }
+
+  private static List<RateChangeEvent> getRateChangeEvents(Date date,
+      Map<String, Double> currencyChanges, double[] latestRates) {
+    List<RateChangeEvent> rateChangeEvents = new ArrayList<>(currencyChanges.size());
+    currencyChanges.forEach((currency, rate) -> {
+      int ordinal = CurrencyTable.ordinal(currency);
+      double previousRate = ordinal < latestRates.length ? latestRates[ordinal] : Double.NaN;
+      rateChangeEvents.add(RateChangeEvent.builder()
+          .date(date.toInstant())
+          .currency(currency)
+          .value(rate)
+          .previousValue(Double.isNaN(previousRate) ? null : previousRate)
+          .build());
+    });
+    return rateChangeEvents;
   }
 
 
@@ -0,0 +1,35 @@
+package com.benz.mercedes.fxrate.service;
+
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight de-duplication of concurrent requests. All callers asking for the same key while a
+ * request is in flight share that request and receive its result or error. The entry is cleared
+ * as soon as the request completes, so later callers trigger a fresh request.
+ *
+ * @param <K> request key
+ * @param <V> request result
+ */
+class RequestCoalescer<K, V> {
+
+  private final ConcurrentMap<K, Mono<V>> inFlightRequests = new ConcurrentHashMap<>();
+
+  /**
+   * Joins the in-flight request of the given key, or starts a new one from the request supplier
+   */
+  Mono<V> coalesce(K key, Supplier<Mono<V>> requestSupplier) {
+    return Mono.defer(() -> inFlightRequests.computeIfAbsent(key,
+        requestKey -> requestSupplier.get()
+            .doFinally(signalType -> inFlightRequests.remove(requestKey))
+            .cache()));
+  }
+
+  int inFlightRequestCount() {
+    return inFlightRequests.size();
+  }
+
+}
@@ -0,0 +1,73 @@
+package com.benz.mercedes.fxrate.xml;
+
+import com.benz.mercedes.fxrate.domain.jaxb.CurrencyChangeDetails;
+import com.benz.mercedes.fxrate.domain.jaxb.ExchangeRateDetails;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+/**
+ * Shared JAXB binding of {@link ExchangeRateDetails}. The JAXBContext is thread-safe and created
+ * once, whereas marshallers and unmarshallers are not thread-safe and are reused per thread.
+ */
+@Component
+public class ExchangeRateXmlMapper {
+
+  private final JAXBContext jaxbContext;
+
+  private final ThreadLocal<Marshaller> marshallers = ThreadLocal.withInitial(
+      this::createMarshaller);
+
+  private final ThreadLocal<Unmarshaller> unmarshallers = ThreadLocal.withInitial(
+      this::createUnmarshaller);
+
+  public ExchangeRateXmlMapper() throws JAXBException {
+    this.jaxbContext = JAXBContext.newInstance(ExchangeRateDetails.class,
+        CurrencyChangeDetails.class);
+  }
+
+  public ExchangeRateDetails unmarshal(Reader reader) throws JAXBException {
+    return (ExchangeRateDetails) unmarshallers.get().unmarshal(reader);
+  }
+
+  public ExchangeRateDetails unmarshal(InputStream inputStream) throws JAXBException {
+    return (ExchangeRateDetails) unmarshallers.get().unmarshal(inputStream);
+  }
+
+  public void marshal(ExchangeRateDetails exchangeRateDetails, File file) throws JAXBException {
+    marshallers.get().marshal(exchangeRateDetails, file);
+  }
+
+  public void marshal(ExchangeRateDetails exchangeRateDetails, OutputStream outputStream)
+      throws JAXBException {
+    marshallers.get().marshal(exchangeRateDetails, outputStream);
+  }
+
+  private Marshaller createMarshaller() {
+    try {
+      Marshaller marshaller = jaxbContext.createMarshaller();
+      marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+      return marshaller;
+    } catch (JAXBException exception) {
+      throw new IllegalStateException("Unable to create the ExchangeRateDetails marshaller",
+          exception);
+    }
+  }
+
+  private Unmarshaller createUnmarshaller() {
+    try {
+      return jaxbContext.createUnmarshaller();
+    } catch (JAXBException exception) {
+      throw new IllegalStateException("Unable to create the ExchangeRateDetails unmarshaller",
+          exception);
+    }
+  }
+
+}
@@ -0,0 +1,83 @@
+package com.benz.mercedes.fxrate.benchmark;
+
+import com.benz.mercedes.fxrate.domain.CurrencyTable;
+import com.benz.mercedes.fxrate.domain.jaxb.CurrencyChangeDetails;
+import com.benz.mercedes.fxrate.domain.jaxb.ExchangeRateDetails;
+import com.benz.mercedes.fxrate.persistence.RateHistoryEntry;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Synthetic rate history shared by the benchmarks - one change per currency every two hours.
+ */
+final class BenchmarkData {
+
+  private static final long START_MILLIS = 1666521263563L;
+
+  private static final long SCHEDULER_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(2);
+
+  private BenchmarkData() {
+  }
+
+  /**
+   * The four default currencies followed by synthetic ISO 4217 style codes, the exchangerate-api
+   * quotes about 160 currencies
+   */
+  static List<String> currencyCodes(int count) {
+    List<String> currencyCodes = new ArrayList<>(CurrencyTable.DEFAULT_CURRENCIES);
+    for (int code = 0; currencyCodes.size() < count; code++) {
+      currencyCodes.add("X" + (char) ('A' + code / 26 % 26) + (char) ('A' + code % 26));
+    }
+    return currencyCodes.subList(0, count);
+  }
+
+  static ExchangeRateDetails exchangeRateDetails(int entriesPerCurrency) {
+    return ExchangeRateDetails.builder()
+        .euroCurrencyChanges(currencyChanges(entriesPerCurrency, 1d, 0d))
+        .usdCurrencyChanges(currencyChanges(entriesPerCurrency, 0.9825, 0.0001))
+        .chfCurrencyChanges(currencyChanges(entriesPerCurrency, 0.9841, -0.0001))
+        .gbpCurrencyChanges(currencyChanges(entriesPerCurrency, 0.875, 0.0002))
+        .build();
+  }
+
+  /**
+   * Scheduler runs with a change of every default currency, in time order
+   */
+  static List<RateHistoryEntry> rateHistoryEntries(int entries) {
+    List<RateHistoryEntry> rateHistoryEntries = new ArrayList<>(entries);
+    for (int entry = 0; entry < entries; entry++) {
+      Map<String, Double> rates = new LinkedHashMap<>();
+      rates.put("EUR", 1d);
+      rates.put("USD", 0.9825 + (entry % 100) * 0.0001);
+      rates.put("GBP", 0.875 + (entry % 100) * 0.0002);
+      rates.put("CHF", 0.9841 - (entry % 100) * 0.0001);
+      rateHistoryEntries.add(new RateHistoryEntry(timestamp(entry), rates));
+    }
+    return rateHistoryEntries;
+  }
+
+  /**
+   * Epoch millis of the given scheduler run
+   */
+  static long timestamp(int entry) {
+    return START_MILLIS + entry * SCHEDULER_INTERVAL_MILLIS;
+  }
+
+  private static List<CurrencyChangeDetails> currencyChanges(int entries, double startValue,
+      double step) {
+    List<CurrencyChangeDetails> currencyChanges = new ArrayList<>(entries);
+    for (int entry = 0; entry < entries; entry++) {
+      currencyChanges.add(CurrencyChangeDetails.builder()
+          .date(new Date(START_MILLIS + entry * SCHEDULER_INTERVAL_MILLIS))
+          .value(startValue + (entry % 100) * step)
+          .build());
+    }
+    return currencyChanges;
+  }
+
+}
@@ -0,0 +1,75 @@
+package com.benz.mercedes.fxrate.benchmark;
+
+import com.benz.mercedes.fxrate.domain.jaxb.ExchangeRateDetails;
+import com.benz.mercedes.fxrate.persistence.RateHistoryEntry;
+import com.benz.mercedes.fxrate.report.DailyReportWindow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building the /daily-report from the rolling 24-hour window, which replaced filtering
+ * the whole rate history for the last 24 hours. The window holds the twelve runs of the Currency
+ * Exchange Rate Scheduler with a change of every currency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DailyReportBenchmark {
+
+  private static final int SCHEDULER_RUNS_PER_DAY = 12;
+
+  @Param({"4", "160"})
+  private int currencies;
+
+  private DailyReportWindow dailyReportWindow;
+
+  @Setup
+  public void setUp() {
+    Clock clock = Clock.systemUTC();
+    dailyReportWindow = new DailyReportWindow(clock);
+    List<String> currencyCodes = BenchmarkData.currencyCodes(currencies);
+    long start = clock.millis() - Duration.ofHours(23).toMillis();
+    for (int run = 0; run < SCHEDULER_RUNS_PER_DAY; run++) {
+      Map<String, Double> rates = new LinkedHashMap<>();
+      for (int index = 0; index < currencyCodes.size(); index++) {
+        rates.put(currencyCodes.get(index), 1d + index * 0.01 + run * 0.0001);
+      }
+      dailyReportWindow.add(new RateHistoryEntry(start + run * Duration.ofHours(2).toMillis(),
+          rates));
+    }
+  }
+
+  @Benchmark
+  public ExchangeRateDetails getDailyReport() {
+    return dailyReportWindow.getDailyReport();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(DailyReportBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+
+}
@@ -0,0 +1,108 @@
+package com.benz.mercedes.fxrate.benchmark;
+
+import com.benz.mercedes.fxrate.config.FxRateProperties;
+import com.benz.mercedes.fxrate.domain.jaxb.ExchangeRateDetails;
+import com.benz.mercedes.fxrate.report.EncodedReport;
+import com.benz.mercedes.fxrate.report.EncodedReportCache;
+import com.benz.mercedes.fxrate.xml.ExchangeRateXmlMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+import javax.xml.bind.JAXBException;
+
+/**
+ * Report requests per second served by encoding the ExchangeRateDetails on every request, as
+ * before the encoded report cache, against wrapping the cached payload. Runs with several threads
+ * like concurrent polling clients.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class EncodedReportBenchmark {
+
+  @Param({"12", "1000"})
+  private int entriesPerCurrency;
+
+  private ObjectMapper objectMapper;
+
+  private ExchangeRateXmlMapper exchangeRateXmlMapper;
+
+  private ExchangeRateDetails exchangeRateDetails;
+
+  private EncodedReportCache encodedReportCache;
+
+  @Setup
+  public void setUp() throws JAXBException, JsonProcessingException {
+    objectMapper = new ObjectMapper();
+    exchangeRateXmlMapper = new ExchangeRateXmlMapper();
+    exchangeRateDetails = BenchmarkData.exchangeRateDetails(entriesPerCurrency);
+    encodedReportCache = new EncodedReportCache(new FxRateProperties());
+    long generation = encodedReportCache.getGeneration();
+    encodedReportCache.put("report/JSON", 1L, generation,
+        objectMapper.writeValueAsBytes(exchangeRateDetails));
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    exchangeRateXmlMapper.marshal(exchangeRateDetails, outputStream);
+    encodedReportCache.put("report/XML", 1L, generation, outputStream.toByteArray());
+  }
+
+  @Benchmark
+  public DataBuffer encodeJsonPerRequest() throws JsonProcessingException {
+    return DefaultDataBufferFactory.sharedInstance
+        .wrap(objectMapper.writeValueAsBytes(exchangeRateDetails));
+  }
+
+  @Benchmark
+  public DataBuffer encodeXmlPerRequest() throws JAXBException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    exchangeRateXmlMapper.marshal(exchangeRateDetails, outputStream);
+    return DefaultDataBufferFactory.sharedInstance.wrap(outputStream.toByteArray());
+  }
+
+  @Benchmark
+  public DataBuffer cachedJson() {
+    EncodedReport encodedReport = encodedReportCache.get("report/JSON", 1L);
+    return DefaultDataBufferFactory.sharedInstance.wrap(encodedReport.getPayload());
+  }
+
+  @Benchmark
+  public DataBuffer cachedXml() {
+    EncodedReport encodedReport = encodedReportCache.get("report/XML", 1L);
+    return DefaultDataBufferFactory.sharedInstance.wrap(encodedReport.getPayload());
+  }
+
+  @Benchmark
+  public DataBuffer cachedJsonGzip() {
+    EncodedReport encodedReport = encodedReportCache.get("report/JSON", 1L);
+    return DefaultDataBufferFactory.sharedInstance.wrap(encodedReport.getGzipPayload());
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(EncodedReportBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+
+}
@@ -0,0 +1,95 @@
+package com.benz.mercedes.fxrate.benchmark;
+
+import com.benz.mercedes.fxrate.domain.jaxb.CurrencyChangeDetails;
+import com.benz.mercedes.fxrate.domain.jaxb.ExchangeRateDetails;
+import com.benz.mercedes.fxrate.xml.ExchangeRateXmlMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+
+/**
+ * Per request cost of the /report and /daily-report XML read, creating a JAXBContext for every
+ * request against the shared {@link ExchangeRateXmlMapper}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExchangeRateXmlMapperBenchmark {
+
+  @Param({"12", "1000"})
+  private int entriesPerCurrency;
+
+  private ExchangeRateXmlMapper exchangeRateXmlMapper;
+
+  private ExchangeRateDetails exchangeRateDetails;
+
+  private byte[] exchangeRateDetailsXml;
+
+  @Setup
+  public void setUp() throws JAXBException {
+    exchangeRateXmlMapper = new ExchangeRateXmlMapper();
+    exchangeRateDetails = BenchmarkData.exchangeRateDetails(entriesPerCurrency);
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    exchangeRateXmlMapper.marshal(exchangeRateDetails, outputStream);
+    exchangeRateDetailsXml = outputStream.toByteArray();
+  }
+
+  @Benchmark
+  public ExchangeRateDetails unmarshalWithNewContext() throws JAXBException {
+    JAXBContext jaxbContext = JAXBContext.newInstance(ExchangeRateDetails.class,
+        CurrencyChangeDetails.class);
+    return (ExchangeRateDetails) jaxbContext.createUnmarshaller()
+        .unmarshal(new ByteArrayInputStream(exchangeRateDetailsXml));
+  }
+
+  @Benchmark
+  public ExchangeRateDetails unmarshalWithSharedMapper() throws JAXBException {
+    return exchangeRateXmlMapper.unmarshal(new ByteArrayInputStream(exchangeRateDetailsXml));
+  }
+
+  @Benchmark
+  public int marshalWithNewContext() throws JAXBException {
+    JAXBContext jaxbContext = JAXBContext.newInstance(ExchangeRateDetails.class,
+        CurrencyChangeDetails.class);
+    Marshaller marshaller = jaxbContext.createMarshaller();
+    marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    marshaller.marshal(exchangeRateDetails, outputStream);
+    return outputStream.size();
+  }
+
+  @Benchmark
+  public int marshalWithSharedMapper() throws JAXBException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    exchangeRateXmlMapper.marshal(exchangeRateDetails, outputStream);
+    return outputStream.size();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(ExchangeRateXmlMapperBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+
+}
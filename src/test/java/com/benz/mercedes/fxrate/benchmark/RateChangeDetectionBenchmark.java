@@ -0,0 +1,80 @@
+package com.benz.mercedes.fxrate.benchmark;
+
+import com.benz.mercedes.fxrate.domain.CurrencyTable;
+import com.benz.mercedes.fxrate.persistence.RateChangeDetector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the rate change detection of a Currency Exchange Rate Scheduler run, from the fetched
+ * rates keyed by currency code to the changed rates, for the report currencies and for all
+ * currencies quoted by the exchangerate-api.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateChangeDetectionBenchmark {
+
+  @Param({"4", "160"})
+  private int currencies;
+
+  private Map<String, Double> fetchedRates;
+
+  private double[] unchangedRates;
+
+  private double[] changedRates;
+
+  @Setup
+  public void setUp() {
+    List<String> currencyCodes = BenchmarkData.currencyCodes(currencies);
+    fetchedRates = new LinkedHashMap<>();
+    for (int index = 0; index < currencyCodes.size(); index++) {
+      fetchedRates.put(currencyCodes.get(index), 1d + index * 0.01);
+    }
+    unchangedRates = CurrencyTable.toRates(fetchedRates);
+    changedRates = unchangedRates.clone();
+    // every other currency changed since the last run
+    for (int ordinal = 0; ordinal < changedRates.length; ordinal += 2) {
+      changedRates[ordinal] += 0.0001;
+    }
+  }
+
+  @Benchmark
+  public Map<String, Double> unchangedRates() {
+    return RateChangeDetector.getCurrencyChanges(CurrencyTable.toRates(fetchedRates),
+        unchangedRates);
+  }
+
+  @Benchmark
+  public Map<String, Double> changedRates() {
+    return RateChangeDetector.getCurrencyChanges(CurrencyTable.toRates(fetchedRates),
+        changedRates);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(RateChangeDetectionBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+
+}
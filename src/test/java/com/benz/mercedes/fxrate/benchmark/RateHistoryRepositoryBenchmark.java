@@ -0,0 +1,147 @@
+package com.benz.mercedes.fxrate.benchmark;
+
+import com.benz.mercedes.fxrate.persistence.BinaryRateHistoryRepository;
+import com.benz.mercedes.fxrate.persistence.H2RateHistoryRepository;
+import com.benz.mercedes.fxrate.persistence.RateHistoryEntry;
+import com.benz.mercedes.fxrate.persistence.RateHistoryJournal;
+import com.benz.mercedes.fxrate.persistence.RateHistoryRepository;
+import com.benz.mercedes.fxrate.persistence.RateSeriesSlice;
+import com.benz.mercedes.fxrate.persistence.RateTimeSeriesStore;
+import com.benz.mercedes.fxrate.persistence.XmlRateHistoryRepository;
+import com.benz.mercedes.fxrate.xml.ExchangeRateXmlMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append and range query cost of the rate history repositories over the same history of the four
+ * default currencies. The XML repository rewrites the whole file per append, the binary and h2
+ * repositories write one record or row per rate. Every measured append adds a scheduler run to
+ * the history.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateHistoryRepositoryBenchmark {
+
+  // scheduler runs of one day
+  private static final int DAY_ENTRIES = 12;
+
+  @Param({"binary", "xml", "h2"})
+  private String repository;
+
+  @Param({"1000", "10000"})
+  private int entries;
+
+  private Path directory;
+
+  private RateHistoryRepository rateHistoryRepository;
+
+  private AutoCloseable closeable;
+
+  private int appendedEntries;
+
+  private long dayFrom;
+
+  private long dayTo;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    directory = Files.createTempDirectory("fxrate-repository-benchmark");
+    switch (repository) {
+      case "binary":
+        RateHistoryJournal rateHistoryJournal = new RateHistoryJournal(
+            directory.resolve("history.journal"));
+        rateHistoryJournal.open();
+        RateTimeSeriesStore rateTimeSeriesStore = new RateTimeSeriesStore(
+            directory.resolve("timeseries"), rateHistoryJournal);
+        rateTimeSeriesStore.open();
+        rateHistoryRepository = new BinaryRateHistoryRepository(rateHistoryJournal,
+            rateTimeSeriesStore);
+        closeable = () -> {
+          rateTimeSeriesStore.close();
+          rateHistoryJournal.close();
+        };
+        break;
+      case "xml":
+        // written at once, appending the history would rewrite the file per entry
+        ExchangeRateXmlMapper exchangeRateXmlMapper = new ExchangeRateXmlMapper();
+        Path xmlPath = directory.resolve("history.xml");
+        exchangeRateXmlMapper.marshal(BenchmarkData.exchangeRateDetails(entries),
+            xmlPath.toFile());
+        XmlRateHistoryRepository xmlRateHistoryRepository = new XmlRateHistoryRepository(
+            xmlPath, exchangeRateXmlMapper);
+        xmlRateHistoryRepository.open();
+        rateHistoryRepository = xmlRateHistoryRepository;
+        closeable = () -> {
+        };
+        break;
+      default:
+        H2RateHistoryRepository h2RateHistoryRepository = new H2RateHistoryRepository(
+            "jdbc:h2:file:" + directory.resolve("history").toAbsolutePath());
+        h2RateHistoryRepository.open();
+        rateHistoryRepository = h2RateHistoryRepository;
+        closeable = h2RateHistoryRepository::close;
+    }
+    if (rateHistoryRepository.isEmpty()) {
+      for (RateHistoryEntry rateHistoryEntry : BenchmarkData.rateHistoryEntries(entries)) {
+        rateHistoryRepository.append(rateHistoryEntry).block();
+      }
+    }
+    appendedEntries = entries;
+    dayFrom = BenchmarkData.timestamp(entries / 2);
+    dayTo = BenchmarkData.timestamp(entries / 2 + DAY_ENTRIES - 1);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    closeable.close();
+    FileSystemUtils.deleteRecursively(directory);
+  }
+
+  @Benchmark
+  public void append() {
+    int entry = appendedEntries++;
+    rateHistoryRepository.append(new RateHistoryEntry(BenchmarkData.timestamp(entry),
+        Map.of("USD", 0.9825 + entry * 1e-7))).block();
+  }
+
+  @Benchmark
+  public RateSeriesSlice findDay() {
+    return rateHistoryRepository.findByCurrency("USD", dayFrom, dayTo).block();
+  }
+
+  @Benchmark
+  public RateSeriesSlice findAll() {
+    return rateHistoryRepository.findByCurrency("USD", Long.MIN_VALUE, Long.MAX_VALUE).block();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(RateHistoryRepositoryBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+
+}
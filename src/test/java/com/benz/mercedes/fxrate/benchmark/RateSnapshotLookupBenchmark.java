@@ -0,0 +1,89 @@
+package com.benz.mercedes.fxrate.benchmark;
+
+import com.benz.mercedes.fxrate.cache.ExchangeRateCache;
+import com.benz.mercedes.fxrate.config.FxRateProperties;
+import com.benz.mercedes.fxrate.domain.ConversionRates;
+import com.benz.mercedes.fxrate.domain.ExchangeRate;
+import com.benz.mercedes.fxrate.domain.RateSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per request cost of the cached /pair lookup. Run with the GC profiler, the primitive snapshot
+ * lookup should report gc.alloc.rate.norm of 0 B/op against the boxed {@link ConversionRates}
+ * lookup. The cache reads the precomputed cross rate matrix, divisionLookup triangulates the same
+ * pair from the snapshot on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateSnapshotLookupBenchmark {
+
+  private static final String[] CURRENCIES = {"EUR", "USD", "GBP", "CHF"};
+
+  private ExchangeRateCache exchangeRateCache;
+
+  private ConversionRates conversionRates;
+
+  private RateSnapshot rateSnapshot;
+
+  private int pair;
+
+  @Setup
+  public void setUp() {
+    conversionRates = new ConversionRates();
+    conversionRates.setEur(1d);
+    conversionRates.setUsd(0.9825);
+    conversionRates.setGbp(0.875);
+    conversionRates.setChf(0.9841);
+    exchangeRateCache = new ExchangeRateCache(new FxRateProperties());
+    exchangeRateCache.update(ExchangeRate.builder().baseCode("EUR")
+        .conversionRates(conversionRates).build());
+    rateSnapshot = exchangeRateCache.getFreshCrossRates().getRateSnapshot();
+  }
+
+  @Benchmark
+  public double snapshotLookup() {
+    int current = pair++;
+    return exchangeRateCache.getRate(CURRENCIES[current & 3], CURRENCIES[(current >>> 2) & 3]);
+  }
+
+  @Benchmark
+  public double divisionLookup() {
+    int current = pair++;
+    return rateSnapshot.getCrossRate(CURRENCIES[current & 3], CURRENCIES[(current >>> 2) & 3]);
+  }
+
+  @Benchmark
+  public double boxedLookup() {
+    int current = pair++;
+    Double baseRate = conversionRates.getRate(CURRENCIES[current & 3]);
+    Double targetRate = conversionRates.getRate(CURRENCIES[(current >>> 2) & 3]);
+    return targetRate / baseRate;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(RateSnapshotLookupBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build()).run();
+  }
+
+}
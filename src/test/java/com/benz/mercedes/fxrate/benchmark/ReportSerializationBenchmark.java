@@ -0,0 +1,92 @@
+package com.benz.mercedes.fxrate.benchmark;
+
+import com.benz.mercedes.fxrate.domain.jaxb.ExchangeRateDetails;
+import com.benz.mercedes.fxrate.xml.ExchangeRateXmlMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.xml.bind.JAXBException;
+
+/**
+ * Cost of encoding and decoding the full rate history of the four report currencies as XML with
+ * the shared {@link ExchangeRateXmlMapper} and as JSON with Jackson, at 1k, 100k and 1M history
+ * entries in total.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ReportSerializationBenchmark {
+
+  @Param({"250", "25000", "250000"})
+  private int entriesPerCurrency;
+
+  private ExchangeRateXmlMapper exchangeRateXmlMapper;
+
+  private ObjectMapper objectMapper;
+
+  private ExchangeRateDetails exchangeRateDetails;
+
+  private byte[] exchangeRateDetailsXml;
+
+  private byte[] exchangeRateDetailsJson;
+
+  @Setup
+  public void setUp() throws JAXBException, IOException {
+    exchangeRateXmlMapper = new ExchangeRateXmlMapper();
+    objectMapper = new ObjectMapper();
+    exchangeRateDetails = BenchmarkData.exchangeRateDetails(entriesPerCurrency);
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    exchangeRateXmlMapper.marshal(exchangeRateDetails, outputStream);
+    exchangeRateDetailsXml = outputStream.toByteArray();
+    exchangeRateDetailsJson = objectMapper.writeValueAsBytes(exchangeRateDetails);
+  }
+
+  @Benchmark
+  public ExchangeRateDetails unmarshalXml() throws JAXBException {
+    return exchangeRateXmlMapper.unmarshal(new ByteArrayInputStream(exchangeRateDetailsXml));
+  }
+
+  @Benchmark
+  public int marshalXml() throws JAXBException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    exchangeRateXmlMapper.marshal(exchangeRateDetails, outputStream);
+    return outputStream.size();
+  }
+
+  @Benchmark
+  public ExchangeRateDetails readJson() throws IOException {
+    return objectMapper.readValue(exchangeRateDetailsJson, ExchangeRateDetails.class);
+  }
+
+  @Benchmark
+  public int writeJson() throws IOException {
+    return objectMapper.writeValueAsBytes(exchangeRateDetails).length;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(ReportSerializationBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+
+}
@@ -0,0 +1,121 @@
+package com.benz.mercedes.fxrate.benchmark;
+
+import com.benz.mercedes.fxrate.domain.RateChangeEvent;
+import com.benz.mercedes.fxrate.domain.jaxb.ExchangeRateDetails;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Payload size and encode / decode throughput of the response formats selected by the Accept
+ * header - JSON with ISO date strings as served by default, CBOR and Smile with epoch millis
+ * dates - for the report at 12 (one day) and 1000 changes per currency and a change feed event.
+ * The bytes counter is reported per second next to the operations per second of the same
+ * benchmark, their ratio is the payload size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+  @Param({"json", "cbor", "smile"})
+  private String format;
+
+  @Param({"12", "1000"})
+  private int entriesPerCurrency;
+
+  private ObjectMapper objectMapper;
+
+  private ExchangeRateDetails exchangeRateDetails;
+
+  private byte[] exchangeRateDetailsPayload;
+
+  private RateChangeEvent rateChangeEvent;
+
+  /**
+   * Bytes written or read, per second
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class PayloadCounter {
+
+    public long bytes;
+
+  }
+
+  @Setup
+  public void setUp() throws IOException {
+    switch (format) {
+      case "cbor":
+        objectMapper = newBinaryObjectMapper(new ObjectMapper(new CBORFactory()));
+        break;
+      case "smile":
+        objectMapper = newBinaryObjectMapper(new ObjectMapper(new SmileFactory()));
+        break;
+      default:
+        objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+    exchangeRateDetails = BenchmarkData.exchangeRateDetails(entriesPerCurrency);
+    exchangeRateDetailsPayload = objectMapper.writeValueAsBytes(exchangeRateDetails);
+    rateChangeEvent = RateChangeEvent.builder().date(Instant.ofEpochMilli(1666524863563L))
+        .currency("USD").value(0.9825).previousValue(0.9818).build();
+  }
+
+  // the codec settings of the binary formats
+  private static ObjectMapper newBinaryObjectMapper(ObjectMapper objectMapper) {
+    return objectMapper.findAndRegisterModules()
+        .enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .disable(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS);
+  }
+
+  @Benchmark
+  public byte[] encodeReport(PayloadCounter payloadCounter) throws IOException {
+    byte[] payload = objectMapper.writeValueAsBytes(exchangeRateDetails);
+    payloadCounter.bytes += payload.length;
+    return payload;
+  }
+
+  @Benchmark
+  public ExchangeRateDetails decodeReport(PayloadCounter payloadCounter) throws IOException {
+    payloadCounter.bytes += exchangeRateDetailsPayload.length;
+    return objectMapper.readValue(exchangeRateDetailsPayload, ExchangeRateDetails.class);
+  }
+
+  @Benchmark
+  public byte[] encodeRateChangeEvent(PayloadCounter payloadCounter) throws IOException {
+    byte[] payload = objectMapper.writeValueAsBytes(rateChangeEvent);
+    payloadCounter.bytes += payload.length;
+    return payload;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(WireFormatBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+
+}
@@ -0,0 +1,136 @@
+package com.benz.mercedes.fxrate.cache;
+
+import com.benz.mercedes.fxrate.config.FxRateProperties;
+import com.benz.mercedes.fxrate.domain.ConversionRates;
+import com.benz.mercedes.fxrate.domain.CrossRateMatrix;
+import com.benz.mercedes.fxrate.domain.ExchangeRate;
+import com.benz.mercedes.fxrate.support.MutableClock;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@DisplayName("Exchange Rate Cache Test")
+public class ExchangeRateCacheTest {
+
+  private final MutableClock clock = new MutableClock(Instant.parse("2022-10-23T10:00:00Z"));
+
+  private ExchangeRateCache exchangeRateCache;
+
+  @BeforeEach
+  void setUp() {
+    FxRateProperties fxRateProperties = new FxRateProperties();
+    fxRateProperties.getCache().setTtl(Duration.ofHours(2));
+    fxRateProperties.getCache().setMaxStaleness(Duration.ofHours(24));
+    exchangeRateCache = new ExchangeRateCache(fxRateProperties, clock);
+  }
+
+  @Test
+  @DisplayName("Test cache miss before the first scheduler run")
+  void testCacheMissWhenEmpty() {
+    // Given , When and Then
+    Assertions.assertThat(exchangeRateCache.getRate("USD", "EUR")).isNaN();
+    Assertions.assertThat(exchangeRateCache.getFreshCrossRates()).isNull();
+    Assertions.assertThat(exchangeRateCache.getStaleCrossRates()).isNull();
+  }
+
+  @Test
+  @DisplayName("Test cross rate of two non Euro currencies")
+  void testCrossRate() {
+    // Given
+    exchangeRateCache.update(euroBaseExchangeRate());
+
+    // When and Then
+    Assertions.assertThat(exchangeRateCache.getRate("EUR", "USD")).isEqualTo(0.9825);
+    Assertions.assertThat(exchangeRateCache.getRate("usd", "eur"))
+        .isCloseTo(1 / 0.9825, Offset.offset(1e-12));
+    Assertions.assertThat(exchangeRateCache.getRate("GBP", "CHF"))
+        .isCloseTo(0.9841 / 0.875, Offset.offset(1e-12));
+  }
+
+  @Test
+  @DisplayName("Test cache miss for a currency which is not cached")
+  void testCacheMissForUnknownCurrency() {
+    // Given
+    exchangeRateCache.update(euroBaseExchangeRate());
+
+    // When and Then
+    Assertions.assertThat(exchangeRateCache.getRate("EUR", "JPY")).isNaN();
+    Assertions.assertThat(exchangeRateCache.getRate(null, "USD")).isNaN();
+  }
+
+  @Test
+  @DisplayName("Test expired rates are served only as stale rates within the max staleness")
+  void testTtlAndMaxStaleness() {
+    // Given
+    exchangeRateCache.update(euroBaseExchangeRate());
+
+    // When
+    clock.advance(Duration.ofHours(3));
+
+    // Then
+    Assertions.assertThat(exchangeRateCache.getRate("EUR", "USD")).isNaN();
+    Assertions.assertThat(exchangeRateCache.getStaleCrossRates().getCrossRate("EUR", "USD"))
+        .isEqualTo(0.9825);
+
+    // When
+    clock.advance(Duration.ofHours(22));
+
+    // Then
+    Assertions.assertThat(exchangeRateCache.getStaleCrossRates()).isNull();
+  }
+
+  @Test
+  @DisplayName("Test cross rates past the ttl are flagged as stale")
+  void testStaleCrossRates() {
+    // Given
+    exchangeRateCache.update(euroBaseExchangeRate());
+    CrossRateMatrix crossRates = exchangeRateCache.getFreshCrossRates();
+
+    // When and Then
+    Assertions.assertThat(exchangeRateCache.isStale(crossRates)).isFalse();
+
+    // When
+    clock.advance(Duration.ofHours(3));
+
+    // Then
+    Assertions.assertThat(exchangeRateCache.getFreshCrossRates()).isNull();
+    Assertions.assertThat(exchangeRateCache.getStaleCrossRates()).isSameAs(crossRates);
+    Assertions.assertThat(exchangeRateCache.isStale(crossRates)).isTrue();
+  }
+
+  @Test
+  @DisplayName("Test the primitive lookup answers NaN on a cache miss")
+  void testPrimitiveLookup() {
+    // Given
+    exchangeRateCache.update(euroBaseExchangeRate());
+
+    // When and Then
+    Assertions.assertThat(exchangeRateCache.getRate("EUR", "USD")).isEqualTo(0.9825);
+    Assertions.assertThat(exchangeRateCache.getRate("EUR", "JPY")).isNaN();
+    Assertions.assertThat(exchangeRateCache.getFreshCrossRates().getTimestamp())
+        .isEqualTo(clock.millis());
+
+    // When
+    clock.advance(Duration.ofHours(3));
+
+    // Then
+    Assertions.assertThat(exchangeRateCache.getRate("EUR", "USD")).isNaN();
+    Assertions.assertThat(exchangeRateCache.getStaleCrossRates().getCrossRate("EUR", "USD"))
+        .isEqualTo(0.9825);
+  }
+
+  private static ExchangeRate euroBaseExchangeRate() {
+    ConversionRates conversionRates = new ConversionRates();
+    conversionRates.setEur(1d);
+    conversionRates.setUsd(0.9825);
+    conversionRates.setGbp(0.875);
+    conversionRates.setChf(0.9841);
+    return ExchangeRate.builder().baseCode("EUR").conversionRates(conversionRates).build();
+  }
+
+}
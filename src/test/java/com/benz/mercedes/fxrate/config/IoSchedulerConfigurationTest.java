@@ -0,0 +1,81 @@
+package com.benz.mercedes.fxrate.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+@DisplayName("Io Scheduler Configuration Test")
+public class IoSchedulerConfigurationTest {
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  private Scheduler ioScheduler;
+
+  @BeforeEach
+  void setUp() {
+    FxRateProperties fxRateProperties = new FxRateProperties();
+    fxRateProperties.getIo().setThreads(1);
+    fxRateProperties.getIo().setQueueCapacity(1);
+    DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+    beanFactory.registerSingleton("meterRegistry", meterRegistry);
+    ioScheduler = new IoSchedulerConfiguration().ioScheduler(fxRateProperties,
+        beanFactory.getBeanProvider(MeterRegistry.class));
+  }
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    ioScheduler.dispose();
+  }
+
+  @Test
+  @DisplayName("Test blocking work runs on the named fxrate-io threads")
+  void testThreadName() {
+    // Given , When
+    Mono<String> threadName = Mono.fromCallable(() -> Thread.currentThread().getName())
+        .subscribeOn(ioScheduler);
+
+    // Then
+    StepVerifier.create(threadName)
+        .assertNext(name -> Assertions.assertThat(name).startsWith("fxrate-io-"))
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Test work beyond the pool and queue capacity is rejected and the queue is measured")
+  void testSaturation() {
+    // Given
+    ioScheduler.schedule(this::awaitRelease);
+    ioScheduler.schedule(this::awaitRelease);
+
+    // When , Then
+    Assertions.assertThatExceptionOfType(RejectedExecutionException.class)
+        .isThrownBy(() -> ioScheduler.schedule(this::awaitRelease));
+    Assertions.assertThat(meterRegistry.get("executor.queued")
+        .tag("name", IoSchedulerConfiguration.IO_SCHEDULER_NAME).gauge().value()).isEqualTo(1d);
+    Assertions.assertThat(meterRegistry.get("executor.queue.remaining")
+        .tag("name", IoSchedulerConfiguration.IO_SCHEDULER_NAME).gauge().value()).isZero();
+  }
+
+  private void awaitRelease() {
+    try {
+      release.await();
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
@@ -1,14 +1,32 @@
 package com.benz.mercedes.fxrate.controller;
 
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 
+import com.benz.mercedes.fxrate.config.BinaryCodecConfiguration;
+import com.benz.mercedes.fxrate.domain.ConversionRequest;
+import com.benz.mercedes.fxrate.domain.ConversionResult;
+import com.benz.mercedes.fxrate.domain.RateChangeEvent;
+import com.benz.mercedes.fxrate.domain.SchedulerStatus;
+import com.benz.mercedes.fxrate.domain.jaxb.CurrencyChangeDetails;
 import com.benz.mercedes.fxrate.domain.jaxb.ExchangeRateDetails;
+import com.benz.mercedes.fxrate.exception.UnknownCurrencyException;
+import com.benz.mercedes.fxrate.report.EncodedReport;
+import com.benz.mercedes.fxrate.report.ReportCursor;
+import com.benz.mercedes.fxrate.report.ReportFormat;
+import com.benz.mercedes.fxrate.report.ReportPage;
+import com.benz.mercedes.fxrate.report.ReportQuery;
+import com.benz.mercedes.fxrate.scheduler.ExchangeRateScheduler;
 import com.benz.mercedes.fxrate.service.ExchangeRateService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import feign.FeignException;
 import feign.Request;
 import feign.RequestTemplate;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,13 +36,29 @@ import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWeb
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 @AutoConfigureWebTestClient(timeout = "36000")
 @ExtendWith(SpringExtension.class)
@@ -38,18 +72,56 @@ public class ExchangeRateControllerTest {
   @MockBean
   private ExchangeRateService exchangeRateService;
 
+  @MockBean
+  private ExchangeRateScheduler exchangeRateScheduler;
+
   @Test
   @DisplayName("Test Trigger Scheduler")
   void testTriggerScheduler() {
     //Given
-    Mockito.when(exchangeRateService.triggerScheduler())
-        .thenReturn(Mono.empty());
+    Mockito.when(exchangeRateScheduler.runNow())
+        .thenReturn(Mono.just(SchedulerStatus.builder().running(true).build()));
     //When & Then
     webClient.get().uri("/api/exchangerate")
         .exchange()
         .expectStatus().isOk();
 
-    Mockito.verify(exchangeRateService, times(1)).triggerScheduler();
+    Mockito.verify(exchangeRateScheduler, times(1)).start();
+    Mockito.verify(exchangeRateScheduler, times(1)).runNow();
+  }
+
+  @Test
+  @DisplayName("Test Scheduler Status, Start, Stop and Run")
+  void testSchedulerLifecycle() {
+    //Given
+    SchedulerStatus running = SchedulerStatus.builder().running(true).build();
+    SchedulerStatus stopped = SchedulerStatus.builder().running(false).build();
+    Mockito.when(exchangeRateScheduler.getStatus()).thenReturn(running);
+    Mockito.when(exchangeRateScheduler.start()).thenReturn(running);
+    Mockito.when(exchangeRateScheduler.stop()).thenReturn(stopped);
+    Mockito.when(exchangeRateScheduler.runNow()).thenReturn(Mono.just(stopped));
+
+    //When & Then
+    webClient.get().uri("/api/exchangerate/scheduler")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody(SchedulerStatus.class).isEqualTo(running);
+    webClient.post().uri("/api/exchangerate/scheduler/start")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody(SchedulerStatus.class).isEqualTo(running);
+    webClient.post().uri("/api/exchangerate/scheduler/stop")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody(SchedulerStatus.class).isEqualTo(stopped);
+    webClient.post().uri("/api/exchangerate/scheduler/run")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody(SchedulerStatus.class).isEqualTo(stopped);
+
+    Mockito.verify(exchangeRateScheduler, times(1)).start();
+    Mockito.verify(exchangeRateScheduler, times(1)).stop();
+    Mockito.verify(exchangeRateScheduler, times(1)).runNow();
   }
 
   @Test
@@ -71,6 +143,91 @@ public class ExchangeRateControllerTest {
     Mockito.verify(exchangeRateService, times(1)).getExchangeRate(baseCurrency, targetCurrency);
   }
 
+  @Test
+  @DisplayName("Test Get ExchangeRate served from stale rates carries the Warning header")
+  void testGetExchangeRateStale() {
+    //Given
+    Mockito.when(exchangeRateService.getExchangeRate("EUR", "USD"))
+        .thenReturn(Mono.just(0.9818));
+    Mockito.when(exchangeRateService.isServingStaleRates()).thenReturn(true);
+
+    //When & Then
+    webClient.get()
+        .uri("/api/exchangerate/pair/{baseCurrency}/{targetCurrency}", "EUR", "USD")
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().valueEquals(HttpHeaders.WARNING, ExchangeRateController.STALE_WARNING)
+        .expectBody(Double.class).isEqualTo(0.9818);
+  }
+
+  @Test
+  @DisplayName("Test Get ExchangeRate with a failing exchangerate-api is a bad gateway")
+  void testGetExchangeRateUpstreamFailure() {
+    //Given
+    Request request = Request.create(Request.HttpMethod.GET,
+        "https://v6.exchangerate-api.com/v6/dfc4b4b26dafbfc23a1dfee4/latest/EUR",
+        new HashMap<>(), null, new RequestTemplate());
+    FeignException feignException = new FeignException.ServiceUnavailable(
+        "503 Service Unavailable", request, new byte[0], new HashMap<>());
+    Mockito.when(exchangeRateService.getExchangeRate("EUR", "USD"))
+        .thenReturn(Mono.error(feignException));
+
+    //When & Then
+    webClient.get()
+        .uri("/api/exchangerate/pair/{baseCurrency}/{targetCurrency}", "EUR", "USD")
+        .exchange()
+        .expectStatus().isEqualTo(HttpStatus.BAD_GATEWAY);
+  }
+
+  @Test
+  @DisplayName("Test Get ExchangeRate with an open circuit breaker is service unavailable")
+  void testGetExchangeRateCircuitBreakerOpen() {
+    //Given
+    Mockito.when(exchangeRateService.getExchangeRate("EUR", "USD"))
+        .thenReturn(Mono.error(CallNotPermittedException.createCallNotPermittedException(
+            CircuitBreaker.ofDefaults("exchangerate-api"))));
+
+    //When & Then
+    webClient.get()
+        .uri("/api/exchangerate/pair/{baseCurrency}/{targetCurrency}", "EUR", "USD")
+        .exchange()
+        .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)
+        .expectBody()
+        .jsonPath("$.code").isEqualTo(503);
+  }
+
+  @Test
+  @DisplayName("Test Get ExchangeRate revalidated with the ETag is not read again")
+  void testGetExchangeRateNotModified() {
+
+    //Given
+    Mockito.when(exchangeRateService.getLastRateChange()).thenReturn(1666524863563L);
+    Mockito.when(exchangeRateService.getExchangeRate("EUR", "USD"))
+        .thenReturn(Mono.just(0.9818));
+    Mockito.when(exchangeRateService.getExchangeRate("EUR", "GBP"))
+        .thenReturn(Mono.just(0.8716));
+    String eTag = webClient.get().uri("/api/exchangerate/pair/EUR/USD")
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().cacheControl(CacheControl.maxAge(Duration.ofMinutes(1)))
+        .expectHeader().lastModified(1666524863000L)
+        .returnResult(Double.class).getResponseHeaders().getETag();
+
+    //When & Then
+    webClient.get().uri("/api/exchangerate/pair/EUR/USD")
+        .ifNoneMatch(eTag)
+        .exchange()
+        .expectStatus().isNotModified()
+        .expectHeader().valueEquals(HttpHeaders.ETAG, eTag)
+        .expectBody().isEmpty();
+    webClient.get().uri("/api/exchangerate/pair/EUR/GBP")
+        .ifNoneMatch(eTag)
+        .exchange()
+        .expectStatus().isOk();
+
+    Mockito.verify(exchangeRateService, times(1)).getExchangeRate("EUR", "USD");
+  }
+
   @Test
   @DisplayName("Test Exchange Rate with valid base and target currency in small cases")
   void testExchangeRateSuccessScenario() {
@@ -130,6 +287,24 @@ public class ExchangeRateControllerTest {
     Mockito.verify(exchangeRateService, times(1)).getExchangeRate(baseCurrency, targetCurrency);
   }
 
+  @Test
+  @DisplayName("Test Exchange Rate of a currency missing from the Euro base rates")
+  void testExchangeRateUnknownCurrency() {
+    //Given
+    String baseCurrency = "EUR";
+    String targetCurrency = "XYZ";
+    Mockito.when(exchangeRateService.getExchangeRate(baseCurrency, targetCurrency))
+        .thenReturn(Mono.error(new UnknownCurrencyException(baseCurrency, targetCurrency)));
+
+    //When & Then
+    webClient.get()
+        .uri("/api/exchangerate/pair/{baseCurrency}/{targetCurrency}", baseCurrency, targetCurrency)
+        .exchange()
+        .expectStatus().isNotFound()
+        .expectBody()
+        .jsonPath("$.details[0]").isEqualTo("Unsupported currency pair EUR/XYZ");
+  }
+
   @Test
   @DisplayName("Test Exchange Rate with valid base and invalid target currency")
   void testExchangeRateInvalidScenario2() {
@@ -212,22 +387,240 @@ public class ExchangeRateControllerTest {
 
   }
 
+  @Test
+  @DisplayName("Test Convert an amount with the current exchange rate")
+  void testConvertAmount() {
+
+    //Given
+    ConversionResult conversionResult = ConversionResult.builder().base("EUR").target("USD")
+        .amount(250.5).rate(0.9818).convertedAmount(245.9409).build();
+    Mockito.when(exchangeRateService.convert("EUR", "USD", 250.5))
+        .thenReturn(Mono.just(conversionResult));
+
+    //When & Then
+    webClient.get().uri("/api/exchangerate/pair/EUR/USD/250.5")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody(ConversionResult.class).isEqualTo(conversionResult);
+  }
+
+  @Test
+  @DisplayName("Test Convert an amount as CBOR with the rates time in epoch millis")
+  void testConvertAmountAsCbor() throws IOException {
+
+    //Given
+    ConversionResult conversionResult = ConversionResult.builder().base("EUR").target("USD")
+        .amount(250.5).rate(0.9818).convertedAmount(245.9409)
+        .ratesAt(Instant.ofEpochMilli(1666524863563L)).build();
+    Mockito.when(exchangeRateService.convert("EUR", "USD", 250.5))
+        .thenReturn(Mono.just(conversionResult));
+
+    //When
+    byte[] payload = webClient.get().uri("/api/exchangerate/pair/EUR/USD/250.5")
+        .accept(MediaType.APPLICATION_CBOR)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR)
+        .expectBody(byte[].class).returnResult().getResponseBody();
+
+    //Then
+    JsonNode jsonNode = new ObjectMapper(new CBORFactory()).readTree(payload);
+    Assertions.assertThat(jsonNode.get("convertedAmount").doubleValue()).isEqualTo(245.9409);
+    Assertions.assertThat(jsonNode.get("ratesAt").longValue()).isEqualTo(1666524863563L);
+  }
+
+  @Test
+  @DisplayName("Test Get ExchangeRate answers a wildcard Accept header as JSON")
+  void testGetExchangeRateWildcardAccept() {
+
+    //Given
+    Mockito.when(exchangeRateService.getExchangeRate("EUR", "USD"))
+        .thenReturn(Mono.just(0.9818));
+
+    //When & Then
+    webClient.get().uri("/api/exchangerate/pair/EUR/USD")
+        .header(HttpHeaders.ACCEPT, "text/html,application/xhtml+xml,*/*;q=0.8")
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentType(MediaType.APPLICATION_JSON)
+        .expectBody(Double.class).isEqualTo(0.9818);
+    webClient.get().uri("/api/exchangerate/pair/EUR/USD")
+        .accept(BinaryCodecConfiguration.APPLICATION_SMILE)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentType(BinaryCodecConfiguration.APPLICATION_SMILE);
+  }
+
+  @Test
+  @DisplayName("Test Convert an amount which is not a number")
+  void testConvertAmountInvalid() {
+
+    //When & Then
+    webClient.get().uri("/api/exchangerate/pair/EUR/USD/abc")
+        .exchange()
+        .expectStatus().isBadRequest();
+
+    Mockito.verify(exchangeRateService, times(0))
+        .convert(Mockito.anyString(), Mockito.anyString(), Mockito.anyDouble());
+  }
+
+  @Test
+  @DisplayName("Test Convert a JSON array of amounts")
+  void testConvertBatch() {
+
+    //Given
+    mockBatchConversion();
+
+    //When & Then
+    webClient.post().uri("/api/exchangerate/convert")
+        .contentType(MediaType.APPLICATION_JSON)
+        .accept(MediaType.APPLICATION_JSON)
+        .bodyValue("[{\"base\":\"EUR\",\"target\":\"USD\",\"amount\":100},"
+            + "{\"base\":\"GBP\",\"target\":\"CHF\",\"amount\":20.5}]")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBodyList(ConversionResult.class)
+        .value(conversionResults -> Assertions.assertThat(conversionResults)
+            .extracting(ConversionResult::getConvertedAmount)
+            .containsExactly(200d, 41d));
+  }
+
+  @Test
+  @DisplayName("Test Convert an NDJSON stream of amounts")
+  void testConvertBatchNdjson() {
+
+    //Given
+    mockBatchConversion();
+
+    //When & Then
+    webClient.post().uri("/api/exchangerate/convert")
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .accept(MediaType.APPLICATION_NDJSON)
+        .bodyValue("{\"base\":\"EUR\",\"target\":\"USD\",\"amount\":100}\n"
+            + "{\"base\":\"EUR\",\"target\":\"GBP\",\"amount\":1}\n"
+            + "{\"base\":\"EUR\",\"target\":\"CHF\",\"amount\":3}\n")
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+        .expectBodyList(ConversionResult.class).hasSize(3);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void mockBatchConversion() {
+    Mockito.when(exchangeRateService.convert(Mockito.<Flux<ConversionRequest>>any()))
+        .thenAnswer(invocation -> ((Flux<ConversionRequest>) invocation.getArgument(0))
+            .map(conversionRequest -> ConversionResult.builder()
+                .base(conversionRequest.getBase())
+                .target(conversionRequest.getTarget())
+                .amount(conversionRequest.getAmount())
+                .rate(2d)
+                .convertedAmount(conversionRequest.getAmount() * 2)
+                .build()));
+  }
+
   @Test
   @DisplayName("Test Read Daily Report Data")
   void testReadDailyReportData() {
 
     //Given
-    Mockito.when(exchangeRateService.readReportData(anyString()))
-        .thenReturn(Mono.just(ExchangeRateDetails.builder().build()));
+    byte[] payload = "{\"euroCurrencyChanges\":[]}".getBytes(StandardCharsets.UTF_8);
+    Mockito.when(exchangeRateService.readEncodedDailyReport(ReportFormat.JSON))
+        .thenReturn(Mono.just(new EncodedReport(1666524863563L, payload, null)));
 
     //When & Then
     webClient.get().uri("/api/exchangerate/daily-report")
         .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
         .exchange()
         .expectStatus().isOk()
+        .expectHeader().contentLength(payload.length)
         .expectBody(ExchangeRateDetails.class);
 
-    Mockito.verify(exchangeRateService, times(1)).readReportData(anyString());
+    Mockito.verify(exchangeRateService, times(1)).readEncodedDailyReport(ReportFormat.JSON);
+  }
+
+  @Test
+  @DisplayName("Test Read Daily Report Data gzip compressed")
+  void testReadDailyReportDataGzip() throws IOException {
+
+    //Given
+    String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><ExchangeRateDetails/>";
+    ByteArrayOutputStream gzipPayload = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(gzipPayload)) {
+      gzipOutputStream.write(xml.getBytes(StandardCharsets.UTF_8));
+    }
+    Mockito.when(exchangeRateService.readEncodedDailyReport(ReportFormat.XML))
+        .thenReturn(Mono.just(new EncodedReport(1666524863563L,
+            xml.getBytes(StandardCharsets.UTF_8), gzipPayload.toByteArray())));
+
+    //When
+    byte[] body = webClient.get().uri("/api/exchangerate/daily-report")
+        .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_XML_VALUE)
+        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate")
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_XML)
+        .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip")
+        .expectBody(byte[].class).returnResult().getResponseBody();
+
+    //Then
+    try (GZIPInputStream gzipInputStream = new GZIPInputStream(new ByteArrayInputStream(body))) {
+      Assertions.assertThat(new String(gzipInputStream.readAllBytes(), StandardCharsets.UTF_8))
+          .isEqualTo(xml);
+    }
+  }
+
+  @Test
+  @DisplayName("Test Read Daily Report Data revalidated with If-Modified-Since is not read again")
+  void testReadDailyReportDataNotModified() {
+
+    //Given
+    Mockito.when(exchangeRateService.getDailyReportLastModified()).thenReturn(1666524863563L);
+
+    //When & Then
+    webClient.get().uri("/api/exchangerate/daily-report")
+        .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+        .ifModifiedSince(ZonedDateTime.parse("2022-10-23T11:34:23Z"))
+        .exchange()
+        .expectStatus().isNotModified();
+
+    Mockito.verify(exchangeRateService, times(0)).readEncodedDailyReport(Mockito.any());
+  }
+
+  @Test
+  @DisplayName("Test Read Currency Exchange Report Data revalidated with the ETag")
+  void testReadCurrencyExchangeReportDataNotModified() {
+
+    //Given
+    Mockito.when(exchangeRateService.getLastRateChange()).thenReturn(1666524863563L);
+    Mockito.when(exchangeRateService.readEncodedExchangeRateHistory(ReportFormat.XML))
+        .thenReturn(Mono.empty());
+    ReportPage reportPage = new ReportPage(List.of(), null);
+    Mockito.when(exchangeRateService.readExchangeRateHistoryPage(ReportQuery.all()))
+        .thenReturn(Mono.just(reportPage));
+    Mockito.when(exchangeRateService.streamExchangeRateHistory(reportPage, ReportFormat.XML))
+        .thenReturn(Flux.just(dataBuffer("<ExchangeRateDetails/>")));
+    String eTag = webClient.get().uri("/api/exchangerate/report")
+        .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_XML_VALUE)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().value(HttpHeaders.VARY,
+            vary -> Assertions.assertThat(vary).contains(HttpHeaders.ACCEPT_ENCODING))
+        .returnResult(String.class).getResponseHeaders().getETag();
+
+    //When & Then
+    webClient.get().uri("/api/exchangerate/report")
+        .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_XML_VALUE)
+        .ifNoneMatch(eTag)
+        .exchange()
+        .expectStatus().isNotModified();
+    Mockito.when(exchangeRateService.getLastRateChange()).thenReturn(1666532063563L);
+    webClient.get().uri("/api/exchangerate/report")
+        .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_XML_VALUE)
+        .ifNoneMatch(eTag)
+        .exchange()
+        .expectStatus().isOk();
+
+    Mockito.verify(exchangeRateService, times(2)).readExchangeRateHistoryPage(ReportQuery.all());
   }
 
   @Test
@@ -235,18 +628,200 @@ public class ExchangeRateControllerTest {
   void testReadCurrencyExchangeReportData() {
 
     //Given
-    Mockito.when(exchangeRateService.readReportData(anyString()))
-        .thenReturn(Mono.just(ExchangeRateDetails.builder().build()));
+    byte[] payload = ("{\"euroCurrencyChanges\":["
+        + "{\"date\":\"2022-10-23T11:34:23.563+00:00\",\"value\":1.0}]}")
+        .getBytes(StandardCharsets.UTF_8);
+    Mockito.when(exchangeRateService.readEncodedExchangeRateHistory(ReportFormat.JSON))
+        .thenReturn(Mono.just(new EncodedReport(1666524863563L, payload, null)));
 
     //When & Then
     webClient.get().uri("/api/exchangerate/report")
         .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
         .exchange()
         .expectStatus().isOk()
-        .expectBody(ExchangeRateDetails.class);
+        .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+        .expectHeader().doesNotExist(ExchangeRateController.NEXT_CURSOR_HEADER)
+        .expectBody(ExchangeRateDetails.class)
+        .value(exchangeRateDetails -> Assertions.assertThat(
+            exchangeRateDetails.getEuroCurrencyChanges()).hasSize(1));
+
+    Mockito.verify(exchangeRateService, times(1))
+        .readEncodedExchangeRateHistory(ReportFormat.JSON);
+    Mockito.verify(exchangeRateService, times(0)).readExchangeRateHistoryPage(Mockito.any());
+  }
+
+  @Test
+  @DisplayName("Test Read Currency Exchange Report Data as XML")
+  void testReadCurrencyExchangeReportDataAsXml() {
+
+    //Given
+    String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><ExchangeRateDetails/>";
+    // history too large to be kept encoded, streamed instead
+    Mockito.when(exchangeRateService.readEncodedExchangeRateHistory(ReportFormat.XML))
+        .thenReturn(Mono.empty());
+    ReportPage reportPage = new ReportPage(List.of(), null);
+    Mockito.when(exchangeRateService.readExchangeRateHistoryPage(ReportQuery.all()))
+        .thenReturn(Mono.just(reportPage));
+    Mockito.when(exchangeRateService.streamExchangeRateHistory(reportPage, ReportFormat.XML))
+        .thenReturn(Flux.just(dataBuffer(xml)));
+
+    //When & Then
+    webClient.get().uri("/api/exchangerate/report")
+        .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_XML_VALUE)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_XML)
+        .expectBody(String.class).isEqualTo(xml);
+
+    Mockito.verify(exchangeRateService, times(1))
+        .streamExchangeRateHistory(reportPage, ReportFormat.XML);
+  }
+
+  @Test
+  @DisplayName("Test Read a page of the Currency Exchange Report Data")
+  void testReadCurrencyExchangeReportDataPage() {
+
+    //Given
+    ReportCursor cursor = new ReportCursor("USD", 1666524863563L, 1);
+    ReportCursor nextCursor = new ReportCursor("CHF", 1666611263563L, 2);
+    ReportQuery reportQuery = ReportQuery.builder()
+        .from(Instant.parse("2022-10-23T00:00:00Z").toEpochMilli())
+        .to(Instant.parse("2022-10-25T00:00:00Z").toEpochMilli())
+        .currencies(List.of("USD", "CHF"))
+        .cursor(cursor)
+        .limit(100)
+        .build();
+    ReportPage reportPage = new ReportPage(List.of(), nextCursor);
+    Mockito.when(exchangeRateService.readExchangeRateHistoryPage(reportQuery))
+        .thenReturn(Mono.just(reportPage));
+    Mockito.when(exchangeRateService.streamExchangeRateHistory(reportPage, ReportFormat.JSON))
+        .thenReturn(Flux.just(dataBuffer("{}")));
+
+    //When & Then
+    webClient.get().uri(uriBuilder -> uriBuilder.path("/api/exchangerate/report")
+            .queryParam("from", "2022-10-23T00:00:00Z")
+            .queryParam("to", "2022-10-25T00:00:00Z")
+            .queryParam("currencies", "USD", "CHF")
+            .queryParam("cursor", cursor.encode())
+            .queryParam("limit", 100)
+            .build())
+        .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().valueEquals(ExchangeRateController.NEXT_CURSOR_HEADER, nextCursor.encode());
+
+    Mockito.verify(exchangeRateService, times(1)).readExchangeRateHistoryPage(reportQuery);
+  }
+
+  @Test
+  @DisplayName("Test Read Currency Exchange Report Data with an invalid cursor")
+  void testReadCurrencyExchangeReportDataInvalidCursor() {
+
+    //When & Then
+    webClient.get().uri("/api/exchangerate/report?cursor=invalid")
+        .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+        .exchange()
+        .expectStatus().isBadRequest();
 
-    Mockito.verify(exchangeRateService, times(1)).readReportData(anyString());
+    Mockito.verifyNoInteractions(exchangeRateService);
   }
 
+  @Test
+  @DisplayName("Test Read Currency Exchange Report Data with an unknown currency")
+  void testReadCurrencyExchangeReportDataUnknownCurrency() {
+
+    //Given
+    Mockito.when(exchangeRateService.readExchangeRateHistoryPage(Mockito.any()))
+        .thenReturn(Mono.error(new IllegalArgumentException("Unknown currency XYZ")));
+
+    //When & Then
+    webClient.get().uri("/api/exchangerate/report?currencies=XYZ")
+        .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+        .exchange()
+        .expectStatus().isBadRequest();
+  }
+
+  @Test
+  @DisplayName("Test Read Currency Exchange History in a time range")
+  void testReadCurrencyExchangeHistory() {
+
+    //Given
+    Instant from = Instant.parse("2022-10-23T00:00:00Z");
+    Instant to = Instant.parse("2022-10-24T00:00:00Z");
+    Mockito.when(exchangeRateService.readExchangeRateHistory("USD", from, to))
+        .thenReturn(Flux.just(CurrencyChangeDetails.builder()
+            .date(Date.from(Instant.parse("2022-10-23T11:34:23Z"))).value(0.9825).build()));
+
+    //When & Then
+    webClient.get()
+        .uri("/api/exchangerate/history/{currency}?from={from}&to={to}", "USD", from, to)
+        .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+        .exchange()
+        .expectStatus().isOk()
+        .expectBodyList(CurrencyChangeDetails.class).hasSize(1);
+
+    Mockito.verify(exchangeRateService, times(1)).readExchangeRateHistory("USD", from, to);
+  }
+
+  @Test
+  @DisplayName("Test Stream Rate Changes as NDJSON")
+  void testStreamRateChanges() {
+
+    //Given
+    RateChangeEvent rateChangeEvent = RateChangeEvent.builder()
+        .date(Instant.parse("2022-10-23T11:34:23Z")).currency("USD").value(0.9825)
+        .previousValue(0.9818).build();
+    Mockito.when(exchangeRateService.streamRateChanges(List.of("USD")))
+        .thenReturn(Flux.just(rateChangeEvent));
+
+    //When & Then
+    webClient.get().uri("/api/exchangerate/changes?currency=USD")
+        .accept(MediaType.APPLICATION_NDJSON)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+        .expectBodyList(RateChangeEvent.class)
+        .value(rateChangeEvents -> Assertions.assertThat(rateChangeEvents)
+            .containsExactly(rateChangeEvent));
+
+    Mockito.verify(exchangeRateService, times(1)).streamRateChanges(List.of("USD"));
+  }
+
+  @Test
+  @DisplayName("Test Stream Rate Changes as Server-Sent Events")
+  void testStreamRateChangesAsServerSentEvents() {
+
+    //Given
+    Mockito.when(exchangeRateService.streamRateChanges(null))
+        .thenReturn(Flux.just(RateChangeEvent.builder().currency("GBP").value(0.875).build()));
+
+    //When & Then
+    webClient.get().uri("/api/exchangerate/changes")
+        .accept(MediaType.TEXT_EVENT_STREAM)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+        .expectBodyList(RateChangeEvent.class).hasSize(1);
+  }
+
+  @Test
+  @DisplayName("Test Export Currency Exchange Report Data")
+  void testExportCurrencyExchangeReportData() {
+
+    //Given
+    Mockito.when(exchangeRateService.exportExchangeRateHistory())
+        .thenReturn(Mono.empty());
+
+    //When & Then
+    webClient.post().uri("/api/exchangerate/report/export")
+        .exchange()
+        .expectStatus().isOk();
+
+    Mockito.verify(exchangeRateService, times(1)).exportExchangeRateHistory();
+  }
+
+  private static DataBuffer dataBuffer(String content) {
+    return DefaultDataBufferFactory.sharedInstance.wrap(content.getBytes(StandardCharsets.UTF_8));
+  }
 
 }
@@ -0,0 +1,48 @@
+package com.benz.mercedes.fxrate.domain;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Conversion Rates Test")
+public class ConversionRatesTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  @DisplayName("Test every currency of the exchangerate-api response is kept")
+  void testReadAllCurrencies() throws JsonProcessingException {
+    // Given
+    String json = "{\"base_code\":\"EUR\",\"conversion_rates\":"
+        + "{\"EUR\":1,\"USD\":0.9825,\"GBP\":0.875,\"CHF\":0.9841,\"JPY\":145.2}}";
+
+    // When
+    ExchangeRate exchangeRate = objectMapper.readValue(json, ExchangeRate.class);
+
+    // Then
+    ConversionRates conversionRates = exchangeRate.getConversionRates();
+    Assertions.assertThat(conversionRates.getRates()).hasSize(5);
+    Assertions.assertThat(conversionRates.getEur()).isEqualTo(1d);
+    Assertions.assertThat(conversionRates.getUsd()).isEqualTo(0.9825);
+    Assertions.assertThat(conversionRates.getRate("jpy")).isEqualTo(145.2);
+    Assertions.assertThat(conversionRates.getRate("SEK")).isNull();
+  }
+
+  @Test
+  @DisplayName("Test the rates are written with the exchangerate-api shape")
+  void testWrite() throws JsonProcessingException {
+    // Given
+    ConversionRates conversionRates = new ConversionRates();
+    conversionRates.setUsd(0.9825);
+    conversionRates.setRate("JPY", 145.2);
+
+    // When
+    String json = objectMapper.writeValueAsString(conversionRates);
+
+    // Then
+    Assertions.assertThat(json).isEqualTo("{\"USD\":0.9825,\"JPY\":145.2}");
+  }
+
+}
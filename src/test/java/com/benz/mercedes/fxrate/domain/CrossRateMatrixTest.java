@@ -0,0 +1,73 @@
+package com.benz.mercedes.fxrate.domain;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+@DisplayName("Cross Rate Matrix Test")
+public class CrossRateMatrixTest {
+
+  @Test
+  @DisplayName("Test every pair is triangulated against EUR from one snapshot")
+  void testTriangulation() {
+    // Given
+    ConversionRates conversionRates = new ConversionRates();
+    conversionRates.setEur(1d);
+    conversionRates.setUsd(0.9825);
+    conversionRates.setGbp(0.875);
+    RateSnapshot rateSnapshot = RateSnapshot.of(conversionRates, 1000L);
+
+    // When
+    CrossRateMatrix crossRateMatrix = CrossRateMatrix.of(rateSnapshot, MathContext.UNLIMITED);
+
+    // Then
+    Assertions.assertThat(crossRateMatrix.getTimestamp()).isEqualTo(1000L);
+    Assertions.assertThat(crossRateMatrix.getRateSnapshot()).isSameAs(rateSnapshot);
+    Assertions.assertThat(crossRateMatrix.getCrossRate("EUR", "USD")).isEqualTo(0.9825);
+    Assertions.assertThat(crossRateMatrix.getCrossRate("usd", "gbp"))
+        .isCloseTo(0.875 / 0.9825, Offset.offset(1e-12));
+    Assertions.assertThat(crossRateMatrix.getCrossRate("GBP", "GBP")).isEqualTo(1d);
+  }
+
+  @Test
+  @DisplayName("Test the cross rates are rounded to the configured significant digits")
+  void testRounding() {
+    // Given
+    ConversionRates conversionRates = new ConversionRates();
+    conversionRates.setEur(1d);
+    conversionRates.setUsd(0.9825);
+    conversionRates.setGbp(0.875);
+
+    // When
+    CrossRateMatrix crossRateMatrix = CrossRateMatrix.of(RateSnapshot.of(conversionRates, 1000L),
+        new MathContext(4, RoundingMode.HALF_UP));
+
+    // Then
+    Assertions.assertThat(crossRateMatrix.getCrossRate("GBP", "USD")).isEqualTo(1.123);
+    Assertions.assertThat(crossRateMatrix.getCrossRate("USD", "GBP")).isEqualTo(0.8906);
+  }
+
+  @Test
+  @DisplayName("Test a pair with a missing or unknown currency is NaN")
+  void testUnknownCurrency() {
+    // Given
+    ConversionRates conversionRates = new ConversionRates();
+    conversionRates.setEur(1d);
+    conversionRates.setUsd(0.9825);
+
+    // When
+    CrossRateMatrix crossRateMatrix = CrossRateMatrix.of(RateSnapshot.of(conversionRates, 1000L),
+        MathContext.UNLIMITED);
+
+    // Then
+    Assertions.assertThat(crossRateMatrix.getCrossRate("EUR", "CHF")).isNaN();
+    Assertions.assertThat(crossRateMatrix.getCrossRate("EUR", "XYZ")).isNaN();
+    Assertions.assertThat(crossRateMatrix.getCrossRate(null, "USD")).isNaN();
+    Assertions.assertThat(crossRateMatrix.getCrossRate(-1, 0)).isNaN();
+  }
+
+}
@@ -0,0 +1,64 @@
+package com.benz.mercedes.fxrate.domain;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@DisplayName("Currency Table Test")
+public class CurrencyTableTest {
+
+  @Test
+  @DisplayName("Test the four report currencies take the first ordinals")
+  void testDefaultCurrencies() {
+    // Given , When , Then
+    Assertions.assertThat(CurrencyTable.ordinal("EUR")).isZero();
+    Assertions.assertThat(CurrencyTable.ordinal("usd")).isEqualTo(1);
+    Assertions.assertThat(CurrencyTable.code(2)).isEqualTo("GBP");
+    Assertions.assertThat(CurrencyTable.code(3)).isEqualTo("CHF");
+  }
+
+  @Test
+  @DisplayName("Test a new currency is registered once with a stable ordinal")
+  void testRegister() {
+    // Given , When
+    int ordinal = CurrencyTable.register("jpy");
+
+    // Then
+    Assertions.assertThat(CurrencyTable.register("JPY")).isEqualTo(ordinal);
+    Assertions.assertThat(CurrencyTable.ordinal("JPY")).isEqualTo(ordinal);
+    Assertions.assertThat(CurrencyTable.code(ordinal)).isEqualTo("JPY");
+    Assertions.assertThat(CurrencyTable.size()).isGreaterThan(ordinal);
+  }
+
+  @Test
+  @DisplayName("Test an invalid currency code is rejected")
+  void testRegisterInvalidCurrencyCode() {
+    // Given , When , Then
+    Assertions.assertThatIllegalArgumentException()
+        .isThrownBy(() -> CurrencyTable.register("EURO"));
+    Assertions.assertThat(CurrencyTable.ordinal("EURO")).isEqualTo(-1);
+    Assertions.assertThat(CurrencyTable.ordinal(null)).isEqualTo(-1);
+  }
+
+  @Test
+  @DisplayName("Test rates by currency code are indexed by ordinal")
+  void testToRates() {
+    // Given
+    Map<String, Double> ratesByCode = new LinkedHashMap<>();
+    ratesByCode.put("USD", 0.9825);
+    ratesByCode.put("SEK", 10.9);
+
+    // When
+    double[] rates = CurrencyTable.toRates(ratesByCode);
+
+    // Then
+    Assertions.assertThat(rates).hasSize(CurrencyTable.size());
+    Assertions.assertThat(rates[CurrencyTable.ordinal("USD")]).isEqualTo(0.9825);
+    Assertions.assertThat(rates[CurrencyTable.ordinal("SEK")]).isEqualTo(10.9);
+    Assertions.assertThat(rates[CurrencyTable.ordinal("EUR")]).isNaN();
+  }
+
+}
@@ -0,0 +1,48 @@
+package com.benz.mercedes.fxrate.domain;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Rate Snapshot Test")
+public class RateSnapshotTest {
+
+  @Test
+  @DisplayName("Test rates and cross rates are read by currency code and ordinal")
+  void testCrossRate() {
+    // Given
+    ConversionRates conversionRates = new ConversionRates();
+    conversionRates.setEur(1d);
+    conversionRates.setUsd(0.9825);
+    conversionRates.setGbp(0.875);
+
+    // When
+    RateSnapshot rateSnapshot = RateSnapshot.of(conversionRates, 1000L);
+
+    // Then
+    Assertions.assertThat(rateSnapshot.getTimestamp()).isEqualTo(1000L);
+    Assertions.assertThat(rateSnapshot.getRate(CurrencyTable.ordinal("USD"))).isEqualTo(0.9825);
+    Assertions.assertThat(rateSnapshot.getCrossRate("GBP", "USD"))
+        .isCloseTo(0.9825 / 0.875, Offset.offset(1e-12));
+    Assertions.assertThat(rateSnapshot.getCrossRate("EUR", "CHF")).isNaN();
+    Assertions.assertThat(rateSnapshot.getCrossRate("EUR", "XYZ")).isNaN();
+    Assertions.assertThat(rateSnapshot.getRate(-1)).isNaN();
+  }
+
+  @Test
+  @DisplayName("Test the snapshot is not changed through the source or returned rates")
+  void testImmutable() {
+    // Given
+    double[] rates = {1d, 0.9825};
+    RateSnapshot rateSnapshot = RateSnapshot.of(rates, 1000L);
+
+    // When
+    rates[1] = 2d;
+    rateSnapshot.toRates()[1] = 3d;
+
+    // Then
+    Assertions.assertThat(rateSnapshot.getRate("USD")).isEqualTo(0.9825);
+  }
+
+}
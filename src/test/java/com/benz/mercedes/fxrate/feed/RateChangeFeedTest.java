@@ -0,0 +1,82 @@
+package com.benz.mercedes.fxrate.feed;
+
+import com.benz.mercedes.fxrate.config.FxRateProperties;
+import com.benz.mercedes.fxrate.domain.RateChangeEvent;
+import com.benz.mercedes.fxrate.metrics.FxRateMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.List;
+
+@DisplayName("Rate Change Feed Test")
+public class RateChangeFeedTest {
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private RateChangeFeed rateChangeFeed;
+
+  @BeforeEach
+  void setUp() {
+    FxRateProperties fxRateProperties = new FxRateProperties();
+    fxRateProperties.getFeed().setSubscriberBufferSize(2);
+    rateChangeFeed = new RateChangeFeed(fxRateProperties, new FxRateMetrics(meterRegistry));
+  }
+
+  @Test
+  @DisplayName("Test every subscriber receives the changes published after it subscribed")
+  void testMulticast() {
+    // Given
+    StepVerifier firstSubscriber = StepVerifier.create(rateChangeFeed.subscribe(null))
+        .expectNext(rateChange("USD", 0.9825))
+        .thenCancel()
+        .verifyLater();
+    StepVerifier usdSubscriber = StepVerifier.create(rateChangeFeed.subscribe(List.of("usd")))
+        .expectNext(rateChange("USD", 0.9825))
+        .thenCancel()
+        .verifyLater();
+
+    // When
+    rateChangeFeed.publish(List.of(rateChange("USD", 0.9825), rateChange("GBP", 0.875)));
+
+    // Then
+    firstSubscriber.verify();
+    usdSubscriber.verify();
+  }
+
+  @Test
+  @DisplayName("Test a slow subscriber keeps only the newest changes of its bounded buffer")
+  void testDropOldest() {
+    // Given , When , Then
+    StepVerifier.create(rateChangeFeed.subscribe(null), 0)
+        .then(() -> rateChangeFeed.publish(List.of(rateChange("USD", 0.97),
+            rateChange("USD", 0.98), rateChange("USD", 0.99))))
+        .thenRequest(2)
+        .expectNext(rateChange("USD", 0.98), rateChange("USD", 0.99))
+        .thenCancel()
+        .verify();
+    Assertions.assertThat(meterRegistry.get(FxRateMetrics.FEED_DROPPED).counter().count())
+        .isEqualTo(1d);
+  }
+
+  @Test
+  @DisplayName("Test publishing without subscribers is a no-op")
+  void testPublishWithoutSubscribers() {
+    // Given , When
+    rateChangeFeed.publish(List.of(rateChange("USD", 0.9825)));
+
+    // Then
+    Assertions.assertThat(rateChangeFeed.getSubscriberCount()).isZero();
+  }
+
+  private static RateChangeEvent rateChange(String currency, double value) {
+    return RateChangeEvent.builder().date(Instant.parse("2022-10-23T10:00:00Z"))
+        .currency(currency).value(value).build();
+  }
+
+}
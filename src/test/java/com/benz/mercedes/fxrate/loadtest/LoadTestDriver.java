@@ -0,0 +1,225 @@
+package com.benz.mercedes.fxrate.loadtest;
+
+import com.benz.mercedes.fxrate.ExchangeRateApplication;
+import com.benz.mercedes.fxrate.support.UpstreamStubServer;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Open-model load test of the ExchangeRateController endpoints. Starts the application against an
+ * {@link UpstreamStubServer} with injected latency and errors, sends requests at a fixed target
+ * rate regardless of the response times and reports throughput and latency percentiles per
+ * scenario. Latency is measured from the planned send time, so a stalled server is not hidden by
+ * the driver sending less (coordinated omission).
+ *
+ * <p>Settings are read from system properties, see the load-test Maven profile:
+ * loadtest.rps, loadtest.duration, loadtest.warmup, loadtest.scenarios,
+ * loadtest.upstream-latency, loadtest.upstream-error-rate and loadtest.cache-ttl.
+ */
+public final class LoadTestDriver {
+
+  private static final Duration TICK = Duration.ofMillis(10);
+
+  private static final long TICK_NANOS = TICK.toNanos();
+
+  private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+  private static final int MAX_CONNECTIONS = 1000;
+
+  private final WebClient webClient;
+
+  private final double requestsPerSecond;
+
+  private final Duration duration;
+
+  private final Duration warmup;
+
+  private final List<LoadTestScenario> scenarios;
+
+  private final Map<LoadTestScenario, ScenarioStats> stats = new EnumMap<>(
+      LoadTestScenario.class);
+
+  private final AtomicLong sequence = new AtomicLong();
+
+  LoadTestDriver(WebClient webClient, double requestsPerSecond, Duration duration,
+      Duration warmup, List<LoadTestScenario> scenarios) {
+    this.webClient = webClient;
+    this.requestsPerSecond = requestsPerSecond;
+    this.duration = duration;
+    this.warmup = warmup;
+    this.scenarios = scenarios;
+    scenarios.forEach(scenario -> stats.put(scenario, new ScenarioStats()));
+  }
+
+  public static void main(String[] args) throws IOException {
+    double requestsPerSecond = Double.parseDouble(System.getProperty("loadtest.rps", "200"));
+    Duration duration = getDuration("loadtest.duration", "60s");
+    Duration warmup = getDuration("loadtest.warmup", "10s");
+    List<LoadTestScenario> scenarios = getScenarios(
+        System.getProperty("loadtest.scenarios", "pair,pair_amount,convert,daily_report,report"));
+    Duration upstreamLatency = getDuration("loadtest.upstream-latency", "50ms");
+    double upstreamErrorRate = Double.parseDouble(
+        System.getProperty("loadtest.upstream-error-rate", "0"));
+    Duration cacheTtl = getDuration("loadtest.cache-ttl", "10s");
+
+    Path workDirectory = Files.createTempDirectory("fxrate-load-test");
+    try (UpstreamStubServer upstreamStubServer = UpstreamStubServer.start()) {
+      upstreamStubServer.setLatency(upstreamLatency);
+      upstreamStubServer.setErrorRate(upstreamErrorRate, HttpResponseStatus.SERVICE_UNAVAILABLE);
+      try (ConfigurableApplicationContext application = new SpringApplicationBuilder(
+          ExchangeRateApplication.class)
+          .properties("server.port=0",
+              "fxrate.upstream.base-url=" + upstreamStubServer.getBaseUrl(),
+              "fxrate.cache.ttl=" + cacheTtl.toMillis() + "ms",
+              "fxrate.history.journal-path=" + workDirectory.resolve("history.journal"),
+              "fxrate.history.xml-path=" + workDirectory.resolve("ExchangeRateDetails.xml"),
+              "fxrate.history.time-series-directory=" + workDirectory.resolve("timeseries"))
+          .run(args)) {
+        int port = ((WebServerApplicationContext) application).getWebServer().getPort();
+        WebClient webClient = WebClient.builder()
+            .baseUrl("http://localhost:" + port)
+            .clientConnector(new ReactorClientHttpConnector(HttpClient.create(
+                ConnectionProvider.builder("load-test")
+                    .maxConnections(MAX_CONNECTIONS)
+                    .pendingAcquireMaxCount(-1)
+                    .build())))
+            .build();
+
+        // one fetch, so the rates and the report history exist before the first request
+        webClient.post().uri("/api/exchangerate/scheduler/run").retrieve().toBodilessEntity()
+            .block(Duration.ofSeconds(30));
+
+        System.out.printf(Locale.ROOT, "Load test: %.0f rps for %s after %s warmup, upstream "
+                + "latency %s, upstream error rate %.3f, scenarios %s%n", requestsPerSecond,
+            duration, warmup, upstreamLatency, upstreamErrorRate, scenarios);
+        new LoadTestDriver(webClient, requestsPerSecond, duration, warmup, scenarios).run();
+        System.out.printf("exchangerate-api stub requests: %d%n",
+            upstreamStubServer.getRequestCount());
+      }
+    }
+  }
+
+  /**
+   * Sends the requests of every 10 ms tick at once, spreading the target rate evenly over the
+   * ticks, and prints the report once all responses arrived
+   */
+  void run() {
+    long warmupTicks = warmup.toNanos() / TICK_NANOS;
+    long ticks = warmupTicks + duration.toNanos() / TICK_NANOS;
+    long startNanos = System.nanoTime();
+    Flux.interval(TICK)
+        .take(ticks)
+        .onBackpressureBuffer()
+        .flatMap(tick -> Flux.range(0, getRequestsInTick(tick))
+            .flatMap(index -> send(startNanos + tick * TICK_NANOS, tick >= warmupTicks)),
+            Integer.MAX_VALUE)
+        .blockLast();
+    printReport(duration);
+  }
+
+  /**
+   * Whole requests of the tick, so the fractions of a rate below 100 rps add up over the ticks
+   */
+  int getRequestsInTick(long tick) {
+    double requestsPerTick = requestsPerSecond * TICK_NANOS / TimeUnit.SECONDS.toNanos(1);
+    return (int) (Math.floor((tick + 1) * requestsPerTick) - Math.floor(tick * requestsPerTick));
+  }
+
+  private Mono<Integer> send(long plannedNanos, boolean measured) {
+    LoadTestScenario scenario = scenarios.get(
+        (int) (sequence.getAndIncrement() % scenarios.size()));
+    return scenario.send(webClient)
+        .onErrorReturn(-1)
+        .doOnNext(status -> {
+          if (measured) {
+            stats.get(scenario).record(status,
+                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - plannedNanos));
+          }
+        });
+  }
+
+  private void printReport(Duration measuredDuration) {
+    double seconds = measuredDuration.toMillis() / 1000d;
+    System.out.printf("%-14s %10s %8s %10s %10s %10s %10s %10s%n", "scenario", "requests",
+        "errors", "rps", "p50 ms", "p99 ms", "p999 ms", "max ms");
+    Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+    long totalErrors = 0;
+    for (LoadTestScenario scenario : scenarios) {
+      ScenarioStats scenarioStats = stats.get(scenario);
+      Histogram histogram = scenarioStats.histogram.copy();
+      total.add(histogram);
+      totalErrors += scenarioStats.errors.get();
+      printRow(scenario.name().toLowerCase(Locale.ROOT), histogram, scenarioStats.errors.get(),
+          seconds);
+    }
+    printRow("total", total, totalErrors, seconds);
+  }
+
+  private static void printRow(String name, Histogram histogram, long errors, double seconds) {
+    System.out.printf(Locale.ROOT, "%-14s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n", name,
+        histogram.getTotalCount(), errors, histogram.getTotalCount() / seconds,
+        toMillis(histogram.getValueAtPercentile(50)),
+        toMillis(histogram.getValueAtPercentile(99)),
+        toMillis(histogram.getValueAtPercentile(99.9)),
+        toMillis(histogram.getMaxValue()));
+  }
+
+  private static double toMillis(long micros) {
+    return micros / 1000d;
+  }
+
+  private static Duration getDuration(String key, String defaultValue) {
+    return DurationStyle.detectAndParse(System.getProperty(key, defaultValue));
+  }
+
+  private static List<LoadTestScenario> getScenarios(String names) {
+    List<LoadTestScenario> scenarios = new ArrayList<>();
+    for (String name : names.split(",")) {
+      scenarios.add(LoadTestScenario.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+    }
+    return scenarios;
+  }
+
+  /**
+   * Latency of all responses and the count of failed requests of one scenario
+   */
+  private static final class ScenarioStats {
+
+    private final Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+
+    private final AtomicLong errors = new AtomicLong();
+
+    void record(int status, long latencyMicros) {
+      histogram.recordValue(Math.min(latencyMicros, HIGHEST_TRACKABLE_MICROS));
+      // 304 is a successful revalidation, -1 a request without response
+      if (status < 200 || status >= 400) {
+        errors.incrementAndGet();
+      }
+    }
+
+  }
+
+}
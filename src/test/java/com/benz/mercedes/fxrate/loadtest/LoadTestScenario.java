@@ -0,0 +1,61 @@
+package com.benz.mercedes.fxrate.loadtest;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+/**
+ * Requests of the load test against the ExchangeRateController endpoints. Each request drains the
+ * response body and completes with the HTTP status code.
+ */
+enum LoadTestScenario {
+
+  PAIR(webClient -> webClient.get()
+      .uri("/api/exchangerate/pair/{baseCurrency}/{targetCurrency}", "EUR", "USD")
+      .exchangeToMono(LoadTestScenario::toStatus)),
+
+  PAIR_AMOUNT(webClient -> webClient.get()
+      .uri("/api/exchangerate/pair/{baseCurrency}/{targetCurrency}/{amount}", "EUR", "USD", 250.5)
+      .exchangeToMono(LoadTestScenario::toStatus)),
+
+  CONVERT(webClient -> webClient.post()
+      .uri("/api/exchangerate/convert")
+      .contentType(MediaType.APPLICATION_JSON)
+      .accept(MediaType.APPLICATION_JSON)
+      .bodyValue(LoadTestScenario.CONVERT_REQUESTS)
+      .exchangeToMono(LoadTestScenario::toStatus)),
+
+  DAILY_REPORT(webClient -> webClient.get()
+      .uri("/api/exchangerate/daily-report")
+      .accept(MediaType.APPLICATION_JSON)
+      .exchangeToMono(LoadTestScenario::toStatus)),
+
+  REPORT(webClient -> webClient.get()
+      .uri("/api/exchangerate/report?limit={limit}", 100)
+      .accept(MediaType.APPLICATION_JSON)
+      .exchangeToMono(LoadTestScenario::toStatus));
+
+  private static final String CONVERT_REQUESTS = "["
+      + "{\"base\":\"EUR\",\"target\":\"USD\",\"amount\":100},"
+      + "{\"base\":\"USD\",\"target\":\"GBP\",\"amount\":250.5},"
+      + "{\"base\":\"GBP\",\"target\":\"CHF\",\"amount\":42},"
+      + "{\"base\":\"CHF\",\"target\":\"EUR\",\"amount\":1000}]";
+
+  private final Function<WebClient, Mono<Integer>> request;
+
+  LoadTestScenario(Function<WebClient, Mono<Integer>> request) {
+    this.request = request;
+  }
+
+  Mono<Integer> send(WebClient webClient) {
+    return request.apply(webClient);
+  }
+
+  private static Mono<Integer> toStatus(ClientResponse response) {
+    return response.releaseBody().thenReturn(response.rawStatusCode());
+  }
+
+}
@@ -0,0 +1,73 @@
+package com.benz.mercedes.fxrate.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@DisplayName("FxRate Metrics Test")
+public class FxRateMetricsTest {
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private final FxRateMetrics fxRateMetrics = new FxRateMetrics(meterRegistry);
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  @DisplayName("Test upstream calls are timed per endpoint and outcome")
+  void testTimeUpstreamCall() {
+    // Given
+    Mono<Double> pairCall = fxRateMetrics.timeUpstreamCall("pair", Mono.just(0.9825));
+    Mono<Double> failedLatestCall = fxRateMetrics.timeUpstreamCall("latest",
+        Mono.error(new IllegalStateException("upstream unavailable")));
+
+    // When
+    StepVerifier.create(pairCall).expectNext(0.9825).verifyComplete();
+    StepVerifier.create(pairCall).expectNext(0.9825).verifyComplete();
+    StepVerifier.create(failedLatestCall).verifyError(IllegalStateException.class);
+
+    // Then
+    Assertions.assertThat(meterRegistry.get(FxRateMetrics.UPSTREAM_REQUESTS)
+        .tags("endpoint", "pair", "outcome", "success").timer().count()).isEqualTo(2);
+    Assertions.assertThat(meterRegistry.get(FxRateMetrics.UPSTREAM_REQUESTS)
+        .tags("endpoint", "latest", "outcome", "error").timer().count()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Test XML file duration and size, tick lag and rate changes are recorded")
+  void testRecord() throws IOException {
+    // Given
+    File xmlFile = Files.write(tempDir.resolve("report.xml"), new byte[128]).toFile();
+
+    // When
+    fxRateMetrics.recordXmlFile(fxRateMetrics.startTimer(), "write", "daily-report", xmlFile);
+    fxRateMetrics.recordSchedulerTickLag("currency-rate", Duration.ofMillis(5));
+    fxRateMetrics.incrementRateChanges("USD");
+    fxRateMetrics.incrementRateChanges("USD");
+
+    // Then
+    Assertions.assertThat(meterRegistry.get(FxRateMetrics.XML_DURATION)
+        .tags("operation", "write", "report", "daily-report").timer().count()).isEqualTo(1);
+    Assertions.assertThat(meterRegistry.get(FxRateMetrics.XML_FILE_SIZE)
+        .tags("operation", "write").summary().totalAmount()).isEqualTo(128d);
+    Assertions.assertThat(meterRegistry.get(FxRateMetrics.SCHEDULER_TICK_LAG)
+        .tag("job", "currency-rate").timer().totalTime(TimeUnit.MILLISECONDS))
+        .isEqualTo(5d);
+    Assertions.assertThat(meterRegistry.get(FxRateMetrics.RATE_CHANGES)
+        .tag("currency", "USD").counter().count()).isEqualTo(2d);
+  }
+
+}
@@ -0,0 +1,64 @@
+package com.benz.mercedes.fxrate.persistence;
+
+import com.benz.mercedes.fxrate.domain.CurrencyTable;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@DisplayName("H2 Rate History Repository Test")
+public class H2RateHistoryRepositoryTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  @DisplayName("Test range queries by currency and time and the latest rates after a restart")
+  void testAppendAndReopen() throws IOException {
+    // Given
+    String url = "jdbc:h2:file:" + tempDir.resolve("history").toAbsolutePath();
+    H2RateHistoryRepository h2RateHistoryRepository = new H2RateHistoryRepository(url);
+    h2RateHistoryRepository.open();
+    for (int point = 0; point < 10; point++) {
+      h2RateHistoryRepository.append(new RateHistoryEntry(point * 1000L,
+          rates("USD", 0.98 + point / 1000d, "GBP", 0.875))).block();
+    }
+    // the same change appended again is stored once
+    h2RateHistoryRepository.append(new RateHistoryEntry(9000L, rates("USD", 0.989))).block();
+    h2RateHistoryRepository.close();
+
+    // When
+    H2RateHistoryRepository reopenedRepository = new H2RateHistoryRepository(url);
+    reopenedRepository.open();
+    RateSeriesSlice rateSeriesSlice = reopenedRepository.findByCurrency("usd", 2000L, 4000L)
+        .block();
+
+    // Then
+    Assertions.assertThat(rateSeriesSlice.size()).isEqualTo(3);
+    Assertions.assertThat(rateSeriesSlice.getTimestamp(0)).isEqualTo(2000L);
+    Assertions.assertThat(rateSeriesSlice.getRate(1)).isEqualTo(0.98 + 3 / 1000d);
+    Assertions.assertThat(reopenedRepository.findByCurrency("USD", Long.MIN_VALUE,
+        Long.MAX_VALUE).block().size()).isEqualTo(10);
+    Assertions.assertThat(reopenedRepository.findByCurrency("JPY", 0L, 5000L).block().size())
+        .isZero();
+    Assertions.assertThat(reopenedRepository.getCurrencies()).containsExactly("GBP", "USD");
+    Assertions.assertThat(reopenedRepository.getLastTimestamp()).isEqualTo(9000L);
+    Assertions.assertThat(reopenedRepository.getLatestRates()[CurrencyTable.ordinal("USD")])
+        .isEqualTo(0.989);
+    reopenedRepository.close();
+  }
+
+  private static Map<String, Double> rates(Object... currencyRates) {
+    Map<String, Double> rates = new LinkedHashMap<>();
+    for (int index = 0; index < currencyRates.length; index += 2) {
+      rates.put((String) currencyRates[index], (Double) currencyRates[index + 1]);
+    }
+    return rates;
+  }
+
+}
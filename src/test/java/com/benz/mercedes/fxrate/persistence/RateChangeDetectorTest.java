@@ -0,0 +1,44 @@
+package com.benz.mercedes.fxrate.persistence;
+
+import com.benz.mercedes.fxrate.domain.CurrencyTable;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+@DisplayName("Rate Change Detector Test")
+public class RateChangeDetectorTest {
+
+  @Test
+  @DisplayName("Test only fetched rates differing from the latest rates are changes")
+  void testCurrencyChanges() {
+    // Given
+    double[] latestRates = CurrencyTable.toRates(Map.of("EUR", 1d, "USD", 0.9825));
+    double[] rates = CurrencyTable.toRates(Map.of("EUR", 1d, "USD", 0.9818, "GBP", 0.875));
+
+    // When
+    Map<String, Double> currencyChanges = RateChangeDetector.getCurrencyChanges(rates,
+        latestRates);
+
+    // Then
+    Assertions.assertThat(currencyChanges).containsOnly(Map.entry("USD", 0.9818),
+        Map.entry("GBP", 0.875));
+  }
+
+  @Test
+  @DisplayName("Test every fetched rate is a change while the history is empty")
+  void testEmptyHistory() {
+    // Given
+    double[] rates = CurrencyTable.toRates(Map.of("EUR", 1d, "USD", 0.9818));
+
+    // When
+    Map<String, Double> currencyChanges = RateChangeDetector.getCurrencyChanges(rates,
+        new double[0]);
+
+    // Then
+    Assertions.assertThat(currencyChanges).containsOnly(Map.entry("EUR", 1d),
+        Map.entry("USD", 0.9818));
+  }
+
+}
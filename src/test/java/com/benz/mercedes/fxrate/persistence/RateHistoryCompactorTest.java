@@ -0,0 +1,159 @@
+package com.benz.mercedes.fxrate.persistence;
+
+import com.benz.mercedes.fxrate.config.FxRateProperties;
+import com.benz.mercedes.fxrate.support.MutableClock;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@DisplayName("Rate History Compactor Test")
+public class RateHistoryCompactorTest {
+
+  private static final Instant NOW = Instant.parse("2022-10-10T00:00:00Z");
+
+  @TempDir
+  Path tempDir;
+
+  private MutableClock clock;
+
+  private RateHistoryJournal rateHistoryJournal;
+
+  private RateTimeSeriesStore rateTimeSeriesStore;
+
+  private RateBucketStore rateBucketStore;
+
+  private RateHistoryCompactor rateHistoryCompactor;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    clock = new MutableClock(NOW);
+    FxRateProperties fxRateProperties = new FxRateProperties();
+    fxRateProperties.getHistory().setArchivePath(tempDir.resolve("history.archive").toString());
+    fxRateProperties.getRetention().setFullResolution(Duration.ofDays(1));
+    fxRateProperties.getRetention().setHourlyResolution(Duration.ofDays(2));
+    fxRateProperties.getRetention().setHorizon(Duration.ofDays(3));
+    rateHistoryJournal = new RateHistoryJournal(tempDir.resolve("history.journal"));
+    rateHistoryJournal.open();
+    rateTimeSeriesStore = new RateTimeSeriesStore(tempDir.resolve("timeseries"),
+        rateHistoryJournal);
+    rateTimeSeriesStore.open();
+    rateBucketStore = new RateBucketStore(tempDir.resolve("history.buckets"));
+    rateBucketStore.open();
+    rateHistoryCompactor = new RateHistoryCompactor(fxRateProperties, rateHistoryJournal,
+        rateTimeSeriesStore, rateBucketStore, clock);
+
+    append("2022-10-06T08:00:00Z", 1.0);
+    append("2022-10-07T10:00:05Z", 0.97);
+    append("2022-10-07T10:30:00Z", 0.99);
+    append("2022-10-07T10:45:00Z", 0.96);
+    append("2022-10-08T12:10:00Z", 0.98);
+    append("2022-10-08T12:50:00Z", 1.01);
+    append("2022-10-09T13:00:00Z", 1.02);
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    rateTimeSeriesStore.close();
+    rateHistoryJournal.close();
+  }
+
+  @Test
+  @DisplayName("Test rate changes are downsampled into hourly and daily buckets by age")
+  void testCompact() throws IOException {
+    // When
+    boolean compacted = rateHistoryCompactor.compact();
+
+    // Then
+    Assertions.assertThat(compacted).isTrue();
+    Assertions.assertThat(rateBucketStore.query("USD", Long.MIN_VALUE, Long.MAX_VALUE))
+        .containsExactly(
+            new RateBucket("USD", RateBucket.Resolution.DAY, millis("2022-10-07T00:00:00Z"),
+                0.97, 0.99, 0.96, 0.96),
+            new RateBucket("USD", RateBucket.Resolution.HOUR, millis("2022-10-08T12:00:00Z"),
+                0.98, 1.01, 0.98, 1.01));
+    Assertions.assertThat(rateBucketStore.getCompactedUntil())
+        .isEqualTo(millis("2022-10-09T00:00:00Z"));
+    Assertions.assertThat(readJournal()).containsExactly(
+        new RateHistoryEntry(millis("2022-10-07T00:00:00Z"), Map.of("USD", 0.96)),
+        new RateHistoryEntry(millis("2022-10-08T12:00:00Z"), Map.of("USD", 1.01)),
+        new RateHistoryEntry(millis("2022-10-09T13:00:00Z"), Map.of("USD", 1.02)));
+    RateSeriesSlice rateSeriesSlice = rateTimeSeriesStore.query("USD", Long.MIN_VALUE,
+        Long.MAX_VALUE);
+    Assertions.assertThat(rateSeriesSlice.size()).isEqualTo(3);
+    Assertions.assertThat(rateSeriesSlice.getRate(2)).isEqualTo(1.02);
+    // the bucket of 2022-10-06 is past the horizon
+    Assertions.assertThat(Files.size(tempDir.resolve("history.archive")))
+        .isEqualTo(RateBucketStore.RECORD_BYTES);
+    Assertions.assertThat(rateHistoryCompactor.getLastCompactedAt()).isEqualTo(NOW.toEpochMilli());
+    Assertions.assertThat(rateHistoryCompactor.compact()).isFalse();
+  }
+
+  @Test
+  @DisplayName("Test hourly buckets are widened to days and expire as the windows move on")
+  void testCompactAfterOneDay() throws IOException {
+    // Given
+    rateHistoryCompactor.compact();
+    clock.advance(Duration.ofDays(1));
+
+    // When
+    boolean compacted = rateHistoryCompactor.compact();
+
+    // Then
+    Assertions.assertThat(compacted).isTrue();
+    Assertions.assertThat(rateBucketStore.query("USD", Long.MIN_VALUE, Long.MAX_VALUE))
+        .containsExactly(
+            new RateBucket("USD", RateBucket.Resolution.DAY, millis("2022-10-08T00:00:00Z"),
+                0.98, 1.01, 0.98, 1.01),
+            new RateBucket("USD", RateBucket.Resolution.HOUR, millis("2022-10-09T13:00:00Z"),
+                1.02, 1.02, 1.02, 1.02));
+    Assertions.assertThat(Files.size(tempDir.resolve("history.archive")))
+        .isEqualTo(2L * RateBucketStore.RECORD_BYTES);
+    Assertions.assertThat(rateHistoryJournal.getLatestRates()).contains(1.02);
+  }
+
+  @Test
+  @DisplayName("Test rate changes appended after a compaction are kept at full resolution")
+  void testAppendAfterCompaction() throws IOException {
+    // Given
+    rateHistoryCompactor.compact();
+
+    // When
+    append("2022-10-09T23:00:00Z", 1.03);
+
+    // Then
+    Assertions.assertThat(readJournal()).hasSize(4)
+        .last().isEqualTo(new RateHistoryEntry(millis("2022-10-09T23:00:00Z"),
+            Map.of("USD", 1.03)));
+    Assertions.assertThat(rateTimeSeriesStore.query("USD", Long.MIN_VALUE, Long.MAX_VALUE)
+        .size()).isEqualTo(4);
+  }
+
+  private void append(String date, double rate) throws IOException {
+    RateHistoryEntry rateHistoryEntry = new RateHistoryEntry(millis(date), Map.of("USD", rate));
+    rateHistoryJournal.append(rateHistoryEntry);
+    rateTimeSeriesStore.append(rateHistoryEntry);
+  }
+
+  private List<RateHistoryEntry> readJournal() throws IOException {
+    List<RateHistoryEntry> entries = new ArrayList<>();
+    rateHistoryJournal.forEach(entries::add);
+    return entries;
+  }
+
+  private static long millis(String date) {
+    return Instant.parse(date).toEpochMilli();
+  }
+
+}
@@ -0,0 +1,148 @@
+package com.benz.mercedes.fxrate.persistence;
+
+import com.benz.mercedes.fxrate.domain.CurrencyTable;
+import com.benz.mercedes.fxrate.domain.jaxb.ExchangeRateDetails;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@DisplayName("Rate History Journal Test")
+public class RateHistoryJournalTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  @DisplayName("Test appended entries survive a restart")
+  void testAppendAndReopen() throws IOException {
+    // Given
+    Path journalPath = tempDir.resolve("history.journal");
+    RateHistoryJournal rateHistoryJournal = new RateHistoryJournal(journalPath);
+    rateHistoryJournal.open();
+    rateHistoryJournal.append(new RateHistoryEntry(1000L, rates("EUR", 1d, "USD", 0.9825)));
+    rateHistoryJournal.append(new RateHistoryEntry(2000L, rates("USD", 0.9831)));
+    rateHistoryJournal.close();
+
+    // When
+    RateHistoryJournal reopenedJournal = new RateHistoryJournal(journalPath);
+    reopenedJournal.open();
+    List<RateHistoryEntry> entries = new ArrayList<>();
+    reopenedJournal.forEach(entries::add);
+
+    // Then
+    Assertions.assertThat(entries).containsExactly(
+        new RateHistoryEntry(1000L, rates("EUR", 1d, "USD", 0.9825)),
+        new RateHistoryEntry(2000L, rates("USD", 0.9831)));
+    double[] latestRates = reopenedJournal.getLatestRates();
+    Assertions.assertThat(latestRates[CurrencyTable.ordinal("EUR")]).isEqualTo(1d);
+    Assertions.assertThat(latestRates[CurrencyTable.ordinal("USD")]).isEqualTo(0.9831);
+    Assertions.assertThat(latestRates[CurrencyTable.ordinal("GBP")]).isNaN();
+    Assertions.assertThat(reopenedJournal.getLastTimestamp()).isEqualTo(2000L);
+    reopenedJournal.close();
+  }
+
+  @Test
+  @DisplayName("Test a torn record at the end of the journal is truncated on open")
+  void testTornRecordIsTruncated() throws IOException {
+    // Given
+    Path journalPath = tempDir.resolve("history.journal");
+    RateHistoryJournal rateHistoryJournal = new RateHistoryJournal(journalPath);
+    rateHistoryJournal.open();
+    rateHistoryJournal.append(new RateHistoryEntry(1000L, rates("EUR", 1d, "USD", 0.9825)));
+    rateHistoryJournal.close();
+    long validSize = Files.size(journalPath);
+    try (FileChannel fileChannel = FileChannel.open(journalPath, StandardOpenOption.APPEND)) {
+      // length prefix of a record whose payload never made it to disk
+      fileChannel.write(ByteBuffer.allocate(7).putInt(0, 21));
+    }
+
+    // When
+    RateHistoryJournal recoveredJournal = new RateHistoryJournal(journalPath);
+    recoveredJournal.open();
+    recoveredJournal.append(new RateHistoryEntry(2000L, rates("USD", 0.9831)));
+    List<RateHistoryEntry> entries = new ArrayList<>();
+    recoveredJournal.forEach(entries::add);
+    recoveredJournal.close();
+
+    // Then
+    Assertions.assertThat(Files.size(journalPath)).isGreaterThan(validSize);
+    Assertions.assertThat(entries).extracting(RateHistoryEntry::getTimestamp)
+        .containsExactly(1000L, 2000L);
+  }
+
+  @Test
+  @DisplayName("Test export in the ExchangeRateDetails XML format")
+  void testExportExchangeRateDetails() throws IOException {
+    // Given
+    RateHistoryJournal rateHistoryJournal = new RateHistoryJournal(
+        tempDir.resolve("history.journal"));
+    rateHistoryJournal.open();
+    rateHistoryJournal.append(new RateHistoryEntry(1000L,
+        rates("EUR", 1d, "USD", 0.9825, "GBP", 0.875, "CHF", 0.9841)));
+    rateHistoryJournal.append(new RateHistoryEntry(2000L, rates("GBP", 0.8761)));
+
+    // When
+    ExchangeRateDetails exchangeRateDetails = rateHistoryJournal.exportExchangeRateDetails();
+    rateHistoryJournal.close();
+
+    // Then
+    Assertions.assertThat(exchangeRateDetails.getEuroCurrencyChanges()).hasSize(1);
+    Assertions.assertThat(exchangeRateDetails.getUsdCurrencyChanges()).hasSize(1);
+    Assertions.assertThat(exchangeRateDetails.getChfCurrencyChanges()).hasSize(1);
+    Assertions.assertThat(exchangeRateDetails.getGbpCurrencyChanges()).hasSize(2)
+        .last().satisfies(currencyChangeDetails -> {
+          Assertions.assertThat(currencyChangeDetails.getValue()).isEqualTo(0.8761);
+          Assertions.assertThat(currencyChangeDetails.getDate().getTime()).isEqualTo(2000L);
+        });
+  }
+
+  @Test
+  @DisplayName("Test compaction keeps the entries appended after the compacted records")
+  void testCompactKeepsLaterAppends() throws IOException {
+    // Given
+    Path journalPath = tempDir.resolve("history.journal");
+    RateHistoryJournal rateHistoryJournal = new RateHistoryJournal(journalPath);
+    rateHistoryJournal.open();
+    rateHistoryJournal.append(new RateHistoryEntry(1000L, rates("USD", 0.9825)));
+    rateHistoryJournal.append(new RateHistoryEntry(2000L, rates("USD", 0.9831)));
+    long end = rateHistoryJournal.forEach(entry -> {
+    });
+    rateHistoryJournal.append(new RateHistoryEntry(3000L, rates("USD", 0.9842)));
+
+    // When
+    rateHistoryJournal.compact(end, List.of(new RateHistoryEntry(0L, rates("USD", 0.9831))));
+    rateHistoryJournal.append(new RateHistoryEntry(4000L, rates("USD", 0.9853)));
+    rateHistoryJournal.close();
+
+    // Then
+    RateHistoryJournal reopenedJournal = new RateHistoryJournal(journalPath);
+    reopenedJournal.open();
+    List<RateHistoryEntry> entries = new ArrayList<>();
+    reopenedJournal.forEach(entries::add);
+    reopenedJournal.close();
+    Assertions.assertThat(entries).extracting(RateHistoryEntry::getTimestamp)
+        .containsExactly(0L, 3000L, 4000L);
+    Assertions.assertThat(Files.exists(tempDir.resolve("history.journal.compact"))).isFalse();
+  }
+
+  private static Map<String, Double> rates(Object... currencyRates) {
+    Map<String, Double> rates = new LinkedHashMap<>();
+    for (int index = 0; index < currencyRates.length; index += 2) {
+      rates.put((String) currencyRates[index], (Double) currencyRates[index + 1]);
+    }
+    return rates;
+  }
+
+}
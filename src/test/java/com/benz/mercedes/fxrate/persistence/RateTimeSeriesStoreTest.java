@@ -0,0 +1,112 @@
+package com.benz.mercedes.fxrate.persistence;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@DisplayName("Rate Time Series Store Test")
+public class RateTimeSeriesStoreTest {
+
+  @TempDir
+  Path tempDir;
+
+  private RateHistoryJournal rateHistoryJournal;
+
+  private RateTimeSeriesStore rateTimeSeriesStore;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    rateHistoryJournal = new RateHistoryJournal(tempDir.resolve("history.journal"));
+    rateHistoryJournal.open();
+    rateTimeSeriesStore = new RateTimeSeriesStore(tempDir.resolve("timeseries"),
+        rateHistoryJournal);
+    rateTimeSeriesStore.open();
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    rateTimeSeriesStore.close();
+    rateHistoryJournal.close();
+  }
+
+  @Test
+  @DisplayName("Test time range query by binary search with inclusive bounds")
+  void testQueryTimeRange() throws IOException {
+    // Given
+    for (int point = 0; point < 10; point++) {
+      append(new RateHistoryEntry(point * 1000L, rates("USD", 0.98 + point / 1000d)));
+    }
+
+    // When
+    RateSeriesSlice rateSeriesSlice = rateTimeSeriesStore.query("usd", 2000L, 4000L);
+
+    // Then
+    Assertions.assertThat(rateSeriesSlice.size()).isEqualTo(3);
+    Assertions.assertThat(rateSeriesSlice.getTimestamp(0)).isEqualTo(2000L);
+    Assertions.assertThat(rateSeriesSlice.getTimestamp(2)).isEqualTo(4000L);
+    Assertions.assertThat(rateSeriesSlice.getRate(1)).isEqualTo(0.98 + 3 / 1000d);
+    Assertions.assertThat(rateTimeSeriesStore.query("USD", 9500L, Long.MAX_VALUE).size())
+        .isZero();
+    Assertions.assertThat(rateTimeSeriesStore.query("USD", Long.MIN_VALUE, Long.MAX_VALUE).size())
+        .isEqualTo(10);
+  }
+
+  @Test
+  @DisplayName("Test points appended after a query are visible to the next query")
+  void testQuerySeesNewPoints() throws IOException {
+    // Given
+    append(new RateHistoryEntry(1000L, rates("EUR", 1d, "GBP", 0.875)));
+    Assertions.assertThat(rateTimeSeriesStore.query("GBP", 0L, 5000L).size()).isEqualTo(1);
+
+    // When
+    append(new RateHistoryEntry(2000L, rates("GBP", 0.8761)));
+
+    // Then
+    RateSeriesSlice rateSeriesSlice = rateTimeSeriesStore.query("GBP", 0L, 5000L);
+    Assertions.assertThat(rateSeriesSlice.size()).isEqualTo(2);
+    Assertions.assertThat(rateSeriesSlice.getRate(1)).isEqualTo(0.8761);
+    Assertions.assertThat(rateTimeSeriesStore.query("EUR", 0L, 5000L).size()).isEqualTo(1);
+    Assertions.assertThat(rateTimeSeriesStore.query("JPY", 0L, 5000L).size()).isZero();
+  }
+
+  @Test
+  @DisplayName("Test the time-series are rebuilt from the journal on open")
+  void testRebuildFromJournal() throws IOException {
+    // Given - a point which only made it to the journal
+    append(new RateHistoryEntry(1000L, rates("CHF", 0.9841)));
+    rateHistoryJournal.append(new RateHistoryEntry(2000L, rates("CHF", 0.9852)));
+    rateTimeSeriesStore.close();
+
+    // When
+    rateTimeSeriesStore = new RateTimeSeriesStore(tempDir.resolve("timeseries"),
+        rateHistoryJournal);
+    rateTimeSeriesStore.open();
+
+    // Then
+    RateSeriesSlice rateSeriesSlice = rateTimeSeriesStore.query("CHF", 0L, 5000L);
+    Assertions.assertThat(rateSeriesSlice.size()).isEqualTo(2);
+    Assertions.assertThat(rateSeriesSlice.getRate(1)).isEqualTo(0.9852);
+  }
+
+  private void append(RateHistoryEntry rateHistoryEntry) throws IOException {
+    rateHistoryJournal.append(rateHistoryEntry);
+    rateTimeSeriesStore.append(rateHistoryEntry);
+  }
+
+  private static Map<String, Double> rates(Object... currencyRates) {
+    Map<String, Double> rates = new LinkedHashMap<>();
+    for (int index = 0; index < currencyRates.length; index += 2) {
+      rates.put((String) currencyRates[index], (Double) currencyRates[index + 1]);
+    }
+    return rates;
+  }
+
+}
@@ -0,0 +1,78 @@
+package com.benz.mercedes.fxrate.persistence;
+
+import com.benz.mercedes.fxrate.domain.CurrencyTable;
+import com.benz.mercedes.fxrate.domain.jaxb.ExchangeRateDetails;
+import com.benz.mercedes.fxrate.xml.ExchangeRateXmlMapper;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.xml.bind.JAXBException;
+
+@DisplayName("Xml Rate History Repository Test")
+public class XmlRateHistoryRepositoryTest {
+
+  @TempDir
+  Path tempDir;
+
+  private ExchangeRateXmlMapper exchangeRateXmlMapper;
+
+  @BeforeEach
+  void setUp() throws JAXBException {
+    exchangeRateXmlMapper = new ExchangeRateXmlMapper();
+  }
+
+  @Test
+  @DisplayName("Test rate changes are written as ExchangeRateDetails and survive a restart")
+  void testAppendAndReopen() throws IOException, JAXBException {
+    // Given
+    Path xmlPath = tempDir.resolve("history.xml");
+    XmlRateHistoryRepository xmlRateHistoryRepository = new XmlRateHistoryRepository(xmlPath,
+        exchangeRateXmlMapper);
+    xmlRateHistoryRepository.open();
+    xmlRateHistoryRepository.append(new RateHistoryEntry(1000L,
+        rates("EUR", 1d, "USD", 0.9825, "JPY", 142.9))).block();
+    xmlRateHistoryRepository.append(new RateHistoryEntry(2000L, rates("USD", 0.9831))).block();
+    xmlRateHistoryRepository.append(new RateHistoryEntry(3000L, rates("USD", 0.9842))).block();
+
+    // When
+    XmlRateHistoryRepository reopenedRepository = new XmlRateHistoryRepository(xmlPath,
+        exchangeRateXmlMapper);
+    reopenedRepository.open();
+    RateSeriesSlice rateSeriesSlice = reopenedRepository.findByCurrency("usd", 2000L, 3000L)
+        .block();
+
+    // Then
+    Assertions.assertThat(rateSeriesSlice.size()).isEqualTo(2);
+    Assertions.assertThat(rateSeriesSlice.getTimestamp(0)).isEqualTo(2000L);
+    Assertions.assertThat(rateSeriesSlice.getRate(1)).isEqualTo(0.9842);
+    Assertions.assertThat(reopenedRepository.getCurrencies()).containsExactly("EUR", "USD");
+    Assertions.assertThat(reopenedRepository.getLastTimestamp()).isEqualTo(3000L);
+    Assertions.assertThat(reopenedRepository.getLatestRates()[CurrencyTable.ordinal("USD")])
+        .isEqualTo(0.9842);
+    try (Reader reader = Files.newBufferedReader(xmlPath)) {
+      ExchangeRateDetails exchangeRateDetails = exchangeRateXmlMapper.unmarshal(reader);
+      Assertions.assertThat(exchangeRateDetails.getEuroCurrencyChanges()).hasSize(1);
+      Assertions.assertThat(exchangeRateDetails.getUsdCurrencyChanges()).hasSize(3);
+    }
+    Assertions.assertThat(reopenedRepository.findByCurrency("JPY", 0L, 5000L).block().size())
+        .isZero();
+  }
+
+  private static Map<String, Double> rates(Object... currencyRates) {
+    Map<String, Double> rates = new LinkedHashMap<>();
+    for (int index = 0; index < currencyRates.length; index += 2) {
+      rates.put((String) currencyRates[index], (Double) currencyRates[index + 1]);
+    }
+    return rates;
+  }
+
+}
@@ -0,0 +1,77 @@
+package com.benz.mercedes.fxrate.report;
+
+import com.benz.mercedes.fxrate.domain.jaxb.ExchangeRateDetails;
+import com.benz.mercedes.fxrate.persistence.RateHistoryEntry;
+import com.benz.mercedes.fxrate.support.MutableClock;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+@DisplayName("Daily Report Window Test")
+public class DailyReportWindowTest {
+
+  private static final Instant START = Instant.parse("2022-10-23T00:00:00Z");
+
+  @Test
+  @DisplayName("Test the daily report holds only the rate changes of the last 24 hours")
+  void testRollingWindow() {
+    // Given
+    MutableClock clock = new MutableClock(START);
+    DailyReportWindow dailyReportWindow = new DailyReportWindow(clock);
+    dailyReportWindow.add(new RateHistoryEntry(START.toEpochMilli(),
+        Map.of("EUR", 1d, "USD", 0.9825)));
+    clock.advance(Duration.ofHours(12));
+    dailyReportWindow.add(new RateHistoryEntry(clock.millis(), Map.of("USD", 0.9831)));
+
+    // When
+    clock.advance(Duration.ofHours(13));
+    ExchangeRateDetails dailyReport = dailyReportWindow.getDailyReport();
+
+    // Then
+    Assertions.assertThat(dailyReport.getEuroCurrencyChanges()).isEmpty();
+    Assertions.assertThat(dailyReport.getUsdCurrencyChanges()).hasSize(1)
+        .first().satisfies(currencyChangeDetails -> Assertions.assertThat(
+            currencyChangeDetails.getValue()).isEqualTo(0.9831));
+  }
+
+  @Test
+  @DisplayName("Test the daily report changes when a rate change is added or leaves the window")
+  void testLastModified() {
+    // Given
+    MutableClock clock = new MutableClock(START);
+    DailyReportWindow dailyReportWindow = new DailyReportWindow(clock);
+    Assertions.assertThat(dailyReportWindow.getLastModified()).isZero();
+
+    // When
+    dailyReportWindow.add(new RateHistoryEntry(START.toEpochMilli(), Map.of("USD", 0.9825)));
+    clock.advance(Duration.ofHours(12));
+    long addedAt = dailyReportWindow.getLastModified();
+    clock.advance(Duration.ofHours(18));
+    long evictedAt = dailyReportWindow.getLastModified();
+
+    // Then
+    Assertions.assertThat(addedAt).isEqualTo(START.toEpochMilli());
+    Assertions.assertThat(evictedAt).isEqualTo(START.plus(Duration.ofHours(24)).toEpochMilli());
+  }
+
+  @Test
+  @DisplayName("Test the daily report is empty without rate changes")
+  void testEmptyWindow() {
+    // Given
+    DailyReportWindow dailyReportWindow = new DailyReportWindow(new MutableClock(START));
+
+    // When
+    ExchangeRateDetails dailyReport = dailyReportWindow.getDailyReport();
+
+    // Then
+    Assertions.assertThat(dailyReport.getEuroCurrencyChanges()).isEmpty();
+    Assertions.assertThat(dailyReport.getUsdCurrencyChanges()).isEmpty();
+    Assertions.assertThat(dailyReport.getChfCurrencyChanges()).isEmpty();
+    Assertions.assertThat(dailyReport.getGbpCurrencyChanges()).isEmpty();
+  }
+
+}
@@ -0,0 +1,71 @@
+package com.benz.mercedes.fxrate.report;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+@DisplayName("Encoded Report Cache Test")
+public class EncodedReportCacheTest {
+
+  private static final byte[] PAYLOAD = "{\"euroCurrencyChanges\":[]}"
+      .getBytes(StandardCharsets.UTF_8);
+
+  @Test
+  @DisplayName("Test a payload is served only for the version it was encoded from")
+  void testVersion() {
+    // Given
+    EncodedReportCache encodedReportCache = new EncodedReportCache(false);
+
+    // When
+    EncodedReport encodedReport = encodedReportCache.put("report/JSON", 1000L,
+        encodedReportCache.getGeneration(), PAYLOAD);
+
+    // Then
+    Assertions.assertThat(encodedReportCache.get("report/JSON", 1000L)).isSameAs(encodedReport);
+    Assertions.assertThat(encodedReportCache.get("report/JSON", 2000L)).isNull();
+    Assertions.assertThat(encodedReportCache.get("report/XML", 1000L)).isNull();
+    Assertions.assertThat(encodedReport.getGzipPayload()).isNull();
+  }
+
+  @Test
+  @DisplayName("Test a payload encoded before an invalidation is not cached")
+  void testInvalidate() {
+    // Given
+    EncodedReportCache encodedReportCache = new EncodedReportCache(false);
+    long generation = encodedReportCache.getGeneration();
+    encodedReportCache.put("report/JSON", 1000L, generation, PAYLOAD);
+
+    // When
+    encodedReportCache.invalidate();
+    EncodedReport encodedReport = encodedReportCache.put("daily-report/JSON", 1000L, generation,
+        PAYLOAD);
+
+    // Then
+    Assertions.assertThat(encodedReport.getPayload()).isEqualTo(PAYLOAD);
+    Assertions.assertThat(encodedReportCache.get("report/JSON", 1000L)).isNull();
+    Assertions.assertThat(encodedReportCache.get("daily-report/JSON", 1000L)).isNull();
+  }
+
+  @Test
+  @DisplayName("Test the gzip payload decompresses to the payload")
+  void testGzip() throws IOException {
+    // Given
+    EncodedReportCache encodedReportCache = new EncodedReportCache(true);
+
+    // When
+    EncodedReport encodedReport = encodedReportCache.put("report/JSON", 1000L,
+        encodedReportCache.getGeneration(), PAYLOAD);
+
+    // Then
+    try (GZIPInputStream gzipInputStream = new GZIPInputStream(
+        new ByteArrayInputStream(encodedReport.getGzipPayload()))) {
+      Assertions.assertThat(gzipInputStream.readAllBytes()).isEqualTo(PAYLOAD);
+    }
+  }
+
+}
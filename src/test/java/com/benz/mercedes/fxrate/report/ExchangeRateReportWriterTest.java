@@ -0,0 +1,239 @@
+package com.benz.mercedes.fxrate.report;
+
+import com.benz.mercedes.fxrate.domain.jaxb.ExchangeRateDetails;
+import com.benz.mercedes.fxrate.persistence.BinaryRateHistoryRepository;
+import com.benz.mercedes.fxrate.persistence.RateHistoryEntry;
+import com.benz.mercedes.fxrate.persistence.RateHistoryJournal;
+import com.benz.mercedes.fxrate.persistence.RateSeriesSlice;
+import com.benz.mercedes.fxrate.persistence.RateTimeSeriesStore;
+import com.benz.mercedes.fxrate.xml.ExchangeRateXmlMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLStreamException;
+
+@DisplayName("Exchange Rate Report Writer Test")
+public class ExchangeRateReportWriterTest {
+
+  @TempDir
+  Path tempDir;
+
+  private RateHistoryJournal rateHistoryJournal;
+
+  private RateTimeSeriesStore rateTimeSeriesStore;
+
+  private ExchangeRateReportWriter exchangeRateReportWriter;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    rateHistoryJournal = new RateHistoryJournal(tempDir.resolve("history.journal"));
+    rateHistoryJournal.open();
+    rateTimeSeriesStore = new RateTimeSeriesStore(tempDir.resolve("timeseries"),
+        rateHistoryJournal);
+    rateTimeSeriesStore.open();
+    exchangeRateReportWriter = new ExchangeRateReportWriter(
+        new BinaryRateHistoryRepository(rateHistoryJournal, rateTimeSeriesStore));
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    rateTimeSeriesStore.close();
+    rateHistoryJournal.close();
+  }
+
+  @Test
+  @DisplayName("Test the streamed JSON report matches the ExchangeRateDetails of the history")
+  void testJsonReport() throws IOException {
+    // Given
+    appendHistory(600);
+
+    // When
+    List<DataBuffer> dataBuffers = exchangeRateReportWriter.write(ReportFormat.JSON)
+        .collectList().block();
+
+    // Then
+    Assertions.assertThat(dataBuffers).hasSizeGreaterThan(1);
+    ExchangeRateDetails exchangeRateDetails = new ObjectMapper()
+        .readValue(toBytes(dataBuffers), ExchangeRateDetails.class);
+    Assertions.assertThat(exchangeRateDetails)
+        .isEqualTo(rateHistoryJournal.exportExchangeRateDetails());
+  }
+
+  @Test
+  @DisplayName("Test the streamed XML report is read back by JAXB as the history")
+  void testXmlReport() throws IOException, JAXBException {
+    // Given
+    appendHistory(10);
+
+    // When
+    List<DataBuffer> dataBuffers = exchangeRateReportWriter.write(ReportFormat.XML)
+        .collectList().block();
+
+    // Then
+    ExchangeRateDetails exchangeRateDetails = new ExchangeRateXmlMapper()
+        .unmarshal(new ByteArrayInputStream(toBytes(dataBuffers)));
+    Assertions.assertThat(exchangeRateDetails.getUsdCurrencyChanges())
+        .isEqualTo(rateHistoryJournal.exportExchangeRateDetails().getUsdCurrencyChanges());
+    Assertions.assertThat(exchangeRateDetails.getEuroCurrencyChanges()).hasSize(1);
+    // JAXB writes no element for an empty list and reads it back as null
+    Assertions.assertThat(exchangeRateDetails.getGbpCurrencyChanges()).isNullOrEmpty();
+  }
+
+  @Test
+  @DisplayName("Test the streamed CBOR and Smile reports are read back by Jackson as the history")
+  void testBinaryReports() throws IOException, XMLStreamException {
+    // Given
+    appendHistory(600);
+    ExchangeRateDetails history = rateHistoryJournal.exportExchangeRateDetails();
+
+    // When
+    byte[] cborReport = toBytes(exchangeRateReportWriter.write(ReportFormat.CBOR)
+        .collectList().block());
+    byte[] smileReport = toBytes(exchangeRateReportWriter.write(ReportFormat.SMILE)
+        .collectList().block());
+
+    // Then
+    Assertions.assertThat(new ObjectMapper(new CBORFactory())
+        .readValue(cborReport, ExchangeRateDetails.class)).isEqualTo(history);
+    Assertions.assertThat(new ObjectMapper(new SmileFactory())
+        .readValue(smileReport, ExchangeRateDetails.class)).isEqualTo(history);
+    // the report held in memory is encoded the same way
+    Assertions.assertThat(exchangeRateReportWriter.encode(history, ReportFormat.SMILE))
+        .isEqualTo(smileReport);
+    Assertions.assertThat(cborReport.length).isLessThan(toBytes(exchangeRateReportWriter
+        .write(ReportFormat.JSON).collectList().block()).length);
+  }
+
+  @Test
+  @DisplayName("Test the report of an empty history has empty currency lists")
+  void testEmptyReport() throws IOException {
+    // Given , When
+    List<DataBuffer> dataBuffers = exchangeRateReportWriter.write(ReportFormat.JSON)
+        .collectList().block();
+
+    // Then
+    Assertions.assertThat(new String(toBytes(dataBuffers))).isEqualTo("{\"euroCurrencyChanges\":[],"
+        + "\"usdCurrencyChanges\":[],\"chfCurrencyChanges\":[],\"gbpCurrencyChanges\":[]}");
+  }
+
+  @Test
+  @DisplayName("Test the report page is limited to the time range and the requested currencies")
+  void testPlanTimeRangeAndCurrencies() throws IOException {
+    // Given
+    appendHistory(600);
+    ReportQuery reportQuery = ReportQuery.builder()
+        .from(1666520063563L + 100_000L)
+        .to(1666520063563L + 199_000L)
+        .currencies(List.of("usd"))
+        .build();
+
+    // When
+    ReportPage reportPage = exchangeRateReportWriter.plan(reportQuery).block();
+
+    // Then
+    Assertions.assertThat(reportPage.getNextCursor()).isNull();
+    Assertions.assertThat(reportPage.getSeries()).hasSize(1);
+    ReportPage.Series series = reportPage.getSeries().get(0);
+    Assertions.assertThat(series.getCurrency()).isEqualTo("USD");
+    Assertions.assertThat(series.getRateSeriesSlice().size()).isEqualTo(100);
+    Assertions.assertThat(series.getRateSeriesSlice().getTimestamp(0))
+        .isEqualTo(1666520063563L + 100_000L);
+  }
+
+  @Test
+  @DisplayName("Test the cursor pages together return every point of the report exactly once")
+  void testPlanPagination() throws IOException {
+    // Given
+    appendHistory(600);
+    List<String> allPoints = getPoints(exchangeRateReportWriter.plan(ReportQuery.all()).block());
+
+    // When
+    List<String> pagedPoints = new ArrayList<>();
+    int pages = 0;
+    ReportCursor cursor = null;
+    do {
+      ReportPage reportPage = exchangeRateReportWriter.plan(ReportQuery.builder()
+          .cursor(cursor == null ? null : ReportCursor.decode(cursor.encode()))
+          .limit(150)
+          .build()).block();
+      List<String> points = getPoints(reportPage);
+      Assertions.assertThat(points).hasSizeLessThanOrEqualTo(150);
+      pagedPoints.addAll(points);
+      cursor = reportPage.getNextCursor();
+      pages++;
+    } while (cursor != null);
+
+    // Then
+    Assertions.assertThat(pages).isEqualTo(5);
+    Assertions.assertThat(pagedPoints).hasSize(601).isEqualTo(allPoints);
+  }
+
+  @Test
+  @DisplayName("Test an unknown currency or a non positive limit is rejected")
+  void testPlanInvalidQuery() {
+    Assertions.assertThatThrownBy(() -> exchangeRateReportWriter.plan(
+            ReportQuery.builder().currencies(List.of("JPY")).build()).block())
+        .isInstanceOf(IllegalArgumentException.class);
+    Assertions.assertThatThrownBy(() -> exchangeRateReportWriter.plan(
+            ReportQuery.builder().limit(0).build()).block())
+        .isInstanceOf(IllegalArgumentException.class);
+    Assertions.assertThatThrownBy(() -> ReportCursor.decode("invalid"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static List<String> getPoints(ReportPage reportPage) {
+    List<String> points = new ArrayList<>();
+    for (ReportPage.Series series : reportPage.getSeries()) {
+      RateSeriesSlice rateSeriesSlice = series.getRateSeriesSlice();
+      for (int index = 0; index < rateSeriesSlice.size(); index++) {
+        points.add(series.getCurrency() + "@" + rateSeriesSlice.getTimestamp(index));
+      }
+    }
+    return points;
+  }
+
+  private void appendHistory(int points) throws IOException {
+    for (int point = 0; point < points; point++) {
+      Map<String, Double> rates = new LinkedHashMap<>();
+      if (point == 0) {
+        rates.put("EUR", 1d);
+      }
+      rates.put("USD", 0.98 + point / 100000d);
+      rates.put("JPY", 145 + point / 1000d);
+      RateHistoryEntry rateHistoryEntry = new RateHistoryEntry(1666520063563L + point * 1000L,
+          rates);
+      rateHistoryJournal.append(rateHistoryEntry);
+      rateTimeSeriesStore.append(rateHistoryEntry);
+    }
+  }
+
+  private static byte[] toBytes(List<DataBuffer> dataBuffers) {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    for (DataBuffer dataBuffer : dataBuffers) {
+      byte[] bytes = new byte[dataBuffer.readableByteCount()];
+      dataBuffer.read(bytes);
+      DataBufferUtils.release(dataBuffer);
+      outputStream.write(bytes, 0, bytes.length);
+    }
+    return outputStream.toByteArray();
+  }
+
+}
@@ -0,0 +1,136 @@
+package com.benz.mercedes.fxrate.rest.client;
+
+import com.benz.mercedes.fxrate.config.FxRateProperties;
+import com.benz.mercedes.fxrate.domain.ExchangeRate;
+import com.benz.mercedes.fxrate.support.UpstreamStubServer;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.mockito.Mockito;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.BlockingOperationError;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+/**
+ * Verifies with BlockHound that the upstream clients never block a non-blocking thread. Only the
+ * threads of this test are marked as non-blocking, so other tests sharing the JVM are unaffected.
+ */
+@TestInstance(Lifecycle.PER_CLASS)
+@DisplayName("Non Blocking Exchange Rate Client Test")
+public class NonBlockingExchangeRateClientTest {
+
+  private static final String NON_BLOCKING_THREAD_PREFIX = "fxrate-non-blocking-test";
+
+  private UpstreamStubServer upstreamStubServer;
+
+  private Scheduler nonBlockingScheduler;
+
+  private ReactiveExchangeRateClient webClientExchangeRateClient;
+
+  @BeforeAll
+  void setUp() {
+    BlockHound.builder()
+        .nonBlockingThreadPredicate(current -> current.or(
+            thread -> thread.getName().startsWith(NON_BLOCKING_THREAD_PREFIX)))
+        .install();
+
+    upstreamStubServer = UpstreamStubServer.start();
+    nonBlockingScheduler = Schedulers.newParallel(NON_BLOCKING_THREAD_PREFIX);
+
+    FxRateProperties fxRateProperties = new FxRateProperties();
+    fxRateProperties.getUpstream().setBaseUrl(upstreamStubServer.getBaseUrl());
+    webClientExchangeRateClient = new WebClientExchangeRateClient(WebClient.builder(),
+        fxRateProperties);
+
+    // warm up on the test thread, so class loading does not count as a blocking call
+    webClientExchangeRateClient.getExchangeRateForEuroBaseCurrency().block();
+  }
+
+  @AfterAll
+  void tearDown() {
+    nonBlockingScheduler.dispose();
+    upstreamStubServer.close();
+  }
+
+  @Test
+  @DisplayName("Test BlockHound detects a blocking call on a non-blocking thread")
+  void testBlockingCallIsDetected() {
+    // Given
+    Mono<String> blockingCall = Mono.fromCallable(() -> {
+      Thread.sleep(10);
+      return "blocked";
+    });
+
+    // When and Then
+    StepVerifier.create(blockingCall.subscribeOn(nonBlockingScheduler))
+        .expectError(BlockingOperationError.class)
+        .verify();
+  }
+
+  @Test
+  @DisplayName("Test Get Exchange Rate for Euro Base Currency without blocking")
+  void testGetExchangeRateForEuroBaseCurrency() {
+    // Given , When
+    Mono<ExchangeRate> exchangeRate = webClientExchangeRateClient
+        .getExchangeRateForEuroBaseCurrency()
+        .subscribeOn(nonBlockingScheduler);
+
+    // Then
+    StepVerifier.create(exchangeRate)
+        .assertNext(rate -> Assertions.assertThat(rate.getConversionRates().getUsd())
+            .isEqualTo(0.9825))
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Test a client error response is signalled without blocking")
+  void testGetExchangeRateClientError() {
+    // Given
+    upstreamStubServer.failNextRequests(1, HttpResponseStatus.NOT_FOUND);
+
+    // When
+    Mono<ExchangeRate> exchangeRate = webClientExchangeRateClient
+        .getExchangeRateForEuroBaseCurrency()
+        .subscribeOn(nonBlockingScheduler);
+
+    // Then
+    StepVerifier.create(exchangeRate)
+        .expectError(WebClientResponseException.NotFound.class)
+        .verify();
+  }
+
+  @Test
+  @DisplayName("Test blocking Feign client is offloaded from the non-blocking thread")
+  void testFeignClientIsOffloaded() {
+    // Given
+    ExchangeRateClient exchangeRateClient = Mockito.mock(ExchangeRateClient.class);
+    Mockito.when(exchangeRateClient.getExchangeRateForEuroBaseCurrency())
+        .thenAnswer(invocation -> {
+          Thread.sleep(10);
+          return ExchangeRate.builder().conversionRate(0.9825).build();
+        });
+    ReactiveExchangeRateClient feignExchangeRateClient = new FeignReactiveExchangeRateClient(
+        exchangeRateClient, Schedulers.boundedElastic());
+
+    // When
+    Mono<Double> exchangeRate = feignExchangeRateClient.getExchangeRateForEuroBaseCurrency()
+        .map(ExchangeRate::getConversionRate)
+        .subscribeOn(nonBlockingScheduler);
+
+    // Then
+    StepVerifier.create(exchangeRate)
+        .expectNext(0.9825)
+        .verifyComplete();
+  }
+
+}
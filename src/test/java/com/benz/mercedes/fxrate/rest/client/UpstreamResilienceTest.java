@@ -0,0 +1,146 @@
+package com.benz.mercedes.fxrate.rest.client;
+
+import com.benz.mercedes.fxrate.config.FxRateProperties;
+import com.benz.mercedes.fxrate.support.UpstreamStubServer;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+@DisplayName("Upstream Resilience Test")
+public class UpstreamResilienceTest {
+
+  private UpstreamStubServer upstreamStubServer;
+
+  private FxRateProperties fxRateProperties;
+
+  @BeforeEach
+  void setUp() {
+    upstreamStubServer = UpstreamStubServer.start();
+    fxRateProperties = new FxRateProperties();
+    fxRateProperties.getUpstream().setBaseUrl(upstreamStubServer.getBaseUrl());
+    fxRateProperties.getUpstream().getRetry().setMinBackoff(Duration.ofMillis(10));
+    fxRateProperties.getUpstream().getRetry().setMaxBackoff(Duration.ofMillis(50));
+  }
+
+  @AfterEach
+  void tearDown() {
+    upstreamStubServer.close();
+  }
+
+  @Test
+  @DisplayName("Test a 5xx response is retried until the upstream recovers")
+  void testServerErrorIsRetried() {
+    // Given
+    upstreamStubServer.failNextRequests(2, HttpResponseStatus.SERVICE_UNAVAILABLE);
+    UpstreamResilience upstreamResilience = new UpstreamResilience(fxRateProperties);
+
+    // When
+    StepVerifier.create(upstreamResilience.protect(
+            newClient().getExchangeRateForEuroBaseCurrency()))
+        // Then
+        .assertNext(exchangeRate -> Assertions.assertThat(
+            exchangeRate.getConversionRates().getUsd()).isEqualTo(0.9825))
+        .verifyComplete();
+    Assertions.assertThat(upstreamStubServer.getRequestCount()).isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("Test a client error is neither retried nor opens the circuit breaker")
+  void testClientErrorIsNotRetried() {
+    // Given
+    upstreamStubServer.failNextRequests(1, HttpResponseStatus.NOT_FOUND);
+    fxRateProperties.getUpstream().getCircuitBreaker().setMinimumNumberOfCalls(1);
+    UpstreamResilience upstreamResilience = new UpstreamResilience(fxRateProperties);
+
+    // When
+    StepVerifier.create(upstreamResilience.protect(
+            newClient().getExchangeRateForEuroBaseCurrency()))
+        // Then
+        .expectError(WebClientResponseException.NotFound.class)
+        .verify();
+    Assertions.assertThat(upstreamStubServer.getRequestCount()).isEqualTo(1);
+    Assertions.assertThat(upstreamResilience.getCircuitBreakerState())
+        .isEqualTo(CircuitBreaker.State.CLOSED);
+  }
+
+  @Test
+  @DisplayName("Test a slow response times out and is retried")
+  void testTimeout() {
+    // Given
+    upstreamStubServer.setLatency(Duration.ofMillis(500));
+    fxRateProperties.getUpstream().setRequestTimeout(Duration.ofMillis(100));
+    fxRateProperties.getUpstream().getRetry().setMaxRetries(1);
+    UpstreamResilience upstreamResilience = new UpstreamResilience(fxRateProperties);
+
+    // When
+    StepVerifier.create(upstreamResilience.protect(
+            newClient().getExchangeRateForEuroBaseCurrency()))
+        // Then
+        .expectError(TimeoutException.class)
+        .verify(Duration.ofSeconds(5));
+    Assertions.assertThat(upstreamStubServer.getRequestCount()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("Test the open circuit breaker rejects calls without reaching the upstream")
+  void testCircuitBreakerOpens() {
+    // Given
+    upstreamStubServer.failNextRequests(Integer.MAX_VALUE, HttpResponseStatus.BAD_GATEWAY);
+    fxRateProperties.getUpstream().getRetry().setMaxRetries(0);
+    fxRateProperties.getUpstream().getCircuitBreaker().setSlidingWindowSize(2);
+    fxRateProperties.getUpstream().getCircuitBreaker().setMinimumNumberOfCalls(2);
+    UpstreamResilience upstreamResilience = new UpstreamResilience(fxRateProperties);
+    ReactiveExchangeRateClient client = newClient();
+    for (int call = 0; call < 2; call++) {
+      StepVerifier.create(upstreamResilience.protect(client.getExchangeRateForEuroBaseCurrency()))
+          .expectError(WebClientResponseException.BadGateway.class)
+          .verify();
+    }
+
+    // When
+    StepVerifier.create(upstreamResilience.protect(client.getExchangeRateForEuroBaseCurrency()))
+        // Then
+        .expectError(CallNotPermittedException.class)
+        .verify();
+    Assertions.assertThat(upstreamResilience.getCircuitBreakerState())
+        .isEqualTo(CircuitBreaker.State.OPEN);
+    Assertions.assertThat(upstreamStubServer.getRequestCount()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("Test the bulkhead rejects a call beyond the concurrency limit at once")
+  void testBulkheadIsFull() {
+    // Given
+    upstreamStubServer.setLatency(Duration.ofMillis(300));
+    fxRateProperties.getUpstream().getBulkhead().setMaxConcurrentCalls(1);
+    UpstreamResilience upstreamResilience = new UpstreamResilience(fxRateProperties);
+    ReactiveExchangeRateClient client = newClient();
+    Disposable inFlightCall = upstreamResilience.protect(
+        client.getExchangeRateForEuroBaseCurrency()).subscribe();
+
+    // When
+    StepVerifier.create(upstreamResilience.protect(client.getExchangeRateForEuroBaseCurrency()))
+        // Then
+        .expectError(BulkheadFullException.class)
+        .verify();
+    inFlightCall.dispose();
+  }
+
+  private ReactiveExchangeRateClient newClient() {
+    return new WebClientExchangeRateClient(WebClient.builder(), fxRateProperties);
+  }
+
+}
@@ -0,0 +1,107 @@
+package com.benz.mercedes.fxrate.scheduler;
+
+import com.benz.mercedes.fxrate.config.FxRateProperties;
+import com.benz.mercedes.fxrate.domain.SchedulerStatus;
+import com.benz.mercedes.fxrate.metrics.FxRateMetrics;
+import com.benz.mercedes.fxrate.service.ExchangeRateService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@DisplayName("Exchange Rate Scheduler Test")
+@ExtendWith(MockitoExtension.class)
+public class ExchangeRateSchedulerTest {
+
+  @Mock
+  private ExchangeRateService exchangeRateService;
+
+  @Spy
+  private FxRateProperties fxRateProperties = new FxRateProperties();
+
+  @Spy
+  private FxRateMetrics fxRateMetrics = new FxRateMetrics(new SimpleMeterRegistry());
+
+  @InjectMocks
+  private ExchangeRateScheduler exchangeRateScheduler;
+
+  @AfterEach
+  void tearDown() {
+    exchangeRateScheduler.stop();
+  }
+
+  @Test
+  @DisplayName("Test repeated starts keep a single running schedule")
+  void testStartIsIdempotent() {
+    // Given , When
+    SchedulerStatus firstStart = exchangeRateScheduler.start();
+    SchedulerStatus secondStart = exchangeRateScheduler.start();
+
+    // Then
+    Assertions.assertThat(firstStart.isRunning()).isTrue();
+    Assertions.assertThat(secondStart.getStartedAt()).isEqualTo(firstStart.getStartedAt());
+
+    // When
+    SchedulerStatus stopped = exchangeRateScheduler.stop();
+
+    // Then
+    Assertions.assertThat(stopped.isRunning()).isFalse();
+    Assertions.assertThat(stopped.getStartedAt()).isNull();
+    Assertions.assertThat(exchangeRateScheduler.start().isRunning()).isTrue();
+  }
+
+  @Test
+  @DisplayName("Test concurrent manual runs share one fetch")
+  void testRunNowSharesInFlightFetch() {
+    // Given
+    AtomicInteger fetchCount = new AtomicInteger();
+    Sinks.Empty<Void> fetchResult = Sinks.empty();
+    Mockito.when(exchangeRateService.fetchExchangeRates()).thenReturn(Mono.defer(() -> {
+      fetchCount.incrementAndGet();
+      return fetchResult.asMono();
+    }));
+
+    // When
+    Mono<SchedulerStatus> firstRun = exchangeRateScheduler.runNow();
+    Mono<SchedulerStatus> secondRun = exchangeRateScheduler.runNow();
+
+    // Then
+    StepVerifier.create(Mono.zip(firstRun, secondRun))
+        .then(fetchResult::tryEmitEmpty)
+        .assertNext(statuses -> {
+          Assertions.assertThat(statuses.getT1().getLastFetchAt()).isNotNull();
+          Assertions.assertThat(statuses.getT1().isRunning()).isFalse();
+        })
+        .verifyComplete();
+    Assertions.assertThat(fetchCount).hasValue(1);
+  }
+
+  @Test
+  @DisplayName("Test a failed manual run is reported in the status")
+  void testRunNowFailure() {
+    // Given
+    Mockito.when(exchangeRateService.fetchExchangeRates())
+        .thenReturn(Mono.error(new IllegalStateException("upstream unavailable")));
+
+    // When , Then
+    StepVerifier.create(exchangeRateScheduler.runNow())
+        .assertNext(status -> {
+          Assertions.assertThat(status.getLastFetchAt()).isNull();
+          Assertions.assertThat(status.getLastFetchError()).isEqualTo("upstream unavailable");
+        })
+        .verifyComplete();
+  }
+
+}
@@ -1,32 +1,41 @@
 package com.benz.mercedes.fxrate.service;
 
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.benz.mercedes.fxrate.ExchangeRateApplication;
+import com.benz.mercedes.fxrate.cache.ExchangeRateCache;
+import com.benz.mercedes.fxrate.domain.ConversionRates;
+import com.benz.mercedes.fxrate.domain.ConversionRequest;
 import com.benz.mercedes.fxrate.domain.ExchangeRate;
 import com.benz.mercedes.fxrate.domain.jaxb.ExchangeRateDetails;
+import com.benz.mercedes.fxrate.exception.UnknownCurrencyException;
+import com.benz.mercedes.fxrate.report.EncodedReport;
+import com.benz.mercedes.fxrate.report.ReportFormat;
 import com.benz.mercedes.fxrate.rest.client.ExchangeRateClient;
-import feign.FeignException;
-import feign.Request;
-import feign.RequestTemplate;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.TestInstance.Lifecycle;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
-import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
 
 @ExtendWith(SpringExtension.class)
 @TestInstance(Lifecycle.PER_CLASS)
 @ContextConfiguration(classes = {ExchangeRateApplication.class})
+@TestPropertySource(properties = "fxrate.upstream.client=feign")
 public class ExchangeRateServiceTest {
 
   @SpyBean
@@ -35,20 +44,23 @@ public class ExchangeRateServiceTest {
   @SpyBean
   private ExchangeRateClient exchangeRateClient;
 
+  @Autowired
+  private ExchangeRateCache exchangeRateCache;
+
   @Test
   @DisplayName("Test Get Exchange Rate with valid base and target currency")
   void testGetExchangeRate() {
     //Given
     String baseCurrency = "EUR";
     String targetCurrency = "USD";
-    ExchangeRate exchangeRate = ExchangeRate.builder().baseCode(baseCurrency)
-        .conversionRate(0.9818).build();
-    when(exchangeRateClient.getExchangeRate(baseCurrency, targetCurrency)).thenReturn(exchangeRate);
+    when(exchangeRateClient.getExchangeRateForEuroBaseCurrency())
+        .thenReturn(euroBaseExchangeRate());
 
     //When
     StepVerifier.create(exchangeRateService.getExchangeRate(baseCurrency, targetCurrency))
-        .expectNext(exchangeRate.getConversionRate().doubleValue())//Then
+        .expectNext(0.9818)//Then
         .verifyComplete();
+    verify(exchangeRateClient, never()).getExchangeRate(anyString(), anyString());
   }
 
   @Test
@@ -57,14 +69,14 @@ public class ExchangeRateServiceTest {
     //Given
     String baseCurrency = "eur";
     String targetCurrency = "usd";
-    ExchangeRate exchangeRate = ExchangeRate.builder().baseCode(baseCurrency)
-        .conversionRate(0.9818).build();
-    when(exchangeRateClient.getExchangeRate(baseCurrency, targetCurrency)).thenReturn(exchangeRate);
+    when(exchangeRateClient.getExchangeRateForEuroBaseCurrency())
+        .thenReturn(euroBaseExchangeRate());
 
     //When
     StepVerifier.create(exchangeRateService.getExchangeRate(baseCurrency, targetCurrency))
-        .expectNext(exchangeRate.getConversionRate().doubleValue())//Then
+        .expectNext(0.9818)//Then
         .verifyComplete();
+    verify(exchangeRateClient, never()).getExchangeRate(anyString(), anyString());
   }
 
   @Test
@@ -73,14 +85,14 @@ public class ExchangeRateServiceTest {
     //Given
     String baseCurrency = "eUr";
     String targetCurrency = "uSd";
-    ExchangeRate exchangeRate = ExchangeRate.builder().baseCode(baseCurrency)
-        .conversionRate(0.9818).build();
-    when(exchangeRateClient.getExchangeRate(baseCurrency, targetCurrency)).thenReturn(exchangeRate);
+    when(exchangeRateClient.getExchangeRateForEuroBaseCurrency())
+        .thenReturn(euroBaseExchangeRate());
 
     //When
     StepVerifier.create(exchangeRateService.getExchangeRate(baseCurrency, targetCurrency))
-        .expectNext(exchangeRate.getConversionRate().doubleValue())//Then
+        .expectNext(0.9818)//Then
         .verifyComplete();
+    verify(exchangeRateClient, never()).getExchangeRate(anyString(), anyString());
   }
 
   @Test
@@ -89,19 +101,16 @@ public class ExchangeRateServiceTest {
     //Given
     String baseCurrency = "ABC";
     String targetCurrency = "USD";
-    Request request = Request.create(Request.HttpMethod.GET,
-        "https://v6.exchangerate-api.com/v6/dfc4b4b26dafbfc23a1dfee4/pair/ABC/USD",
-        new HashMap<>(), null, new RequestTemplate());
-    FeignException feignException = new FeignException.NotFound("404 Not Found", request,
-        new byte[0], new HashMap<>());
-
-    doThrow(feignException).when(exchangeRateClient).getExchangeRate(baseCurrency, targetCurrency);
+    when(exchangeRateClient.getExchangeRateForEuroBaseCurrency())
+        .thenReturn(euroBaseExchangeRate());
 
     //When
-    Assertions.assertThatThrownBy(
-            () -> exchangeRateService.getExchangeRate(baseCurrency, targetCurrency))
-        .isInstanceOf(FeignException.class)//Then
-        .hasMessageContaining("404 Not Found");
+    StepVerifier.create(exchangeRateService.getExchangeRate(baseCurrency, targetCurrency))
+        .expectErrorSatisfies(error -> Assertions.assertThat(error)
+            .isInstanceOf(UnknownCurrencyException.class)//Then
+            .hasMessageContaining("Unsupported currency pair"))
+        .verify();
+    verify(exchangeRateClient, never()).getExchangeRate(baseCurrency, targetCurrency);
   }
 
   @Test
@@ -110,19 +119,16 @@ public class ExchangeRateServiceTest {
     //Given
     String baseCurrency = "EUR";
     String targetCurrency = "ABC";
-    Request request = Request.create(Request.HttpMethod.GET,
-        "https://v6.exchangerate-api.com/v6/dfc4b4b26dafbfc23a1dfee4/pair/EUR/ABC",
-        new HashMap<>(), null, new RequestTemplate());
-    FeignException feignException = new FeignException.NotFound("404 Not Found", request,
-        new byte[0], new HashMap<>());
-
-    doThrow(feignException).when(exchangeRateClient).getExchangeRate(baseCurrency, targetCurrency);
+    when(exchangeRateClient.getExchangeRateForEuroBaseCurrency())
+        .thenReturn(euroBaseExchangeRate());
 
     //When
-    Assertions.assertThatThrownBy(
-            () -> exchangeRateService.getExchangeRate(baseCurrency, targetCurrency))
-        .isInstanceOf(FeignException.class)//Then
-        .hasMessageContaining("404 Not Found");
+    StepVerifier.create(exchangeRateService.getExchangeRate(baseCurrency, targetCurrency))
+        .expectErrorSatisfies(error -> Assertions.assertThat(error)
+            .isInstanceOf(UnknownCurrencyException.class)//Then
+            .hasMessageContaining("Unsupported currency pair"))
+        .verify();
+    verify(exchangeRateClient, never()).getExchangeRate(baseCurrency, targetCurrency);
   }
 
   @Test
@@ -131,19 +137,16 @@ public class ExchangeRateServiceTest {
     //Given
     String baseCurrency = "CDE";
     String targetCurrency = "FGH";
-    Request request = Request.create(Request.HttpMethod.GET,
-        "https://v6.exchangerate-api.com/v6/dfc4b4b26dafbfc23a1dfee4/pair/CDE/FGH",
-        new HashMap<>(), null, new RequestTemplate());
-    FeignException feignException = new FeignException.NotFound("404 Not Found", request,
-        new byte[0], new HashMap<>());
-
-    doThrow(feignException).when(exchangeRateClient).getExchangeRate(baseCurrency, targetCurrency);
+    when(exchangeRateClient.getExchangeRateForEuroBaseCurrency())
+        .thenReturn(euroBaseExchangeRate());
 
     //When
-    Assertions.assertThatThrownBy(
-            () -> exchangeRateService.getExchangeRate(baseCurrency, targetCurrency))
-        .isInstanceOf(FeignException.class)//Then
-        .hasMessageContaining("404 Not Found");
+    StepVerifier.create(exchangeRateService.getExchangeRate(baseCurrency, targetCurrency))
+        .expectErrorSatisfies(error -> Assertions.assertThat(error)
+            .isInstanceOf(UnknownCurrencyException.class)//Then
+            .hasMessageContaining("Unsupported currency pair"))
+        .verify();
+    verify(exchangeRateClient, never()).getExchangeRate(baseCurrency, targetCurrency);
   }
 
   @Test
@@ -152,19 +155,16 @@ public class ExchangeRateServiceTest {
     //Given
     String baseCurrency = "";
     String targetCurrency = "";
-    Request request = Request.create(Request.HttpMethod.GET,
-        "https://v6.exchangerate-api.com/v6/dfc4b4b26dafbfc23a1dfee4/pair//",
-        new HashMap<>(), null, new RequestTemplate());
-    FeignException feignException = new FeignException.NotFound("404 Not Found", request,
-        new byte[0], new HashMap<>());
-
-    doThrow(feignException).when(exchangeRateClient).getExchangeRate(baseCurrency, targetCurrency);
+    when(exchangeRateClient.getExchangeRateForEuroBaseCurrency())
+        .thenReturn(euroBaseExchangeRate());
 
     //When
-    Assertions.assertThatThrownBy(
-            () -> exchangeRateService.getExchangeRate(baseCurrency, targetCurrency))
-        .isInstanceOf(FeignException.class)//Then
-        .hasMessageContaining("404 Not Found");
+    StepVerifier.create(exchangeRateService.getExchangeRate(baseCurrency, targetCurrency))
+        .expectErrorSatisfies(error -> Assertions.assertThat(error)
+            .isInstanceOf(UnknownCurrencyException.class)//Then
+            .hasMessageContaining("Unsupported currency pair"))
+        .verify();
+    verify(exchangeRateClient, never()).getExchangeRate(baseCurrency, targetCurrency);
   }
 
   @Test
@@ -173,31 +173,67 @@ public class ExchangeRateServiceTest {
     //Given
     String baseCurrency = null;
     String targetCurrency = null;
-    Request request = Request.create(Request.HttpMethod.GET,
-        "https://v6.exchangerate-api.com/v6/dfc4b4b26dafbfc23a1dfee4/pair//",
-        new HashMap<>(), null, new RequestTemplate());
-    FeignException feignException = new FeignException.NotFound("404 Not Found", request,
-        new byte[0], new HashMap<>());
-
-    doThrow(feignException).when(exchangeRateClient).getExchangeRate(baseCurrency, targetCurrency);
+    when(exchangeRateClient.getExchangeRateForEuroBaseCurrency())
+        .thenReturn(euroBaseExchangeRate());
 
     //When
-    Assertions.assertThatThrownBy(
-            () -> exchangeRateService.getExchangeRate(baseCurrency, targetCurrency))
-        .isInstanceOf(FeignException.class)//Then
-        .hasMessageContaining("404 Not Found");
+    StepVerifier.create(exchangeRateService.getExchangeRate(baseCurrency, targetCurrency))
+        .expectErrorSatisfies(error -> Assertions.assertThat(error)
+            .isInstanceOf(UnknownCurrencyException.class)//Then
+            .hasMessageContaining("Unsupported currency pair"))
+        .verify();
+    verify(exchangeRateClient, never()).getExchangeRate(baseCurrency, targetCurrency);
   }
 
   @Test
-  @DisplayName("Test read Report Data")
-  void testReadReportData() {
+  @DisplayName("Test a batch is converted with the cached rates without exchangerate-api calls")
+  void testConvertBatch() {
+    //Given - the same rates the pair tests read from the shared cache
+    exchangeRateCache.update(euroBaseExchangeRate());
+    Flux<ConversionRequest> conversionRequests = Flux.just(
+        ConversionRequest.builder().base("JPY").target("SEK").amount(1450d).build(),
+        ConversionRequest.builder().base("sek").target("nok").amount(10.875).build(),
+        ConversionRequest.builder().base("JPY").target("XYZ").amount(1d).build());
+
+    //When & Then
+    StepVerifier.create(exchangeRateService.convert(conversionRequests))
+        .assertNext(conversionResult -> Assertions.assertThat(
+            conversionResult.getConvertedAmount()).isCloseTo(108.75, Assertions.within(1e-9)))
+        .assertNext(conversionResult -> Assertions.assertThat(
+            conversionResult.getConvertedAmount()).isCloseTo(10.5, Assertions.within(1e-9)))
+        .assertNext(conversionResult -> {
+          Assertions.assertThat(conversionResult.getConvertedAmount()).isNull();
+          Assertions.assertThat(conversionResult.getError()).contains("JPY/XYZ");
+        })
+        .verifyComplete();
+    verify(exchangeRateClient, never()).getExchangeRateForEuroBaseCurrency();
+    verify(exchangeRateClient, never()).getExchangeRate(anyString(), anyString());
+  }
+
+  @Test
+  @DisplayName("Test the encoded daily report is encoded once and reused")
+  void testReadEncodedDailyReport() {
     //Given
-    String FILE_PATH = "./ExchangeRateDetails.xml";
-    String DAILY_REPORT_FILE_PATH = "./DailyExchangeRateDetails.xml";
+    EncodedReport encodedReport = exchangeRateService.readEncodedDailyReport(ReportFormat.JSON)
+        .block();
 
     //When & Then
-    StepVerifier.create(exchangeRateService.readReportData(FILE_PATH))
+    Assertions.assertThat(encodedReport).isNotNull();
+    Assertions.assertThat(new String(encodedReport.getPayload(), StandardCharsets.UTF_8))
+        .startsWith("{\"euroCurrencyChanges\":");
+    StepVerifier.create(exchangeRateService.readEncodedDailyReport(ReportFormat.JSON))
+        .assertNext(cachedReport -> Assertions.assertThat(cachedReport).isSameAs(encodedReport))
         .verifyComplete();
   }
 
+  private static ExchangeRate euroBaseExchangeRate() {
+    ConversionRates conversionRates = new ConversionRates();
+    conversionRates.setRate("EUR", 1d);
+    conversionRates.setRate("USD", 0.9818);
+    conversionRates.setRate("JPY", 145d);
+    conversionRates.setRate("SEK", 10.875);
+    conversionRates.setRate("NOK", 10.5);
+    return ExchangeRate.builder().baseCode("EUR").conversionRates(conversionRates).build();
+  }
+
 }
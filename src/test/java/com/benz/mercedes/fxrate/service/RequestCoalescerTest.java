@@ -0,0 +1,88 @@
+package com.benz.mercedes.fxrate.service;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+@DisplayName("Request Coalescer Test")
+public class RequestCoalescerTest {
+
+  private final RequestCoalescer<String, Double> requestCoalescer = new RequestCoalescer<>();
+
+  @Test
+  @DisplayName("Test concurrent callers of the same key share one upstream request")
+  void testConcurrentCallersShareOneRequest() {
+    // Given
+    AtomicInteger upstreamRequests = new AtomicInteger();
+    Sinks.One<Double> upstreamResponse = Sinks.one();
+    Supplier<Mono<Double>> upstreamRequest = () -> upstreamResponse.asMono()
+        .doOnSubscribe(subscription -> upstreamRequests.incrementAndGet());
+    List<Double> results = new CopyOnWriteArrayList<>();
+
+    // When
+    for (int caller = 0; caller < 10; caller++) {
+      requestCoalescer.coalesce("USD/EUR", upstreamRequest).subscribe(results::add);
+    }
+
+    // Then
+    Assertions.assertThat(upstreamRequests).hasValue(1);
+    Assertions.assertThat(requestCoalescer.inFlightRequestCount()).isEqualTo(1);
+
+    // When
+    upstreamResponse.tryEmitValue(1.0178);
+
+    // Then
+    Assertions.assertThat(results).hasSize(10).containsOnly(1.0178);
+    Assertions.assertThat(requestCoalescer.inFlightRequestCount()).isZero();
+  }
+
+  @Test
+  @DisplayName("Test a completed request is not reused by later callers")
+  void testCompletedRequestIsCleared() {
+    // Given
+    AtomicInteger upstreamRequests = new AtomicInteger();
+    Supplier<Mono<Double>> upstreamRequest = () -> Mono.fromCallable(
+        () -> (double) upstreamRequests.incrementAndGet());
+
+    // When and Then
+    Assertions.assertThat(requestCoalescer.coalesce("USD/EUR", upstreamRequest).block())
+        .isEqualTo(1d);
+    Assertions.assertThat(requestCoalescer.coalesce("USD/EUR", upstreamRequest).block())
+        .isEqualTo(2d);
+    Assertions.assertThat(requestCoalescer.inFlightRequestCount()).isZero();
+  }
+
+  @Test
+  @DisplayName("Test different keys are not coalesced and errors reach every caller")
+  void testDifferentKeysAndErrors() {
+    // Given
+    AtomicInteger upstreamRequests = new AtomicInteger();
+    Sinks.One<Double> upstreamResponse = Sinks.one();
+    Supplier<Mono<Double>> upstreamRequest = () -> upstreamResponse.asMono()
+        .doOnSubscribe(subscription -> upstreamRequests.incrementAndGet());
+    List<Throwable> errors = new CopyOnWriteArrayList<>();
+
+    // When
+    requestCoalescer.coalesce("USD/EUR", upstreamRequest).subscribe(value -> {
+    }, errors::add);
+    requestCoalescer.coalesce("USD/EUR", upstreamRequest).subscribe(value -> {
+    }, errors::add);
+    requestCoalescer.coalesce("GBP/EUR", upstreamRequest).subscribe(value -> {
+    }, errors::add);
+    upstreamResponse.tryEmitError(new IllegalStateException("upstream unavailable"));
+
+    // Then
+    Assertions.assertThat(upstreamRequests).hasValue(2);
+    Assertions.assertThat(errors).hasSize(3)
+        .allSatisfy(error -> Assertions.assertThat(error).hasMessage("upstream unavailable"));
+    Assertions.assertThat(requestCoalescer.inFlightRequestCount()).isZero();
+  }
+
+}
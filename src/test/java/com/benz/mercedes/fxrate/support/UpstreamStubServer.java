@@ -0,0 +1,129 @@
+package com.benz.mercedes.fxrate.support;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for the exchangerate-api /latest/EUR and /pair endpoints, served by Reactor Netty
+ * on a random port. Latency and failing responses can be injected to exercise the resilience of
+ * the upstream clients.
+ */
+public final class UpstreamStubServer implements AutoCloseable {
+
+  public static final Map<String, Double> EURO_BASE_RATES = Map.of("EUR", 1d, "USD", 0.9825,
+      "GBP", 0.875, "CHF", 0.9841);
+
+  private static final String LATEST_EUR_RESPONSE = "{\"result\":\"success\",\"base_code\":\"EUR\","
+      + "\"conversion_rates\":{\"EUR\":1,\"USD\":0.9825,\"GBP\":0.875,\"CHF\":0.9841}}";
+
+  private static final String UNSUPPORTED_CODE_RESPONSE =
+      "{\"result\":\"error\",\"error-type\":\"unsupported-code\"}";
+
+  private static final String UNAVAILABLE_RESPONSE =
+      "{\"result\":\"error\",\"error-type\":\"unavailable\"}";
+
+  private final AtomicInteger requestCount = new AtomicInteger();
+
+  private final AtomicInteger failuresLeft = new AtomicInteger();
+
+  private volatile HttpResponseStatus failureStatus = HttpResponseStatus.INTERNAL_SERVER_ERROR;
+
+  private volatile Duration latency = Duration.ZERO;
+
+  private volatile double errorRate;
+
+  private final DisposableServer disposableServer;
+
+  private UpstreamStubServer() {
+    this.disposableServer = HttpServer.create()
+        .host("localhost")
+        .port(0)
+        .route(routes -> routes
+            .get("/latest/EUR", (request, response) -> {
+              requestCount.incrementAndGet();
+              if (isFailing()) {
+                return respond(response, failureStatus, UNAVAILABLE_RESPONSE);
+              }
+              return respond(response, HttpResponseStatus.OK, LATEST_EUR_RESPONSE);
+            })
+            .get("/pair/{baseCurrency}/{targetCurrency}", (request, response) -> {
+              requestCount.incrementAndGet();
+              if (isFailing()) {
+                return respond(response, failureStatus, UNAVAILABLE_RESPONSE);
+              }
+              Double baseRate = EURO_BASE_RATES.get(request.param("baseCurrency").toUpperCase());
+              Double targetRate = EURO_BASE_RATES.get(
+                  request.param("targetCurrency").toUpperCase());
+              if (baseRate == null || targetRate == null) {
+                return respond(response, HttpResponseStatus.NOT_FOUND, UNSUPPORTED_CODE_RESPONSE);
+              }
+              return respond(response, HttpResponseStatus.OK,
+                  "{\"result\":\"success\",\"conversion_rate\":" + targetRate / baseRate + "}");
+            }))
+        .bindNow();
+  }
+
+  public static UpstreamStubServer start() {
+    return new UpstreamStubServer();
+  }
+
+  public String getBaseUrl() {
+    return "http://localhost:" + disposableServer.port();
+  }
+
+  public int getRequestCount() {
+    return requestCount.get();
+  }
+
+  /**
+   * Answers the next requests with the given error status instead of the rates
+   */
+  public void failNextRequests(int count, HttpResponseStatus status) {
+    failureStatus = status;
+    failuresLeft.set(count);
+  }
+
+  /**
+   * Answers the given share, 0 to 1, of the requests at random with the given error status
+   */
+  public void setErrorRate(double errorRate, HttpResponseStatus status) {
+    failureStatus = status;
+    this.errorRate = errorRate;
+  }
+
+  /**
+   * Delays every response by the given latency
+   */
+  public void setLatency(Duration latency) {
+    this.latency = latency;
+  }
+
+  @Override
+  public void close() {
+    disposableServer.disposeNow();
+  }
+
+  private boolean isFailing() {
+    return failuresLeft.getAndUpdate(left -> Math.max(left - 1, 0)) > 0
+        || errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+  }
+
+  private Mono<Void> respond(HttpServerResponse response, HttpResponseStatus status,
+      String body) {
+    return Mono.delay(latency)
+        .then(response.status(status)
+            .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+            .sendString(Mono.just(body))
+            .then());
+  }
+
+}
@@ -0,0 +1,127 @@
+package com.benz.mercedes.fxrate.xml;
+
+import com.benz.mercedes.fxrate.domain.jaxb.CurrencyChangeDetails;
+import com.benz.mercedes.fxrate.domain.jaxb.ExchangeRateDetails;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.xml.bind.JAXBException;
+
+@DisplayName("Exchange Rate Xml Mapper Test")
+public class ExchangeRateXmlMapperTest {
+
+  @TempDir
+  Path tempDir;
+
+  private ExchangeRateXmlMapper exchangeRateXmlMapper;
+
+  @BeforeEach
+  void setUp() throws JAXBException {
+    exchangeRateXmlMapper = new ExchangeRateXmlMapper();
+  }
+
+  @Test
+  @DisplayName("Test ExchangeRateDetails survive a marshal and unmarshal round trip")
+  void testRoundTrip() throws JAXBException {
+    // Given
+    ExchangeRateDetails exchangeRateDetails = exchangeRateDetails();
+
+    // When
+    ExchangeRateDetails unmarshalled = roundTrip(exchangeRateDetails);
+
+    // Then
+    Assertions.assertThat(unmarshalled).isEqualTo(exchangeRateDetails);
+  }
+
+  @Test
+  @DisplayName("Test ExchangeRateDetails survive a round trip through a file")
+  void testRoundTripFile() throws Exception {
+    // Given
+    ExchangeRateDetails exchangeRateDetails = exchangeRateDetails();
+    Path xmlPath = tempDir.resolve("ExchangeRateDetails.xml");
+
+    // When
+    exchangeRateXmlMapper.marshal(exchangeRateDetails, xmlPath.toFile());
+
+    // Then
+    try (Reader reader = Files.newBufferedReader(xmlPath)) {
+      Assertions.assertThat(exchangeRateXmlMapper.unmarshal(reader))
+          .isEqualTo(exchangeRateDetails);
+    }
+  }
+
+  @Test
+  @DisplayName("Test an empty currency change list is unmarshalled as null")
+  void testRoundTripEmptyList() throws JAXBException {
+    // Given
+    ExchangeRateDetails exchangeRateDetails = exchangeRateDetails();
+    exchangeRateDetails.setGbpCurrencyChanges(Collections.emptyList());
+
+    // When
+    ExchangeRateDetails unmarshalled = roundTrip(exchangeRateDetails);
+
+    // Then JAXB writes no element for an empty list
+    Assertions.assertThat(unmarshalled.getGbpCurrencyChanges()).isNull();
+    Assertions.assertThat(unmarshalled.getUsdCurrencyChanges())
+        .isEqualTo(exchangeRateDetails.getUsdCurrencyChanges());
+  }
+
+  @Test
+  @DisplayName("Test the per thread marshallers round trip concurrently")
+  void testConcurrentRoundTrip() throws Exception {
+    // Given
+    ExchangeRateDetails exchangeRateDetails = exchangeRateDetails();
+    ExecutorService executorService = Executors.newFixedThreadPool(4);
+    List<Future<ExchangeRateDetails>> futures = new ArrayList<>();
+
+    // When
+    try {
+      for (int task = 0; task < 32; task++) {
+        futures.add(executorService.submit(() -> roundTrip(exchangeRateDetails)));
+      }
+
+      // Then
+      for (Future<ExchangeRateDetails> future : futures) {
+        Assertions.assertThat(future.get()).isEqualTo(exchangeRateDetails);
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  private ExchangeRateDetails roundTrip(ExchangeRateDetails exchangeRateDetails)
+      throws JAXBException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    exchangeRateXmlMapper.marshal(exchangeRateDetails, outputStream);
+    return exchangeRateXmlMapper.unmarshal(new ByteArrayInputStream(outputStream.toByteArray()));
+  }
+
+  private static ExchangeRateDetails exchangeRateDetails() {
+    List<CurrencyChangeDetails> euroCurrencyChanges = new ArrayList<>();
+    euroCurrencyChanges.add(CurrencyChangeDetails.builder().date(new Date(1666524863000L))
+        .value(1d).build());
+    List<CurrencyChangeDetails> usdCurrencyChanges = new ArrayList<>();
+    usdCurrencyChanges.add(CurrencyChangeDetails.builder().date(new Date(1666524863000L))
+        .value(0.9825).build());
+    usdCurrencyChanges.add(CurrencyChangeDetails.builder().date(new Date(1666528463000L))
+        .value(0.9831).build());
+    return ExchangeRateDetails.builder().euroCurrencyChanges(euroCurrencyChanges)
+        .usdCurrencyChanges(usdCurrencyChanges).build();
+  }
+
+}